@@ -0,0 +1,65 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.async.AsyncEventBus;
+import fr.shyrogan.post.async.AsyncEventBusBuilder;
+import fr.shyrogan.post.async.OverflowPolicy;
+import fr.shyrogan.post.async.WaitStrategy;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost, for the producers, of dispatching a message asynchronously: through the ring buffer of an
+ * {@link AsyncEventBus} or by submitting a task per message to an executor. Both are bounded to the same capacity and
+ * let the producers dispatch by themselves when full.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@Threads(2)
+@State(Scope.Benchmark)
+public class AsyncDispatchBenchmark {
+
+    @Param({ "BUSY_SPIN", "PARK" })
+    public WaitStrategy waitStrategy;
+
+    private AsyncEventBus   ring;
+    private EventBus        bus;
+    private ThreadPoolExecutor executor;
+
+    @Setup
+    public void setup() {
+        ring     = new AsyncEventBusBuilder().waitStrategy(waitStrategy)
+                                             .consumers(2)
+                                             .overflowPolicy(OverflowPolicy.CALLER_RUNS)
+                                             .build();
+        bus      = new EventBus();
+        executor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1 << 14),
+                                          new ThreadPoolExecutor.CallerRunsPolicy());
+        ring.subscribe(new ListenerBuilder<>(String.class).perform(s -> {}).build());
+        bus.subscribe(new ListenerBuilder<>(String.class).perform(s -> {}).build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        ring.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void ring() {
+        ring.dispatch("message");
+    }
+
+    @Benchmark
+    public void executor() {
+        executor.execute(() -> bus.dispatch("message"));
+    }
+
+}
@@ -0,0 +1,76 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.BatchListener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching a burst of messages one by one ({@code loop}) or all at once ({@code batch}), to a
+ * topic with a {@link BatchListener} and some regular listeners.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BatchDispatchBenchmark {
+
+    @Param({ "16", "4096" })
+    public int messages;
+
+    private EventBus bus;
+    private Object[] burst;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        bus = new EventBus();
+        for (int i = 0; i < 4; i++) {
+            bus.subscribe(new ListenerBuilder<>(String.class).priority(i).perform(blackhole::consume).build());
+        }
+        bus.subscribe(new BatchListener<String>() {
+            @Override
+            public void receiveAll(List<String> messages) {
+                blackhole.consume(messages.size());
+            }
+
+            @Override
+            public Class<String> topic() {
+                return String.class;
+            }
+
+            @Override
+            public int priority() {
+                return 0;
+            }
+
+            @Override
+            public void receive(String message) {
+                blackhole.consume(message);
+            }
+        });
+
+        burst = new Object[messages];
+        for (int i = 0; i < messages; i++) {
+            burst[i] = "Message " + i;
+        }
+    }
+
+    @Benchmark
+    public void loop() {
+        for (Object message : burst) {
+            bus.dispatch(message);
+        }
+    }
+
+    @Benchmark
+    public void batch() {
+        bus.dispatchAll(burst);
+    }
+
+}
@@ -0,0 +1,66 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a tick during which each entity publishes many updates, dispatched one by one or conflated by
+ * entity and flushed at the end of the tick.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ConflationBenchmark {
+
+    @Param({ "64" })
+    public int entities;
+
+    @Param({ "16" })
+    public int updatesPerEntity;
+
+    @Param({ "false", "true" })
+    public boolean conflated;
+
+    private EventBus   bus;
+    private Position[] updates;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        bus = new EventBus();
+        for (int i = 0; i < 8; i++) {
+            bus.subscribe(new ListenerBuilder<>(Position.class).perform(p -> blackhole.consumeCPU(100)).build());
+        }
+        if (conflated) bus.conflate(Position.class, p -> p.entity);
+
+        updates = new Position[entities * updatesPerEntity];
+        for (int i = 0; i < updates.length; i++) {
+            updates[i] = new Position(i % entities, i);
+        }
+    }
+
+    @Benchmark
+    public int tick() {
+        for (Position update : updates) {
+            bus.dispatch(update);
+        }
+        return bus.flushConflated();
+    }
+
+    public static class Position {
+        public final Integer entity;
+        public final int     x;
+
+        public Position(Integer entity, int x) {
+            this.entity = entity;
+            this.x      = x;
+        }
+    }
+
+}
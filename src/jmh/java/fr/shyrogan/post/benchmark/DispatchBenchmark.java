@@ -0,0 +1,100 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.Publisher;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.IterativeMessageDispatcher;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput and the latency of a dispatch depending on the amount of listeners of the topic.
+ * <p>{@code bus} goes through {@link EventBus#dispatch(Object)}, {@code configured} directly uses the dispatcher picked
+ * by the configuration and {@code iterative} always uses the {@link IterativeMessageDispatcher}. {@code dead}
+ * dispatches a message nobody listens to and {@code publisher} goes through the {@link Publisher} of the topic.</p>
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+
+    @Param({ "1", "2", "10", "1000" })
+    public int listeners;
+
+    private final String  message     = "Hey!";
+    private final Integer deadMessage = 42;
+
+    private EventBus          bus;
+    private Publisher<String> publisher;
+    private MessageDispatcher configured;
+    private MessageDispatcher iterative;
+    /** The subscribed holders, kept reachable since the event bus only references them weakly **/
+    private Holder[]          holders;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        final EventBusConfiguration configuration = EventBusConfiguration.DEFAULT;
+        final List<Listener>        list          = new ArrayList<>(listeners);
+        bus     = new EventBus(configuration);
+        holders = new Holder[listeners];
+
+        for (int i = 0; i < listeners; i++) {
+            holders[i] = new Holder(blackhole);
+            list.addAll(configuration.receiverFactory().lookInto(holders[i], configuration));
+            bus.subscribe(holders[i]);
+        }
+
+        publisher  = bus.publisher(String.class);
+        configured = configuration.dispatcherFor(list.toArray(new Listener[0]));
+        iterative  = new IterativeMessageDispatcher(list.toArray(new Listener[0]));
+    }
+
+    @Benchmark
+    public void bus() {
+        bus.dispatch(message);
+    }
+
+    @Benchmark
+    public void publisher() {
+        publisher.publish(message);
+    }
+
+    @Benchmark
+    public void dead() {
+        bus.dispatch(deadMessage);
+    }
+
+    @Benchmark
+    public void configured() {
+        configured.dispatch(message);
+    }
+
+    @Benchmark
+    public void iterative() {
+        iterative.dispatch(message);
+    }
+
+    public static class Holder {
+        private final Blackhole blackhole;
+
+        public Holder(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Subscribe
+        public void onMessage(String message) {
+            blackhole.consume(message);
+        }
+    }
+
+}
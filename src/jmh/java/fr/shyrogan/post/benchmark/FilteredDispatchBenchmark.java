@@ -0,0 +1,59 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Measures the cost of dispatching a message to many listeners sharing a few filters, such as "is in world X".
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class FilteredDispatchBenchmark {
+
+    @Param({ "16", "256" })
+    public int listeners;
+
+    @Param({ "1", "4" })
+    public int worlds;
+
+    private EventBus     bus;
+    private WorldMessage message;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        bus = new EventBus();
+        final Predicate<WorldMessage>[] filters = new Predicate[worlds];
+        for (int i = 0; i < worlds; i++) {
+            final int world = i;
+            filters[i] = m -> m.world == world;
+        }
+        for (int i = 0; i < listeners; i++) {
+            bus.subscribe(new ListenerBuilder<>(WorldMessage.class).filter(filters[i % worlds])
+                                                                   .perform(blackhole::consume).build());
+        }
+        message = new WorldMessage(worlds - 1);
+    }
+
+    @Benchmark
+    public void dispatch() {
+        bus.dispatch(message);
+    }
+
+    public static class WorldMessage {
+        public final int world;
+
+        public WorldMessage(int world) {
+            this.world = world;
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching a message to one of many per-player listeners, routed by filters ({@code
+ * filtered}) or by keys ({@code keyed}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class KeyedDispatchBenchmark {
+
+    @Param({ "10", "5000" })
+    public int players;
+
+    private EventBus      filtered, keyed;
+    private PlayerMessage message;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        filtered = new EventBus();
+        keyed    = new EventBus().keyExtractor(PlayerMessage.class, m -> m.player);
+        for (int i = 0; i < players; i++) {
+            final String player = "Player" + i;
+            filtered.subscribe(new ListenerBuilder<>(PlayerMessage.class).filter(m -> m.player.equals(player))
+                                                                         .perform(blackhole::consume).build());
+            keyed.subscribe(new ListenerBuilder<>(PlayerMessage.class).key(player)
+                                                                      .perform(blackhole::consume).build());
+        }
+        message = new PlayerMessage("Player" + players / 2);
+    }
+
+    @Benchmark
+    public void filtered() {
+        filtered.dispatch(message);
+    }
+
+    @Benchmark
+    public void keyed() {
+        keyed.dispatch(message);
+    }
+
+    public static class PlayerMessage {
+        public final String player;
+
+        public PlayerMessage(String player) {
+            this.player = player;
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of a dispatch to 8 listeners, either all of the same class ({@code monomorphic}) or all of a
+ * different class ({@code megamorphic}), which defeats the inlining of the listener call site.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MegamorphicDispatchBenchmark {
+
+    @Param({ "monomorphic", "megamorphic" })
+    public String shape;
+
+    private final String message = "Hey!";
+
+    private EventBus bus;
+    /** The subscribed holders, kept reachable since the event bus only references them weakly **/
+    private Object[] holders;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        bus = new EventBus();
+        if (shape.equals("monomorphic")) {
+            holders = new Object[8];
+            for (int i = 0; i < 8; i++) holders[i] = new H0(blackhole);
+        } else {
+            holders = new Object[] { new H0(blackhole), new H1(blackhole), new H2(blackhole), new H3(blackhole),
+                                     new H4(blackhole), new H5(blackhole), new H6(blackhole), new H7(blackhole) };
+        }
+        bus.subscribeAll(holders);
+    }
+
+    @Benchmark
+    public void dispatch() {
+        bus.dispatch(message);
+    }
+
+    public static class H0 {
+        private final Blackhole blackhole;
+        public H0(Blackhole blackhole) { this.blackhole = blackhole; }
+        @Subscribe public void onMessage(String message) { blackhole.consume(message); }
+    }
+
+    public static class H1 {
+        private final Blackhole blackhole;
+        public H1(Blackhole blackhole) { this.blackhole = blackhole; }
+        @Subscribe public void onMessage(String message) { blackhole.consume(message); }
+    }
+
+    public static class H2 {
+        private final Blackhole blackhole;
+        public H2(Blackhole blackhole) { this.blackhole = blackhole; }
+        @Subscribe public void onMessage(String message) { blackhole.consume(message); }
+    }
+
+    public static class H3 {
+        private final Blackhole blackhole;
+        public H3(Blackhole blackhole) { this.blackhole = blackhole; }
+        @Subscribe public void onMessage(String message) { blackhole.consume(message); }
+    }
+
+    public static class H4 {
+        private final Blackhole blackhole;
+        public H4(Blackhole blackhole) { this.blackhole = blackhole; }
+        @Subscribe public void onMessage(String message) { blackhole.consume(message); }
+    }
+
+    public static class H5 {
+        private final Blackhole blackhole;
+        public H5(Blackhole blackhole) { this.blackhole = blackhole; }
+        @Subscribe public void onMessage(String message) { blackhole.consume(message); }
+    }
+
+    public static class H6 {
+        private final Blackhole blackhole;
+        public H6(Blackhole blackhole) { this.blackhole = blackhole; }
+        @Subscribe public void onMessage(String message) { blackhole.consume(message); }
+    }
+
+    public static class H7 {
+        private final Blackhole blackhole;
+        public H7(Blackhole blackhole) { this.blackhole = blackhole; }
+        @Subscribe public void onMessage(String message) { blackhole.consume(message); }
+    }
+
+}
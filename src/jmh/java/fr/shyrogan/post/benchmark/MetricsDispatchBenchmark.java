@@ -0,0 +1,66 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of the metrics and of the flight recorder events (while no recording enables them) on the
+ * dispatch path, compared to an event bus that does not collect them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MetricsDispatchBenchmark {
+
+    @Param({ "1", "8" })
+    public int listeners;
+
+    @Param({ "false", "true" })
+    public boolean metrics;
+
+    @Param({ "false", "true" })
+    public boolean flightRecorder;
+
+    private EventBus bus;
+    private Object   message;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        final boolean enabled = metrics, recorded = flightRecorder;
+        bus = new EventBus(new EventBusConfiguration() {
+            @Override
+            public boolean metricsEnabled() {
+                return enabled;
+            }
+
+            @Override
+            public boolean flightRecorderEvents() {
+                return recorded;
+            }
+        });
+        for (int i = 0; i < listeners; i++) {
+            bus.subscribe(new ListenerBuilder<>(String.class).perform(blackhole::consume).build());
+        }
+        message = "message";
+    }
+
+    @Benchmark
+    public void dispatch() {
+        bus.dispatch(message);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void dispatchContended() {
+        bus.dispatch(message);
+    }
+
+}
@@ -0,0 +1,54 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of dispatching a message to many CPU-heavy listeners of equal priority, serially or in parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ParallelDispatchBenchmark {
+
+    @Param({ "8", "256" })
+    public int listeners;
+
+    @Param({ "0", "64" })
+    public int threshold;
+
+    @Param({ "1000" })
+    public int work;
+
+    private EventBus bus;
+    private Object   message;
+
+    @Setup
+    public void setup() {
+        final int parallelThreshold = threshold;
+        bus = new EventBus(new EventBusConfiguration() {
+            @Override
+            public int parallelDispatchThreshold() {
+                return parallelThreshold;
+            }
+        });
+        for (int i = 0; i < listeners; i++) {
+            bus.subscribe(new ListenerBuilder<>(String.class).perform(s -> Blackhole.consumeCPU(work)).build());
+        }
+        message = "message";
+    }
+
+    @Benchmark
+    public void dispatch() {
+        bus.dispatch(message);
+    }
+
+}
@@ -0,0 +1,61 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.message.MessagePool;
+import fr.shyrogan.post.message.PooledMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost (and the allocation rate, using the GC profiler) of dispatching a new message each time, compared
+ * to dispatching a message acquired from a pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PooledDispatchBenchmark {
+
+    private EventBus           bus;
+    private MessagePool<Moved> pool;
+    private int                x;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        bus = new EventBus();
+        for (int i = 0; i < 4; i++) {
+            // Escapes, so the allocation cannot be eliminated
+            bus.subscribe(new ListenerBuilder<>(Moved.class).perform(blackhole::consume).build());
+        }
+        pool = bus.messagePool(Moved.class, Moved::new);
+    }
+
+    @Benchmark
+    public void allocated() {
+        final Moved moved = new Moved();
+        moved.x = x++;
+        bus.dispatch(moved);
+    }
+
+    @Benchmark
+    public void pooled() {
+        final Moved moved = pool.acquire();
+        moved.x = x++;
+        pool.dispatch(moved);
+    }
+
+    public static class Moved extends PooledMessage {
+        public int x, y, z;
+
+        @Override
+        protected void reset() {
+            x = y = z = 0;
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.factory.impl.AnnotatedFieldAndMethodFactory;
+import fr.shyrogan.post.factory.impl.AnnotatedMethodFactory;
+import fr.shyrogan.post.factory.impl.HiddenClassMethodFactory;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of looking for the listeners of a new object using the receiver factories.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RegistrationBenchmark {
+
+    private final EventBusConfiguration configuration = EventBusConfiguration.DEFAULT;
+
+    @Benchmark
+    public List<Listener> methodFactory() {
+        return AnnotatedMethodFactory.INSTANCE.lookInto(new Holder(), configuration);
+    }
+
+    @Benchmark
+    public List<Listener> fieldAndMethodFactory() {
+        return AnnotatedFieldAndMethodFactory.INSTANCE.lookInto(new Holder(), configuration);
+    }
+
+    @Benchmark
+    public List<Listener> hiddenClassMethodFactory() {
+        return HiddenClassMethodFactory.INSTANCE.lookInto(new Holder(), configuration);
+    }
+
+    public static class Holder {
+        @Subscribe
+        public void onString(String message) { }
+
+        @Subscribe(priority = 10)
+        public void onInteger(Integer message) { }
+
+        @Subscribe(priority = -10)
+        public void onLong(Long message) { }
+    }
+
+}
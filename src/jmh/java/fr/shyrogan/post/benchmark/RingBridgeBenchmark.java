@@ -0,0 +1,90 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.bridge.CodecRegistry;
+import fr.shyrogan.post.bridge.MappedRing;
+import fr.shyrogan.post.bridge.MessageCodec;
+import fr.shyrogan.post.bridge.RingPublisher;
+import fr.shyrogan.post.bridge.RingReader;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of bridging a message through a memory-mapped ring: it is dispatched on a first event bus, encoded
+ * into the ring, then decoded and dispatched on a second event bus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RingBridgeBenchmark {
+
+    @Param({ "1", "16" })
+    public int messagesPerPoll;
+
+    private Path       file;
+    private MappedRing ring;
+    private EventBus   source;
+    private RingReader reader;
+    private Position   position;
+
+    @Setup
+    public void setup(Blackhole blackhole) throws IOException {
+        final CodecRegistry codecs = new CodecRegistry().register(Position.class, new PositionCodec());
+        file     = Files.createTempFile("post-ring", ".bin");
+        ring     = MappedRing.create(file, 1 << 20);
+        source   = new EventBus();
+        position = new Position(1, 2.5);
+        new RingPublisher(source, ring, codecs).bridge(Position.class);
+
+        final EventBus target = new EventBus();
+        target.subscribe(new ListenerBuilder<>(Position.class).perform(blackhole::consume).build());
+        reader = new RingReader(target, ring, codecs);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ring.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int bridge() {
+        for (int i = 0; i < messagesPerPoll; i++) {
+            source.dispatch(position);
+        }
+        return reader.poll();
+    }
+
+    public static class Position {
+        public final int    entity;
+        public final double x;
+
+        public Position(int entity, double x) {
+            this.entity = entity;
+            this.x      = x;
+        }
+    }
+
+    public static class PositionCodec implements MessageCodec<Position> {
+        @Override
+        public void encode(Position message, ByteBuffer target) {
+            target.putInt(message.entity).putDouble(message.x);
+        }
+
+        @Override
+        public Position decode(ByteBuffer source) {
+            return new Position(source.getInt(), source.getDouble());
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of subscribing then unsubscribing a listener to a topic that already contains some listeners, and
+ * the cost of subscribing all of these listeners at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SubscriptionBenchmark {
+
+    @Param({ "10", "1000" })
+    public int listeners;
+
+    private EventBus         bus;
+    private Listener<String> listener;
+    private List<Listener>   batch;
+
+    @Setup
+    public void setup() {
+        bus   = new EventBus();
+        batch = new ArrayList<>(listeners);
+        for (int i = 0; i < listeners; i++) {
+            batch.add(new ListenerBuilder<>(String.class).priority(i).perform(s -> {}).build());
+        }
+        bus.subscribe(batch);
+        listener = new ListenerBuilder<>(String.class).priority(listeners / 2).perform(s -> {}).build();
+    }
+
+    @Benchmark
+    public EventBus churn() {
+        return bus.subscribe(listener).unsubscribe(listener);
+    }
+
+    @Benchmark
+    public EventBus bulk() {
+        return new EventBus().subscribe(batch);
+    }
+
+}
@@ -0,0 +1,66 @@
+package fr.shyrogan.post.benchmark;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of handing messages from worker threads to the thread owning an execution context: the producers
+ * dispatch into the mailbox of the context, which the consumer drains as a tick would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Group)
+public class ThreadAffineDispatchBenchmark {
+
+    private EventBus bus;
+    private Object   message;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        bus     = new EventBus();
+        message = new Object();
+        bus.subscribe(new ListenerBuilder<>(Object.class).thread("main").perform(blackhole::consume).build());
+    }
+
+    @Benchmark
+    @Group("mailbox")
+    @GroupThreads(3)
+    public void dispatch() {
+        bus.dispatch(message);
+    }
+
+    @Benchmark
+    @Group("mailbox")
+    @GroupThreads(1)
+    public int drain() {
+        return bus.drain("main");
+    }
+
+    @Benchmark
+    public void ownerDispatch(Owner owner) {
+        owner.bus.dispatch(message);
+    }
+
+    /**
+     * An event bus whose context is owned by the benchmark thread, so that the receiver is invoked directly.
+     */
+    @State(Scope.Thread)
+    public static class Owner {
+        private EventBus bus;
+
+        @Setup
+        public void setup(Blackhole blackhole) {
+            bus = new EventBus();
+            bus.subscribe(new ListenerBuilder<>(Object.class).thread("main").perform(blackhole::consume).build());
+            bus.context("main").bind();
+        }
+    }
+
+}
@@ -1,14 +1,26 @@
 package fr.shyrogan.post;
 
 import fr.shyrogan.post.configuration.EventBusConfiguration;
-import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.context.ExecutionContext;
+import fr.shyrogan.post.dispatcher.impl.ConflatingMessageDispatcher;
 import fr.shyrogan.post.factory.ReceiverFactory;
+import fr.shyrogan.post.listener.BatchListener;
 import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.message.Cancellable;
+import fr.shyrogan.post.message.MessagePool;
+import fr.shyrogan.post.message.PooledMessage;
+import fr.shyrogan.post.metrics.EventBusMetrics;
+import fr.shyrogan.post.registry.ListenerRegistry;
+import fr.shyrogan.post.registry.Topic;
+import fr.shyrogan.post.utils.WeakIdentityMap;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-import static java.util.Comparator.comparingInt;
 import static java.util.stream.Collectors.joining;
 
 /**
@@ -24,15 +36,26 @@ public class EventBus {
     private final EventBusConfiguration configuration;
 
     /**
-     * The map used to associate each receivers to their topic (message's class).
+     * The registry used to associate each receivers to their topic (message's class).
      */
-    private final Map<Class<?>, ArrayList<Listener>> receiversMap;
-    private final Map<Class<?>, MessageDispatcher>   dispatcherMap;
+    private final ListenerRegistry registry;
 
     /**
-     * A cache used to accelerate subscription/unsubscription.
+     * The publisher bound to each topic.
      */
-    private final Map<Object, List<Listener>> factoryCache = new WeakHashMap<>();
+    private final ClassValue<Publisher<?>> publishers = new ClassValue<Publisher<?>>() {
+        @Override
+        protected Publisher<?> computeValue(Class<?> type) {
+            return Publisher.bind(registry.topic(type));
+        }
+    };
+
+    /**
+     * The subscription of each object (compared by identity), used to accelerate subscription/unsubscription. Objects
+     * are weakly referenced, and so are they by the receivers of their methods: the listeners of a collected object
+     * are unsubscribed on the next subscription or unsubscription.
+     */
+    private final WeakIdentityMap<Object, Subscription> subscriptions = new WeakIdentityMap<>();
 
     /**
      * Creates a new event bus with the default configuration.
@@ -48,94 +71,88 @@ public class EventBus {
      */
     public EventBus(EventBusConfiguration configuration) {
         this.configuration = configuration;
-        this.receiversMap  = new ConcurrentHashMap<>(configuration.initialReceiverMapCapacity());
-        this.dispatcherMap = new ConcurrentHashMap<>();
+        this.registry      = new ListenerRegistry(configuration);
     }
 
     /**
-     * Registers specified receivers to the event bus, allowing them to receive published messages.
+     * Registers specified receivers to the event bus, allowing them to receive published messages. The dispatcher of
+     * each topic is rebuilt only once, no matter how many of its receivers are registered.
      *
      * @param listenerList The receivers.
      *
      * @return The event bus.
      */
     public EventBus subscribe(List<Listener> listenerList) {
-        listenerList.forEach(this::subscribe);
+        registry.subscribe(listenerList);
         return this;
     }
 
     /**
-     * Registers specified receiver to the event bus, allowing it to receive published messages.
+     * Registers specified receiver to the event bus, allowing it to receive published messages. The receiver receives
+     * every message dispatched after this method returns.
      *
      * @param listener The receiver.
      *
      * @return The event bus.
      */
     public EventBus subscribe(Listener listener) {
-        configuration.executorService().submit(() -> {
-            ArrayList<Listener> registeredListeners = receiversMap.getOrDefault(
-                    listener.topic(), new ArrayList<>(configuration.initialReceiverListCapacity()));
-            registeredListeners.add(listener);
-            registeredListeners.sort(comparingInt(r -> -r.priority()));
-            receiversMap.put(listener.topic(), registeredListeners);
-            dispatcherMap.put(listener.topic(), configuration.dispatcherFor(receiversMap.get(listener.topic())));
-        });
-
+        registry.subscribe(listener);
         return this;
     }
 
     /**
      * Inspects the object in quest of {@link Listener} using the {@link ReceiverFactory} and then registers them.
+     * <p>The event bus does not keep the object reachable: once it is garbage collected, its receivers stop being
+     * invoked and are unsubscribed lazily. The object must therefore be referenced elsewhere as long as it listens.
+     * Receivers held by its fields (lambdas capturing the object for instance) still keep it reachable.</p>
      *
      * @param object The object.
      *
      * @return The event bus.
      */
     public EventBus subscribe(Object object) {
-        List<Listener> listeners = factoryCache.get(object);
-        if (listeners == null) {
-            factoryCache.put(object, listeners = configuration.receiverFactory().lookInto(object, configuration));
+        return subscribe(subscribed(object));
+    }
+
+    /**
+     * Inspects each object in quest of {@link Listener} using the {@link ReceiverFactory} and then registers all of
+     * them at once, rebuilding the dispatcher of each topic only once.
+     *
+     * @param objects The objects.
+     *
+     * @return The event bus.
+     */
+    public EventBus subscribeAll(Object... objects) {
+        final List<Listener> listeners = new ArrayList<>();
+        for (Object object : objects) {
+            listeners.addAll(subscribed(object));
         }
         return subscribe(listeners);
     }
 
     /**
      * Unregisters specified receivers to the event bus, allowing these receivers to be "ignored". They can still be
-     * registered again.
+     * registered again. The dispatcher of each topic is rebuilt only once.
      *
      * @param listenerList The receivers.
      *
      * @return The event bus.
      */
     public EventBus unsubscribe(List<Listener> listenerList) {
-        listenerList.forEach(this::unsubscribe);
+        registry.unsubscribe(listenerList);
         return this;
     }
 
     /**
      * Unregisters specified receiver to the event bus, allowing that receiver to be "ignored". It can still be
-     * registered again.
+     * registered again. The receiver does not receive any message dispatched after this method returns.
      *
      * @param listener The receiver.
      *
      * @return The event bus.
      */
     public EventBus unsubscribe(Listener listener) {
-        configuration.executorService().submit(() -> {
-            ArrayList<Listener> registeredListeners = receiversMap.get(listener.topic());
-            if (registeredListeners != null) {
-                registeredListeners.remove(listener);
-
-                if (registeredListeners.isEmpty()) {
-                    receiversMap.remove(listener.topic());
-                    dispatcherMap.remove(listener.topic());
-                } else {
-                    dispatcherMap.put(
-                            listener.topic(), configuration.dispatcherFor(receiversMap.get(listener.topic())));
-                }
-            }
-        });
-
+        registry.unsubscribe(listener);
         return this;
     }
 
@@ -147,18 +164,349 @@ public class EventBus {
      * @return The event bus.
      */
     public EventBus unsubscribe(Object object) {
-        List<Listener> listeners = factoryCache.get(object);
+        List<Listener> listeners = unsubscribed(object);
         if (listeners == null) return this;
         return unsubscribe(listeners);
     }
 
     /**
-     * Dispatches specified message to each of its receivers, if they exist.
+     * Inspects each object in quest of {@link Listener} using the {@link ReceiverFactory} and then unregisters all of
+     * them at once, rebuilding the dispatcher of each topic only once.
+     *
+     * @param objects The objects.
+     *
+     * @return The event bus.
+     */
+    public EventBus unsubscribeAll(Object... objects) {
+        final List<Listener> listeners = new ArrayList<>();
+        for (Object object : objects) {
+            final List<Listener> found = unsubscribed(object);
+            if (found != null) listeners.addAll(found);
+        }
+        return unsubscribe(listeners);
+    }
+
+    /**
+     * Registers the key extractor of specified topic: receivers of that topic with a {@link Listener#key()} then only
+     * receive the messages whose extracted key is equal to theirs, which are looked up in a hash index. Until the topic
+     * has a key extractor, its receivers with a key do not receive any message. If the dispatch is polymorphic, the key
+     * extractor also applies to the sub types of the topic that do not have their own.
+     * <p>Keys are compared with {@link Object#equals(Object)}, without conversion: since the keys of
+     * {@link fr.shyrogan.post.listener.annotation.Subscribe#key()} are strings, the extractor must return strings to
+     * match annotated receivers (for instance {@code String.valueOf(id)} rather than an {@code Integer} id).</p>
+     *
+     * @param topic     The topic.
+     * @param extractor The key extractor, or null to remove it.
+     * @param <T>       The message type.
+     *
+     * @return The event bus.
+     */
+    public <T> EventBus keyExtractor(Class<T> topic, Function<? super T, ?> extractor) {
+        registry.keyExtractor(topic, extractor);
+        return this;
+    }
+
+    /**
+     * Conflates the messages of specified topic by key: only the newest message of each key (as returned by specified
+     * key extractor) is kept until the topic is flushed, manually, on each tick (see {@link #flushConflated()}) or
+     * every time window (see {@link ConflatingMessageDispatcher#flushEvery(java.time.Duration,
+     * java.util.concurrent.ScheduledExecutorService)}). The pending messages are then dispatched as a batch. Only the
+     * messages whose class is the topic are conflated.
+     *
+     * @param topic     The topic.
+     * @param extractor The key extractor, or null to stop conflating the topic (its pending messages are flushed).
+     * @param <T>       The message type.
+     *
+     * @return The conflating dispatcher of the topic, used to flush it, or null.
+     */
+    public <T> ConflatingMessageDispatcher conflate(Class<T> topic, Function<? super T, ?> extractor) {
+        return registry.conflate(topic, extractor);
+    }
+
+    /**
+     * Flushes every conflated topic, see {@link #conflate(Class, Function)}.
+     *
+     * @return The amount of dispatched messages.
+     */
+    public int flushConflated() {
+        int flushed = 0;
+        for (Topic topic : registry.topics()) {
+            final ConflatingMessageDispatcher conflation = topic.conflation();
+            if (conflation != null) flushed += conflation.flush();
+        }
+        return flushed;
+    }
+
+    /**
+     * Returns the execution context of specified name, which can be bound to its owner thread ahead of the first
+     * drain, see {@link ExecutionContext#bind()}.
+     *
+     * @param context The name of the execution context.
+     *
+     * @return The execution context.
+     */
+    public ExecutionContext context(String context) {
+        return registry.context(context);
+    }
+
+    /**
+     * Invokes the receivers of specified execution context whose messages have been dispatched by another thread than
+     * its owner, in dispatch order (typically once per tick). The current thread becomes the owner if the context has
+     * none yet. Messages dispatched meanwhile are left for the next drain.
+     *
+     * @param context The name of the execution context.
+     *
+     * @return The amount of performed deliveries.
+     *
+     * @throws IllegalStateException If another thread owns the context.
+     */
+    public int drain(String context) {
+        return registry.context(context).drain();
+    }
+
+    /**
+     * Dispatches specified message to each of its receivers, if they exist. If the dispatch is polymorphic, receivers
+     * of the super classes and interfaces of the message also receive it. Messages without receivers are handed to the
+     * {@link EventBusConfiguration#deadMessageHandler()}, if there is one.
      *
      * @param message Message.
      */
     public void dispatch(Object message) {
-        dispatcherMap.get(message.getClass()).dispatch(message);
+        registry.topic(message.getClass()).dispatch(message);
+    }
+
+    /**
+     * Dispatches each of specified messages, grouped by topic: the topic of each group is looked up only once and
+     * {@link BatchListener}s receive the whole group with a single call. Other receivers receive the messages one by
+     * one, in priority order. Messages of a same topic are dispatched in the order they are given.
+     *
+     * @param messages The messages.
+     */
+    public void dispatchAll(Object[] messages) {
+        dispatchAll(messages, 0, messages.length);
+    }
+
+    /**
+     * Dispatches each of specified messages between two indexes, grouped by topic.
+     *
+     * @param messages The messages.
+     * @param from     The index of the first message (inclusive).
+     * @param to       The index of the last message (exclusive).
+     *
+     * @see #dispatchAll(Object[])
+     */
+    public void dispatchAll(Object[] messages, int from, int to) {
+        if (from >= to) return;
+        final Class<?> first = messages[from].getClass();
+        int            index = from + 1;
+        while (index < to && messages[index].getClass() == first) index++;
+        if (index == to) {
+            registry.topic(first).dispatchAll(messages, from, to);
+            return;
+        }
+
+        // Counting sort of the messages by topic, which keeps their order within each topic
+        final Map<Class<?>, Integer> groups  = new IdentityHashMap<>();
+        final int[]                  groupOf = new int[to - from];
+        Class<?>[]                   types   = new Class<?>[4];
+        int[]                        counts  = new int[4];
+        Class<?>                     last    = null;
+        int                          group   = 0;
+        for (int i = from; i < to; i++) {
+            final Class<?> type = messages[i].getClass();
+            if (type != last) {
+                group = groups.computeIfAbsent(last = type, t -> groups.size());
+                if (group == types.length) {
+                    types  = Arrays.copyOf(types, group * 2);
+                    counts = Arrays.copyOf(counts, group * 2);
+                }
+                types[group] = type;
+            }
+            counts[group]++;
+            groupOf[i - from] = group;
+        }
+        final int[] starts = new int[groups.size() + 1];
+        for (int g = 0; g < groups.size(); g++) {
+            starts[g + 1] = starts[g] + counts[g];
+        }
+        final int[]    positions = Arrays.copyOf(starts, groups.size());
+        final Object[] sorted    = new Object[to - from];
+        for (int i = from; i < to; i++) {
+            sorted[positions[groupOf[i - from]]++] = messages[i];
+        }
+        for (int g = 0; g < groups.size(); g++) {
+            registry.topic(types[g]).dispatchAll(sorted, starts[g], starts[g + 1]);
+        }
+    }
+
+    /**
+     * Dispatches each of specified messages, grouped by topic.
+     *
+     * @param messages The messages.
+     *
+     * @see #dispatchAll(Object[])
+     */
+    public void dispatchAll(Iterable<?> messages) {
+        if (messages instanceof Collection) {
+            dispatchAll(((Collection<?>) messages).toArray());
+            return;
+        }
+        final List<Object> collected = new ArrayList<>();
+        messages.forEach(collected::add);
+        dispatchAll(collected.toArray());
+    }
+
+    /**
+     * Dispatches each of specified messages, grouped by topic.
+     *
+     * @param messages The messages.
+     *
+     * @see #dispatchAll(Object[])
+     */
+    public void dispatchAll(Stream<?> messages) {
+        dispatchAll(messages.toArray());
+    }
+
+    /**
+     * Records a subscription of specified object and returns its listeners, which are looked for by the {@link
+     * ReceiverFactory} only if it is not subscribed yet.
+     *
+     * @param object The object.
+     *
+     * @return The listeners.
+     */
+    private List<Listener> subscribed(Object object) {
+        expungeCollected();
+        return subscriptions.compute(object, (o, subscription) -> {
+            if (subscription == null) {
+                return new Subscription(configuration.receiverFactory().lookInto(o, configuration));
+            }
+            subscription.count++;
+            return subscription;
+        }).listeners;
+    }
+
+    /**
+     * Records an unsubscription of specified object and returns its listeners, the object is forgotten once it has been
+     * unsubscribed as many times as it was subscribed.
+     *
+     * @param object The object.
+     *
+     * @return The listeners, or null if the object is not subscribed.
+     */
+    private List<Listener> unsubscribed(Object object) {
+        expungeCollected();
+        final List<Listener>[] listeners = new List[1];
+        subscriptions.compute(object, (o, subscription) -> {
+            if (subscription == null) return null;
+            listeners[0] = subscription.listeners;
+            return --subscription.count == 0 ? null : subscription;
+        });
+        return listeners[0];
+    }
+
+    /**
+     * Unsubscribes, all at once, the listeners of the subscribed objects that have been garbage collected.
+     */
+    private void expungeCollected() {
+        final List<Subscription> collected = subscriptions.expunge();
+        if (collected.isEmpty()) return;
+        final List<Listener> listeners = new ArrayList<>();
+        for (Subscription subscription : collected) {
+            for (int i = 0; i < subscription.count; i++) listeners.addAll(subscription.listeners);
+        }
+        registry.unsubscribe(listeners);
+    }
+
+    /**
+     * Dispatches specified message to each of its receivers asynchronously: receivers are invoked in priority order by
+     * a task of the {@link EventBusConfiguration#asyncExecutor()}, while each asynchronous receiver gets its own task.
+     * Only the receivers invoked in priority order are skipped once a {@link Cancellable} message is cancelled.
+     * When metrics are enabled, the dispatch is counted but its receivers are invoked without being instrumented.
+     * Messages of a conflated topic are conflated, the returned future is then already completed. The receivers bound
+     * to an execution context are always queued into its mailbox, the future does not wait for them.
+     *
+     * @param message Message.
+     *
+     * @return A future completed once every receiver has been invoked (exceptionally if one of them failed).
+     */
+    public CompletableFuture<Void> dispatchAsync(Object message) {
+        final Topic      topic     = registry.topic(message.getClass());
+        final Listener[] listeners = topic.dispatchedListeners();
+        if (listeners.length == 0 || topic.conflation() != null) {
+            topic.dispatch(message);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        final Executor                      executor = registry.asyncExecutor();
+        final Object                        key      = topic.keyOf(message);
+        final List<Listener>                serial   = new ArrayList<>(listeners.length);
+        final List<CompletableFuture<Void>> futures  = new ArrayList<>();
+        boolean                             posted   = false;
+        for (Listener listener : listeners) {
+            final Object listenerKey = listener.key();
+            if (listenerKey != null && !listenerKey.equals(key)) continue;
+            if (listener.thread() != null) {
+                registry.context(listener.thread()).post(listener, message);
+                posted = true;
+            } else if (listener.async()) {
+                futures.add(CompletableFuture.runAsync(() -> listener.receive(message), executor));
+            } else {
+                serial.add(listener);
+            }
+        }
+        if (!serial.isEmpty()) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (Listener listener : serial) {
+                    if (listener.receiveCancelled() || !Cancellable.cancelled(message)) listener.receive(message);
+                }
+            }, executor));
+        }
+        if (futures.isEmpty() && !posted) {
+            // No receiver has the key of the message
+            topic.dispatch(message);
+            return CompletableFuture.completedFuture(null);
+        }
+        final EventBusMetrics metrics = registry.metrics();
+        if (metrics != null) metrics.topic(topic.type()).dispatched(1, false);
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * Returns the publisher of specified topic, which dispatches its messages without looking the topic up. It stays
+     * bound to the topic, no matter how many receivers are registered/unregistered.
+     *
+     * @param topic The topic.
+     * @param <T>   The message type.
+     *
+     * @return The publisher.
+     */
+    public <T> Publisher<T> publisher(Class<T> topic) {
+        return (Publisher<T>) publishers.get(topic);
+    }
+
+    /**
+     * Creates a pool of recyclable messages of specified topic, which are dispatched to this event bus, see {@link
+     * MessagePool}. Each thread pools up to 64 messages.
+     *
+     * @param topic   The topic.
+     * @param factory The factory creating a new message when the pool is empty.
+     * @param <T>     The message type.
+     *
+     * @return The message pool.
+     */
+    public <T extends PooledMessage> MessagePool<T> messagePool(Class<T> topic, Supplier<? extends T> factory) {
+        return new MessagePool<>(this, topic, factory, 64, false);
+    }
+
+    /**
+     * Returns the metrics of the event bus, only collected if {@link EventBusConfiguration#metricsEnabled()} is
+     * enabled. They can be exposed through JMX using {@link EventBusMetrics#registerMBean(String)}.
+     *
+     * @return The metrics, or null if they are disabled.
+     */
+    public EventBusMetrics metrics() {
+        return registry.metrics();
     }
 
     /**
@@ -167,8 +515,8 @@ public class EventBus {
      * @return The event bus drained.
      */
     public EventBus clear() {
-        receiversMap.clear();
-        factoryCache.clear();
+        registry.clear();
+        subscriptions.clear();
         return this;
     }
 
@@ -177,12 +525,22 @@ public class EventBus {
      */
     @Override
     public String toString() {
-        final String values = receiversMap.entrySet().stream().map(e -> e.getKey().getSimpleName() + "=" +
-                                                                        e.getValue().stream().map(Listener::toString)
-                                                                         .collect(joining(",")))
-                                          .collect(joining(", ", "{", "}"));
+        final String values = registry.topics().stream().map(Topic::toString).collect(joining(", ", "{", "}"));
 
         return "EventBus{" + "receivers=" + values + '}';
     }
 
+    /**
+     * The listeners of a subscribed object, along with the amount of times it is subscribed. Only modified while
+     * computing its entry.
+     */
+    private final static class Subscription {
+        private final List<Listener> listeners;
+        private       int            count = 1;
+
+        Subscription(List<Listener> listeners) {
+            this.listeners = listeners;
+        }
+    }
+
 }
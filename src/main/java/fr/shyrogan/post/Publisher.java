@@ -0,0 +1,68 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.registry.Topic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MutableCallSite;
+
+import static fr.shyrogan.post.utils.ListenerCompiler.publisherByteCode;
+
+/**
+ * A publisher dispatches the messages of a single topic without looking the topic nor its dispatcher up, see {@link
+ * EventBus#publisher(Class)}.
+ * <p>Each publisher is an instance of a hidden class, generated for its topic, which invokes the {@link
+ * MutableCallSite} of the topic from a constant. The call site is relinked whenever the topic is modified, so storing
+ * the publisher in a static final field allows the JIT to inline the dispatch straight through to the listeners.</p>
+ * <p>Messages are dispatched to the listeners of the topic (and its super types if the dispatch is polymorphic), even
+ * if their class is a sub class of the topic.</p>
+ *
+ * @param <T> The message type.
+ */
+public abstract class Publisher<T> {
+
+    private final Class<T> topic;
+
+    protected Publisher(Class<T> topic) {
+        this.topic = topic;
+    }
+
+    /**
+     * Returns the topic of this publisher.
+     *
+     * @return The topic.
+     */
+    public Class<T> topic() {
+        return topic;
+    }
+
+    /**
+     * Dispatches specified message to each of the receivers of the topic.
+     *
+     * @param message The message.
+     */
+    public abstract void publish(T message);
+
+    /**
+     * Creates a publisher bound to the call site of specified topic.
+     *
+     * @param topic The topic.
+     * @param <T>   The message type.
+     *
+     * @return The publisher.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Publisher<T> bind(Topic topic) {
+        final String className = Publisher.class.getName().replace('.', '/') + "$Bound";
+        try {
+            return (Publisher<T>) MethodHandles.lookup()
+                                               .defineHiddenClassWithClassData(
+                                                       publisherByteCode(className, Publisher.class),
+                                                       topic.callSite().dynamicInvoker(), true
+                                               ).lookupClass().getDeclaredConstructor(Class.class)
+                                               .newInstance(topic.type());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not bind a publisher to " + topic.type(), e);
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package fr.shyrogan.post.async;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.message.PooledMessage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An {@link EventBus} whose {@link #dispatch(Object)} only writes the message into a preallocated ring buffer: messages
+ * are then claimed in batches and dispatched by consumer threads, so that the dispatching thread never runs the
+ * receivers (unless the buffer is full and the {@link OverflowPolicy} is {@link OverflowPolicy#CALLER_RUNS}).
+ * <p>Each claimed batch is dispatched the way {@link EventBus#dispatchAll(Object[])} does, so that {@link
+ * fr.shyrogan.post.listener.BatchListener}s receive the messages of their topic at once: an exception thrown by a
+ * receiver abandons the rest of its batch.</p>
+ * <p>Publishers returned by {@link #publisher(Class)} still dispatch synchronously. {@link PooledMessage}s are
+ * retained while they are queued.</p>
+ *
+ * @see AsyncEventBusBuilder
+ */
+@SuppressWarnings("ALL")
+public class AsyncEventBus extends EventBus implements AutoCloseable {
+
+    private final RingBuffer     ring;
+    private final int            batchSize;
+    private final WaitStrategy   waitStrategy;
+    private final OverflowPolicy overflowPolicy;
+    private final Thread[]       consumers;
+    private final LongAdder      dropped = new LongAdder();
+    private volatile boolean     running = true;
+
+    /**
+     * Creates a new asynchronous event bus and starts its consumer threads.
+     *
+     * @see AsyncEventBusBuilder
+     */
+    AsyncEventBus(EventBusConfiguration configuration, int capacity, int consumers, int batchSize,
+                  WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+        super(configuration);
+        this.ring           = new RingBuffer(capacity);
+        this.batchSize      = batchSize;
+        this.waitStrategy   = waitStrategy;
+        this.overflowPolicy = overflowPolicy;
+        this.consumers      = new Thread[consumers];
+        for (int i = 0; i < consumers; i++) {
+            final Thread thread = new Thread(this::consume, "Post-AsyncEventBus-" + i);
+            thread.setDaemon(true);
+            this.consumers[i] = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Writes specified message into the ring buffer, it is dispatched later by a consumer thread.
+     *
+     * @param message Message.
+     *
+     * @throws IllegalStateException If the event bus is closed.
+     */
+    @Override
+    public void dispatch(Object message) {
+        if (!running) throw new IllegalStateException("The event bus is closed.");
+        // Released by the consumer once dispatched
+        PooledMessage.retain(message);
+        if (ring.offer(message)) return;
+
+        switch (overflowPolicy) {
+            case DROP:
+                dropped.increment();
+                PooledMessage.release(message);
+                break;
+            case CALLER_RUNS:
+                try {
+                    super.dispatch(message);
+                } finally {
+                    PooledMessage.release(message);
+                }
+                break;
+            default:
+                int attempts = 0;
+                while (!ring.offer(message)) {
+                    if (!running) {
+                        PooledMessage.release(message);
+                        throw new IllegalStateException("The event bus is closed.");
+                    }
+                    waitStrategy.idle(attempts++);
+                }
+        }
+    }
+
+    /**
+     * Writes each of specified messages into the ring buffer, in order.
+     *
+     * @param messages The messages.
+     *
+     * @throws IllegalStateException If the event bus is closed.
+     */
+    @Override
+    public void dispatchAll(Object[] messages) {
+        dispatchAll(messages, 0, messages.length);
+    }
+
+    /**
+     * Writes each of specified messages between two indexes into the ring buffer, in order.
+     *
+     * @param messages The messages.
+     * @param from     The index of the first message (inclusive).
+     * @param to       The index of the last message (exclusive).
+     *
+     * @throws IllegalStateException If the event bus is closed.
+     */
+    @Override
+    public void dispatchAll(Object[] messages, int from, int to) {
+        for (int i = from; i < to; i++) {
+            dispatch(messages[i]);
+        }
+    }
+
+    /**
+     * Dispatches specified message synchronously, bypassing the ring buffer.
+     *
+     * @param message Message.
+     */
+    public void dispatchNow(Object message) {
+        super.dispatch(message);
+    }
+
+    /**
+     * Returns the amount of messages dropped because the ring buffer was full.
+     *
+     * @return The amount of dropped messages.
+     */
+    public long droppedMessages() {
+        return dropped.sum();
+    }
+
+    /**
+     * Stops accepting messages, waits for the consumer threads to dispatch the pending ones and stops them. Messages
+     * dispatched concurrently with this method might not be dispatched.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Thread consumer : consumers) {
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * The loop of each consumer thread: claims batches of messages and dispatches them grouped by topic, until the
+     * event bus is closed and the ring buffer drained.
+     */
+    private void consume() {
+        final Object[] batch    = new Object[batchSize];
+        int            attempts = 0;
+        for (; ; ) {
+            final int count = ring.drainTo(batch);
+            if (count == 0) {
+                if (!running && ring.isEmpty()) return;
+                waitStrategy.idle(attempts++);
+                continue;
+            }
+            attempts = 0;
+            try {
+                super.dispatchAll(batch, 0, count);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            } finally {
+                for (int i = 0; i < count; i++) {
+                    PooledMessage.release(batch[i]);
+                    batch[i] = null;
+                }
+            }
+        }
+    }
+
+}
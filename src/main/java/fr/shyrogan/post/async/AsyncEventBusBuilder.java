@@ -0,0 +1,103 @@
+package fr.shyrogan.post.async;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+
+/**
+ * A builder for {@link AsyncEventBus}, each setting has a default value so that {@code new
+ * AsyncEventBusBuilder().build()} works.
+ */
+public class AsyncEventBusBuilder {
+
+    private EventBusConfiguration configuration  = EventBusConfiguration.DEFAULT;
+    private int                   capacity       = 1 << 14;
+    private int                   consumers      = 1;
+    private int                   batchSize      = 256;
+    private WaitStrategy          waitStrategy   = WaitStrategy.PARK;
+    private OverflowPolicy        overflowPolicy = OverflowPolicy.BLOCK;
+
+    /**
+     * Modifies the configuration of the event bus, by default {@link EventBusConfiguration#DEFAULT}.
+     *
+     * @param configuration The configuration.
+     *
+     * @return The builder.
+     */
+    public AsyncEventBusBuilder configuration(EventBusConfiguration configuration) {
+        this.configuration = configuration;
+        return this;
+    }
+
+    /**
+     * Modifies the capacity of the ring buffer (rounded up to a power of two), by default 16384.
+     *
+     * @param capacity The capacity.
+     *
+     * @return The builder.
+     */
+    public AsyncEventBusBuilder capacity(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("The capacity must be positive.");
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Modifies the amount of consumer threads, by default 1. Messages are received in the order they were dispatched
+     * only if there is a single consumer.
+     *
+     * @param consumers The amount of consumer threads.
+     *
+     * @return The builder.
+     */
+    public AsyncEventBusBuilder consumers(int consumers) {
+        if (consumers < 1) throw new IllegalArgumentException("There must be at least one consumer.");
+        this.consumers = consumers;
+        return this;
+    }
+
+    /**
+     * Modifies the maximum amount of messages a consumer claims at once, by default 256.
+     *
+     * @param batchSize The batch size.
+     *
+     * @return The builder.
+     */
+    public AsyncEventBusBuilder batchSize(int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("The batch size must be positive.");
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Modifies the wait strategy, by default {@link WaitStrategy#PARK}.
+     *
+     * @param waitStrategy The wait strategy.
+     *
+     * @return The builder.
+     */
+    public AsyncEventBusBuilder waitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    /**
+     * Modifies what happens when the ring buffer is full, by default {@link OverflowPolicy#BLOCK}.
+     *
+     * @param overflowPolicy The overflow policy.
+     *
+     * @return The builder.
+     */
+    public AsyncEventBusBuilder overflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Creates the event bus and starts its consumer threads.
+     *
+     * @return The event bus.
+     */
+    public AsyncEventBus build() {
+        return new AsyncEventBus(configuration, capacity, consumers, batchSize, waitStrategy, overflowPolicy);
+    }
+
+}
@@ -0,0 +1,19 @@
+package fr.shyrogan.post.async;
+
+/**
+ * What an {@link AsyncEventBus} does with a message dispatched while its ring buffer is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Waits (using the wait strategy) until a slot is freed.
+     */
+    BLOCK,
+    /**
+     * Drops the message, see {@link AsyncEventBus#droppedMessages()}.
+     */
+    DROP,
+    /**
+     * Dispatches the message synchronously, on the dispatching thread.
+     */
+    CALLER_RUNS
+}
@@ -0,0 +1,111 @@
+package fr.shyrogan.post.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded, preallocated, multi-producer multi-consumer ring buffer (based on Dmitry Vyukov's bounded queue).
+ * <p>Each slot has a sequence telling whether it can be written (sequence = position) or read (sequence = position +
+ * 1). Producers claim a single slot while consumers claim a whole batch of published slots using a single CAS.</p>
+ */
+final class RingBuffer {
+
+    private final Object[]        buffer;
+    private final AtomicLongArray sequences;
+    private final int             mask;
+    private final AtomicLong      producerPosition = new AtomicLong();
+    private final AtomicLong      consumerPosition = new AtomicLong();
+
+    /**
+     * Creates a new ring buffer.
+     *
+     * @param capacity The capacity, which is rounded up to a power of two.
+     */
+    RingBuffer(int capacity) {
+        final int size = capacity <= 1 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer    = new Object[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask      = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Returns the capacity of the ring buffer.
+     *
+     * @return The capacity.
+     */
+    int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Tries to write specified element into the buffer.
+     *
+     * @param element The element.
+     *
+     * @return False if the buffer is full.
+     */
+    boolean offer(Object element) {
+        long position = producerPosition.get();
+        for (; ; ) {
+            final int  index    = (int) position & mask;
+            final long sequence = sequences.getAcquire(index);
+            if (sequence == position) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    buffer[index] = element;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+                position = producerPosition.get();
+            } else if (sequence < position) {
+                // The slot has not been read since the last lap: full
+                return false;
+            } else {
+                position = producerPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Reads up to {@code batch.length} elements from the buffer.
+     *
+     * @param batch The array the elements are read to.
+     *
+     * @return The amount of elements read.
+     */
+    int drainTo(Object[] batch) {
+        for (; ; ) {
+            final long position = consumerPosition.get();
+            // Counts the published slots following the position
+            int count = 0;
+            while (count < batch.length
+                   && sequences.getAcquire((int) (position + count) & mask) == position + count + 1) {
+                count++;
+            }
+            if (count == 0) return 0;
+            if (!consumerPosition.compareAndSet(position, position + count)) continue;
+
+            for (int i = 0; i < count; i++) {
+                final int index = (int) (position + i) & mask;
+                batch[i]      = buffer[index];
+                buffer[index] = null;
+                // Makes the slot writable for the next lap
+                sequences.setRelease(index, position + i + buffer.length);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Returns whether the buffer looks empty.
+     *
+     * @return True if there is no element to read.
+     */
+    boolean isEmpty() {
+        final long position = consumerPosition.get();
+        return sequences.getAcquire((int) position & mask) != position + 1;
+    }
+
+}
@@ -0,0 +1,53 @@
+package fr.shyrogan.post.async;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The strategy used by a thread waiting on the ring buffer of an {@link AsyncEventBus}: consumers waiting for messages,
+ * or producers waiting for free slots when the buffer is full and the {@link OverflowPolicy} is to block.
+ */
+public enum WaitStrategy {
+    /**
+     * Spins, lowest latency but burns a core per waiting thread.
+     */
+    BUSY_SPIN {
+        @Override
+        public void idle(int attempts) {
+            Thread.onSpinWait();
+        }
+    },
+    /**
+     * Spins for a while then yields the thread.
+     */
+    YIELD {
+        @Override
+        public void idle(int attempts) {
+            if (attempts < SPINS) Thread.onSpinWait();
+            else Thread.yield();
+        }
+    },
+    /**
+     * Spins for a while, yields for a while and then parks the thread, which barely uses any CPU when idle.
+     */
+    PARK {
+        @Override
+        public void idle(int attempts) {
+            if (attempts < SPINS) Thread.onSpinWait();
+            else if (attempts < SPINS * 2) Thread.yield();
+            else LockSupport.parkNanos(PARK_NANOS);
+        }
+    };
+
+    /** The amount of attempts spent spinning **/
+    private final static int  SPINS      = 100;
+    /** The duration of a park **/
+    private final static long PARK_NANOS = 100_000;
+
+    /**
+     * Waits after specified amount of unsuccessful attempts.
+     *
+     * @param attempts The amount of unsuccessful attempts, since the last successful one.
+     */
+    public abstract void idle(int attempts);
+
+}
@@ -0,0 +1,99 @@
+package fr.shyrogan.post.bridge;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Associates each bridged topic to its {@link MessageCodec} and to its identifier, written along with each message.
+ * The identifier is a 64 bits hash of the name of the topic, so that every process agrees on it without coordination.
+ * <p>Processes sharing a ring must therefore register their codecs under the same topic names, with the same encoding.
+ * Unlike the collisions within a registry, which are rejected, a collision between the topics of different processes
+ * cannot be detected: 64 bits make it unlikely enough, where the 32 bits of {@link String#hashCode()} would not.</p>
+ */
+@SuppressWarnings("ALL")
+public final class CodecRegistry {
+
+    /** The 64 bits FNV-1a offset basis and prime **/
+    private final static long FNV_OFFSET = 0xCBF29CE484222325L,
+                              FNV_PRIME  = 0x100000001B3L;
+
+    private final Map<Class<?>, Entry> byTopic = new ConcurrentHashMap<>();
+    private final Map<Long, Entry>     byId    = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the codec of specified topic.
+     *
+     * @param topic The topic.
+     * @param codec The codec.
+     * @param <T>   The message type.
+     *
+     * @return The registry.
+     *
+     * @throws IllegalArgumentException If the identifier of the topic is already used by another topic.
+     */
+    public synchronized <T> CodecRegistry register(Class<T> topic, MessageCodec<T> codec) {
+        final Entry entry    = new Entry(topic, idOf(topic.getName()), codec);
+        final Entry existing = byId.get(entry.id);
+        if (existing != null && existing.topic != topic) {
+            throw new IllegalArgumentException(topic.getName() + " has the same identifier as " + existing.topic);
+        }
+        byId.put(entry.id, entry);
+        byTopic.put(topic, entry);
+        return this;
+    }
+
+    /**
+     * Returns the entry of specified topic.
+     *
+     * @param topic The topic.
+     *
+     * @return The entry, or null if the topic has no codec.
+     */
+    Entry entry(Class<?> topic) {
+        return byTopic.get(topic);
+    }
+
+    /**
+     * Returns the entry of specified identifier.
+     *
+     * @param id The identifier.
+     *
+     * @return The entry, or null if no topic of this registry has that identifier.
+     */
+    Entry entry(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Returns the identifier of the topic of specified name: the 64 bits FNV-1a hash of its characters.
+     *
+     * @param name The name of the topic.
+     *
+     * @return The identifier.
+     */
+    static long idOf(String name) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < name.length(); i++) {
+            final char c = name.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * A topic along with its identifier and codec.
+     */
+    final static class Entry {
+        final Class<?>     topic;
+        final long         id;
+        final MessageCodec codec;
+
+        Entry(Class<?> topic, long id, MessageCodec codec) {
+            this.topic = topic;
+            this.id    = id;
+            this.codec = codec;
+        }
+    }
+
+}
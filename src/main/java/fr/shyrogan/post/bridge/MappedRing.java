@@ -0,0 +1,174 @@
+package fr.shyrogan.post.bridge;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A ring buffer of messages stored in a memory-mapped file, shared by a single writing process ({@link RingPublisher})
+ * and any amount of reading processes ({@link RingReader}), each of them following the ring at its own pace.
+ * <p>The file starts with a header holding the capacity of the ring and two positions (ever increasing amounts of
+ * written bytes): the claimed position, advanced before a record is written, and the published position, advanced
+ * once it is. Records are 8 bytes aligned: their payload length, 4 unused bytes, the 64 bits identifier of their topic
+ * and the payload. A record which does not fit before the end of the ring is preceded by a padding record and written
+ * at its start.</p>
+ * <p>Readers never lock the writer: a reader lagging by more than the capacity has its records overwritten, which it
+ * detects using the claimed position.</p>
+ */
+@SuppressWarnings("ALL")
+public final class MappedRing implements AutoCloseable {
+
+    /** Identifies the files of this format, the second one has 64 bits topic identifiers **/
+    private final static int MAGIC = 0x506F5332;
+    /** Offsets of the header fields, the positions have their own cache line **/
+    private final static int MAGIC_OFFSET     = 0,
+                             CAPACITY_OFFSET  = 4,
+                             CLAIMED_OFFSET   = 64,
+                             PUBLISHED_OFFSET = 128,
+                             HEADER_SIZE      = 192;
+    /** The length of a padding record **/
+    final static         int PADDING          = -1;
+    /** The size of the header of each record: its payload length and its topic identifier **/
+    final static         int RECORD_HEADER    = 16;
+    /** The offset of the topic identifier within a record **/
+    final static         int RECORD_ID        = 8;
+
+    private final static VarHandle POSITION = MethodHandles.byteBufferViewVarHandle(long[].class,
+                                                                                    ByteOrder.nativeOrder());
+
+    private final FileChannel      channel;
+    private final MappedByteBuffer buffer;
+    private final int              capacity;
+
+    private MappedRing(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel  = channel;
+        this.buffer   = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates (or resets) the ring stored in specified file, it is then written by a {@link RingPublisher}.
+     *
+     * @param file     The file.
+     * @param capacity The capacity in bytes, a power of two.
+     *
+     * @return The ring.
+     *
+     * @throws IOException If the file cannot be mapped.
+     */
+    public static MappedRing create(Path file, int capacity) throws IOException {
+        if (capacity < 64 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("The capacity must be a power of two (of at least 64 bytes)");
+        }
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity);
+        buffer.order(ByteOrder.nativeOrder());
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        POSITION.setVolatile(buffer, CLAIMED_OFFSET, 0L);
+        POSITION.setVolatile(buffer, PUBLISHED_OFFSET, 0L);
+        // Written last, so that a reader never sees a partially initialized header
+        VarHandle.releaseFence();
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        return new MappedRing(channel, buffer, capacity);
+    }
+
+    /**
+     * Opens the ring stored in specified file, created by another {@link MappedRing#create(Path, int)}.
+     *
+     * @param file The file.
+     *
+     * @return The ring.
+     *
+     * @throws IOException If the file cannot be mapped or is not a ring.
+     */
+    public static MappedRing open(Path file) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) throw new IOException(file + " is not a ring");
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.nativeOrder());
+            if (header.getInt(MAGIC_OFFSET) != MAGIC) throw new IOException(file + " is not a ring");
+
+            final int              capacity = header.getInt(CAPACITY_OFFSET);
+            final MappedByteBuffer buffer   = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity);
+            buffer.order(ByteOrder.nativeOrder());
+            return new MappedRing(channel, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the capacity of the ring.
+     *
+     * @return The capacity in bytes.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the published position, the records before it can be read.
+     *
+     * @return The published position.
+     */
+    public long published() {
+        return (long) POSITION.getAcquire(buffer, PUBLISHED_OFFSET);
+    }
+
+    /**
+     * Returns the claimed position, the records before it minus the capacity may have been overwritten.
+     *
+     * @return The claimed position.
+     */
+    long claimed() {
+        return (long) POSITION.getVolatile(buffer, CLAIMED_OFFSET);
+    }
+
+    /**
+     * Claims the bytes of the ring up to specified position, ahead of writing them.
+     *
+     * @param position The claimed position.
+     */
+    void claim(long position) {
+        // Volatile so that no write of the record can be reordered before it
+        POSITION.setVolatile(buffer, CLAIMED_OFFSET, position);
+    }
+
+    /**
+     * Publishes the records written up to specified position.
+     *
+     * @param position The published position.
+     */
+    void publish(long position) {
+        POSITION.setRelease(buffer, PUBLISHED_OFFSET, position);
+    }
+
+    /**
+     * Returns a new view of the records of the ring, whose index 0 is the start of the ring.
+     *
+     * @return The view.
+     */
+    ByteBuffer records() {
+        return buffer.slice(HEADER_SIZE, capacity).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Closes the file. The mapping itself is released once the ring is garbage collected.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,34 @@
+package fr.shyrogan.post.bridge;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes the messages of a topic into bytes and decodes them back, so that they can be bridged to another process
+ * through a {@link MappedRing}. The buffers use the native byte order.
+ * <p>The records only identify their topic by a hash of its name (see {@link CodecRegistry}): the reading process must
+ * register a codec decoding the same format under the same topic name.</p>
+ *
+ * @param <T> The message type.
+ */
+public interface MessageCodec<T> {
+
+    /**
+     * Writes specified message into specified buffer, from its position. The buffer grows if it overflows, the
+     * message is then encoded again.
+     *
+     * @param message The message.
+     * @param target  The buffer.
+     */
+    void encode(T message, ByteBuffer target);
+
+    /**
+     * Reads a message from specified buffer, between its position and its limit. The buffer is a view of the shared
+     * memory, which is overwritten later on: it must not be kept.
+     *
+     * @param source The buffer.
+     *
+     * @return The message.
+     */
+    T decode(ByteBuffer source);
+
+}
@@ -0,0 +1,137 @@
+package fr.shyrogan.post.bridge;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes the messages of selected topics of an {@link EventBus} into a {@link MappedRing}, so that the {@link
+ * RingReader}s of other processes dispatch them on their own event bus. The ring must have a single publisher.
+ * <p>Messages are encoded by the {@link MessageCodec} of their topic into a buffer of the publisher, then copied into
+ * the ring. Messages dispatched by a {@link RingReader} (of the same process) are not published again.</p>
+ */
+@SuppressWarnings("ALL")
+public final class RingPublisher implements AutoCloseable {
+
+    private final EventBus       bus;
+    private final MappedRing     ring;
+    private final CodecRegistry  codecs;
+    private final ByteBuffer     records;
+    private final List<Listener> listeners = new ArrayList<>();
+    /** The buffer messages are encoded into, grown when a message overflows it **/
+    private       ByteBuffer     scratch   = ByteBuffer.allocate(256).order(ByteOrder.nativeOrder());
+    /** The position of the next record **/
+    private       long           position;
+
+    /**
+     * Creates a new publisher writing into specified ring, which must have been created by this process.
+     *
+     * @param bus    The event bus.
+     * @param ring   The ring.
+     * @param codecs The codecs of the bridged topics.
+     */
+    public RingPublisher(EventBus bus, MappedRing ring, CodecRegistry codecs) {
+        this.bus      = bus;
+        this.ring     = ring;
+        this.codecs   = codecs;
+        this.records  = ring.records();
+        this.position = ring.published();
+    }
+
+    /**
+     * Publishes the messages of specified topic into the ring, from now on.
+     *
+     * @param topic The topic, which must have a codec.
+     * @param <T>   The message type.
+     *
+     * @return The publisher.
+     */
+    public synchronized <T> RingPublisher bridge(Class<T> topic) {
+        final CodecRegistry.Entry entry = codecs.entry(topic);
+        if (entry == null) throw new IllegalArgumentException("No codec is registered for " + topic.getName());
+
+        final Listener<T> listener = new ListenerBuilder<>(topic)
+                .receiveCancelled()
+                .perform(message -> {
+                    if (!RingReader.forwarding()) publish(entry, message);
+                })
+                .build();
+        listeners.add(listener);
+        bus.subscribe(listener);
+        return this;
+    }
+
+    /**
+     * Publishes specified message into the ring, whether its topic is bridged or not.
+     *
+     * @param message The message, whose topic must have a codec.
+     */
+    public void publish(Object message) {
+        final CodecRegistry.Entry entry = codecs.entry(message.getClass());
+        if (entry == null) throw new IllegalArgumentException("No codec is registered for " + message.getClass());
+        publish(entry, message);
+    }
+
+    private synchronized void publish(CodecRegistry.Entry entry, Object message) {
+        final ByteBuffer payload  = encode(entry.codec, message);
+        final int        length   = payload.remaining();
+        final int        size     = (MappedRing.RECORD_HEADER + length + 7) & ~7;
+        final int        capacity = ring.capacity();
+        if (size > capacity) {
+            throw new IllegalArgumentException("A message of " + length + " bytes does not fit into the ring");
+        }
+
+        final boolean wraps   = (int) (position & (capacity - 1)) + size > capacity;
+        int           index   = (int) (position & (capacity - 1));
+        long          claimed = position + size;
+        if (wraps) claimed += capacity - index;
+        ring.claim(claimed);
+
+        if (wraps) {
+            records.putInt(index, MappedRing.PADDING);
+            position += capacity - index;
+            index     = 0;
+        }
+        records.putLong(index + MappedRing.RECORD_ID, entry.id);
+        records.put(index + MappedRing.RECORD_HEADER, payload, 0, length);
+        records.putInt(index, length);
+        position += size;
+        ring.publish(position);
+    }
+
+    /**
+     * Encodes specified message into the scratch buffer, growing it as long as the message overflows it.
+     *
+     * @param codec   The codec.
+     * @param message The message.
+     *
+     * @return The scratch buffer, between 0 and the length of the message.
+     */
+    private ByteBuffer encode(MessageCodec codec, Object message) {
+        while (true) {
+            scratch.clear();
+            try {
+                codec.encode(message, scratch);
+                return scratch.flip();
+            } catch (BufferOverflowException e) {
+                scratch = ByteBuffer.allocate(scratch.capacity() * 2).order(ByteOrder.nativeOrder());
+            }
+        }
+    }
+
+    /**
+     * Stops publishing the bridged topics, the ring itself is not closed.
+     */
+    @Override
+    public synchronized void close() {
+        bus.unsubscribe(listeners);
+        listeners.clear();
+    }
+
+}
@@ -0,0 +1,148 @@
+package fr.shyrogan.post.bridge;
+
+import fr.shyrogan.post.EventBus;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the messages published into a {@link MappedRing} (typically by another process), decodes them using the {@link
+ * MessageCodec} of their topic and dispatches them on an {@link EventBus}. Records whose topic has no codec are
+ * skipped. Each reader has its own position, any amount of readers can therefore follow a ring.
+ * <p>Messages are decoded straight from the mapped memory, without being copied. A reader lagging by more than the
+ * capacity of the ring loses the overwritten records: it then skips to the latest published position.</p>
+ * <p>A reader must be polled by a single thread at a time.</p>
+ */
+@SuppressWarnings("ALL")
+public final class RingReader {
+
+    /** Whether the current thread is dispatching a message read from a ring **/
+    private final static ThreadLocal<boolean[]> FORWARDING = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    private final EventBus      bus;
+    private final MappedRing    ring;
+    private final CodecRegistry codecs;
+    private final ByteBuffer    records;
+    private final int           mask;
+    private       long          overruns;
+    /** Volatile so that the lag of the reader can be monitored by other threads **/
+    private volatile long       position;
+
+    /**
+     * Creates a new reader of specified ring, which reads the messages published from now on.
+     *
+     * @param bus    The event bus the messages are dispatched on.
+     * @param ring   The ring.
+     * @param codecs The codecs of the bridged topics.
+     */
+    public RingReader(EventBus bus, MappedRing ring, CodecRegistry codecs) {
+        this.bus      = bus;
+        this.ring     = ring;
+        this.codecs   = codecs;
+        this.records  = ring.records();
+        this.mask     = ring.capacity() - 1;
+        this.position = ring.published();
+    }
+
+    /**
+     * Returns whether the current thread is dispatching a message read from a ring, the {@link RingPublisher}s then
+     * ignore it.
+     *
+     * @return True if the current thread is dispatching a bridged message.
+     */
+    static boolean forwarding() {
+        return FORWARDING.get()[0];
+    }
+
+    /**
+     * Dispatches the messages published since the last poll, in order.
+     *
+     * @return The amount of dispatched messages.
+     */
+    public int poll() {
+        final long published = ring.published();
+        final int  capacity  = mask + 1;
+        int        count     = 0;
+        while (position < published) {
+            if (ring.claimed() - position > capacity) {
+                overrun();
+                return count;
+            }
+            final int index  = (int) (position & mask);
+            final int length = records.getInt(index);
+            if (length == MappedRing.PADDING) {
+                position += capacity - index;
+                continue;
+            }
+
+            final CodecRegistry.Entry entry   = codecs.entry(records.getLong(index + MappedRing.RECORD_ID));
+            Object                    message = null;
+            RuntimeException          failure = null;
+            if (entry != null && length >= 0 && index + MappedRing.RECORD_HEADER + length <= capacity) {
+                records.limit(index + MappedRing.RECORD_HEADER + length).position(index + MappedRing.RECORD_HEADER);
+                try {
+                    message = entry.codec.decode(records);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                records.clear();
+            }
+            // The record may have been overwritten while it was decoded
+            VarHandle.loadLoadFence();
+            if (ring.claimed() - position > capacity) {
+                overrun();
+                return count;
+            }
+            position += (MappedRing.RECORD_HEADER + length + 7) & ~7;
+            if (failure != null) throw failure;
+            if (message != null) {
+                dispatch(message);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Dispatches specified message, without publishing it again.
+     *
+     * @param message The message.
+     */
+    private void dispatch(Object message) {
+        final boolean[] forwarding = FORWARDING.get();
+        final boolean   previous   = forwarding[0];
+        forwarding[0] = true;
+        try {
+            bus.dispatch(message);
+        } finally {
+            forwarding[0] = previous;
+        }
+    }
+
+    /**
+     * Skips the overwritten records.
+     */
+    private void overrun() {
+        overruns++;
+        position = ring.published();
+    }
+
+    /**
+     * Returns the position of the next record, the reader lags by the published position minus this position.
+     *
+     * @return The position.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Returns how many times this reader lagged by more than the capacity of the ring, losing messages.
+     *
+     * @return The amount of overruns.
+     */
+    public long overruns() {
+        return overruns;
+    }
+
+}
@@ -6,9 +6,10 @@ import fr.shyrogan.post.factory.ReceiverFactory;
 import fr.shyrogan.post.listener.Listener;
 import fr.shyrogan.post.utils.DynamicClassLoader;
 
-import java.util.ArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Abstract representation of an event bus configuration.
@@ -31,13 +32,17 @@ public interface EventBusConfiguration {
      * Returns the initial capacity of the list that contains all of our receivers for a specific topic.
      *
      * @return The initial capacity of the list that contains all of our receivers for a specific topic.
+     *
+     * @deprecated Receivers of a topic are now stored in an array that has the exact amount of receivers.
      */
+    @Deprecated
     default int initialReceiverListCapacity() {
         return DEFAULT.initialReceiverListCapacity();
     }
 
     /**
-     * Returns the receiver factory used to create receiver from an object instance. (From its fields/methods).
+     * Returns the receiver factory used to create receiver from an object instance. (From its fields/methods). By
+     * default, the registrars generated at compile time are used when they exist.
      *
      * @return The receiver factory.
      */
@@ -46,14 +51,97 @@ public interface EventBusConfiguration {
     }
 
     /**
-     * Provides a function that returns a dispatcher based on the receiver list.
+     * Provides a function that returns a dispatcher based on the receivers.
      *
-     * @param listeners The list of receivers (can be null!)
+     * @param listeners The receivers sorted by priority (can be null!), the array must not be modified.
      *
      * @return A dispatcher factory function.
      */
-    default MessageDispatcher dispatcherFor(ArrayList<Listener> listeners) {
-        return DEFAULT.dispatcherFor(listeners);
+    default MessageDispatcher dispatcherFor(Listener[] listeners) {
+        return DefaultEventBusConfiguration.defaultDispatcherFor(this, listeners);
+    }
+
+    /**
+     * Returns the handler of the dead messages: messages dispatched to a topic that has no receivers.
+     *
+     * @return The dead message handler, or null if they are ignored.
+     */
+    default Consumer<Object> deadMessageHandler() {
+        return DEFAULT.deadMessageHandler();
+    }
+
+    /**
+     * Returns whether messages are also dispatched to the listeners of their super classes and interfaces. The merged
+     * listeners of each message class are computed once, when it is dispatched for the first time, and kept up to date
+     * on subscription/unsubscription.
+     *
+     * @return True if the dispatch is polymorphic.
+     */
+    default boolean polymorphicDispatch() {
+        return DEFAULT.polymorphicDispatch();
+    }
+
+    /**
+     * Returns the maximum amount of listeners of a topic for which a dispatcher is compiled on the fly (one class
+     * calling each listener directly), topics that have more listeners are iterated instead.
+     *
+     * @return The maximum amount of listeners of a compiled dispatcher, 0 disables the compilation.
+     */
+    default int dispatcherCompilationThreshold() {
+        return DEFAULT.dispatcherCompilationThreshold();
+    }
+
+    /**
+     * Returns the minimum amount of listeners of equal priority (a band) that are invoked in parallel, using the
+     * {@link #parallelPool()}, bands being still invoked one after another. Listeners of a same band must then be
+     * independent: this is meant for topics with many CPU-heavy listeners.
+     *
+     * @return The minimum amount of listeners of a band invoked in parallel, 0 disables the parallelism.
+     */
+    default int parallelDispatchThreshold() {
+        return DEFAULT.parallelDispatchThreshold();
+    }
+
+    /**
+     * Returns the pool invoking the listeners dispatched in parallel, see {@link #parallelDispatchThreshold()}.
+     *
+     * @return The fork/join pool.
+     */
+    default ForkJoinPool parallelPool() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * Returns whether the event bus collects {@link fr.shyrogan.post.metrics.EventBusMetrics}: dispatchers and
+     * receivers are then wrapped to record them. When disabled, the dispatch path is the same as without metrics.
+     *
+     * @return True if metrics are collected.
+     */
+    default boolean metricsEnabled() {
+        return DEFAULT.metricsEnabled();
+    }
+
+    /**
+     * Returns the sampling interval of the dispatch latencies: one out of this amount of dispatches is timed (on
+     * average), when metrics are enabled.
+     *
+     * @return The sampling interval, 1 times every dispatch.
+     */
+    default int metricsSamplingInterval() {
+        return DEFAULT.metricsSamplingInterval();
+    }
+
+    /**
+     * Returns whether the dispatchers and receivers are wrapped to emit the {@link fr.shyrogan.post.jfr.DispatchEvent}
+     * and {@link fr.shyrogan.post.jfr.ListenerEvent} of the flight recorder, which then only cost a check while no
+     * recording enables them. The registration events ({@link fr.shyrogan.post.jfr.SubscriptionEvent} and {@link
+     * fr.shyrogan.post.jfr.DispatcherRebuildEvent}) are also only emitted when this is enabled: otherwise, the flight
+     * recorder is never touched.
+     *
+     * @return True if the flight recorder events are emitted.
+     */
+    default boolean flightRecorderEvents() {
+        return DEFAULT.flightRecorderEvents();
     }
 
     /**
@@ -65,8 +153,24 @@ public interface EventBusConfiguration {
         return DEFAULT.classLoader();
     }
 
+    /**
+     * Returns the executor service used to invoke asynchronous receivers when virtual threads are not supported.
+     *
+     * @return The executor service.
+     */
     default ExecutorService executorService() {
         return ForkJoinPool.commonPool();
     }
 
+    /**
+     * Returns the executor used to invoke asynchronous receivers: a new virtual thread per task when the runtime
+     * supports them, otherwise the {@link #executorService()}.
+     *
+     * @return The executor of the asynchronous receivers.
+     */
+    default Executor asyncExecutor() {
+        final ExecutorService virtualThreads = DefaultEventBusConfiguration.virtualThreadExecutor();
+        return virtualThreads != null ? virtualThreads : executorService();
+    }
+
 }
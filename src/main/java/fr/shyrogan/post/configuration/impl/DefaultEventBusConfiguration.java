@@ -2,15 +2,22 @@ package fr.shyrogan.post.configuration.impl;
 
 import fr.shyrogan.post.configuration.EventBusConfiguration;
 import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.CompiledMessageDispatcher;
 import fr.shyrogan.post.dispatcher.impl.DeadMessageDispatcher;
 import fr.shyrogan.post.dispatcher.impl.IterativeMessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.ParallelMessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.SharedFilterMessageDispatcher;
 import fr.shyrogan.post.dispatcher.impl.SingletonMessageDispatcher;
 import fr.shyrogan.post.factory.ReceiverFactory;
-import fr.shyrogan.post.factory.impl.AnnotatedFieldAndMethodFactory;
+import fr.shyrogan.post.factory.impl.GeneratedRegistrarFactory;
 import fr.shyrogan.post.listener.Listener;
 import fr.shyrogan.post.utils.DynamicClassLoader;
 
-import java.util.ArrayList;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
  * The default configuration (and greatest and a lot of cases!).
@@ -18,36 +25,133 @@ import java.util.ArrayList;
 @SuppressWarnings("ALL")
 public class DefaultEventBusConfiguration implements EventBusConfiguration {
 
-    private final static DynamicClassLoader CLASS_LOADER = new DynamicClassLoader();
+    private final static DynamicClassLoader CLASS_LOADER    = new DynamicClassLoader();
+    /** The virtual thread per task executor, if the runtime supports them **/
+    private final static ExecutorService    VIRTUAL_THREADS = createVirtualThreadExecutor();
 
     @Override
     public int initialReceiverMapCapacity() {
         return 20;
     }
 
+    /**
+     * Kept since the deprecated default of {@link EventBusConfiguration#initialReceiverListCapacity()} delegates to it.
+     *
+     * @deprecated Receivers of a topic are now stored in an array that has the exact amount of receivers.
+     */
     @Override
+    @Deprecated
     public int initialReceiverListCapacity() {
         return 8;
     }
 
     @Override
     public ReceiverFactory receiverFactory() {
-        return AnnotatedFieldAndMethodFactory.INSTANCE;
+        return GeneratedRegistrarFactory.INSTANCE;
     }
 
     @Override
-    public MessageDispatcher dispatcherFor(ArrayList<Listener> listeners) {
-        final int size = listeners == null ? 0 : listeners.size();
-        // If it's an empty/null list, does nothing
-        if (size == 0) return new DeadMessageDispatcher();
-            // If it's a singleton then we don't need an iteration
-        else if (size == 1) return new SingletonMessageDispatcher(listeners.get(0));
-            // Otherwise just iterates through the list, simple as that.
-        else return new IterativeMessageDispatcher(size, listeners);
+    public boolean polymorphicDispatch() {
+        return false;
+    }
+
+    @Override
+    public MessageDispatcher dispatcherFor(Listener[] listeners) {
+        return defaultDispatcherFor(this, listeners);
+    }
+
+    @Override
+    public Consumer<Object> deadMessageHandler() {
+        return null;
+    }
+
+    @Override
+    public int dispatcherCompilationThreshold() {
+        // Keeps the generated method small enough to be compiled and inlined by the JIT.
+        return 32;
+    }
+
+    @Override
+    public int parallelDispatchThreshold() {
+        // Listeners may not be thread safe, the parallelism is opt-in.
+        return 0;
+    }
+
+    @Override
+    public boolean metricsEnabled() {
+        return false;
+    }
+
+    @Override
+    public int metricsSamplingInterval() {
+        // Keeps the cost of System.nanoTime off most dispatches.
+        return 64;
+    }
+
+    @Override
+    public boolean flightRecorderEvents() {
+        return false;
     }
 
     @Override
     public DynamicClassLoader classLoader() {
         return CLASS_LOADER;
     }
+
+    /**
+     * Returns an executor that starts a new virtual thread for each task, if the runtime supports them.
+     *
+     * @return The virtual thread executor or null.
+     */
+    public static ExecutorService virtualThreadExecutor() {
+        return VIRTUAL_THREADS;
+    }
+
+    /**
+     * Creates the virtual thread executor, which is looked up reflectively since virtual threads only exist on recent
+     * runtimes.
+     *
+     * @return The virtual thread executor or null.
+     */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup().findStatic(
+                    Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class)
+            ).invoke();
+        } catch (Throwable t) {
+            // Not supported (or preview features are disabled)
+            return null;
+        }
+    }
+
+    /**
+     * Picks the default dispatcher of specified receivers, using the settings of specified configuration.
+     *
+     * @param configuration The configuration.
+     * @param listeners     The receivers sorted by priority (can be null!).
+     *
+     * @return The dispatcher.
+     */
+    public static MessageDispatcher defaultDispatcherFor(EventBusConfiguration configuration, Listener[] listeners) {
+        final int size = listeners == null ? 0 : listeners.length;
+        // If it's an empty/null list, does nothing (unless dead messages are handled)
+        if (size == 0) {
+            final Consumer<Object> handler = configuration.deadMessageHandler();
+            return handler == null ? new DeadMessageDispatcher() : new DeadMessageDispatcher(handler);
+        }
+            // If it's a singleton then we don't need an iteration
+        else if (size == 1) return new SingletonMessageDispatcher(listeners[0]);
+            // If enough of them have the same priority, invokes them in parallel
+        else if (ParallelMessageDispatcher.parallelizes(listeners, configuration.parallelDispatchThreshold()))
+            return new ParallelMessageDispatcher(
+                    listeners, configuration.parallelDispatchThreshold(), configuration.parallelPool());
+            // If some of them share a filter, evaluates it only once
+        else if (SharedFilterMessageDispatcher.sharesFilters(listeners))
+            return new SharedFilterMessageDispatcher(listeners);
+            // If it's small enough, compiles a dispatcher that calls each of them directly
+        else if (size <= configuration.dispatcherCompilationThreshold())
+            return CompiledMessageDispatcher.of(listeners, configuration.classLoader());
+            // Otherwise just iterates through the list, simple as that.
+        else return new IterativeMessageDispatcher(listeners);
+    }
 }
@@ -0,0 +1,152 @@
+package fr.shyrogan.post.context;
+
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.message.PooledMessage;
+import fr.shyrogan.post.utils.MpscQueue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A named execution context, owned by a single thread (such as the main/tick thread): the receivers of that context
+ * (see {@link Listener#thread()}) are invoked directly when their messages are dispatched by the owner, otherwise the
+ * deliveries are queued into the lock-free mailbox of the context, until the owner drains it.
+ * <p>The owner is either bound explicitly or is the first thread draining the mailbox, it is bound atomically and
+ * never changes afterwards. {@link PooledMessage}s are retained while they are queued.</p>
+ */
+@SuppressWarnings("ALL")
+public final class ExecutionContext {
+
+    /** The owner field **/
+    private final static VarHandle OWNER;
+
+    static {
+        try {
+            OWNER = MethodHandles.lookup().findVarHandle(ExecutionContext.class, "owner", Thread.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final    String              name;
+    private final    MpscQueue<Delivery> mailbox = new MpscQueue<>();
+    private volatile Thread              owner;
+
+    /**
+     * Creates a new execution context, without owner.
+     *
+     * @param name The name.
+     */
+    public ExecutionContext(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of this context.
+     *
+     * @return The name.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the thread owning this context.
+     *
+     * @return The owner, or null if it is not bound yet.
+     */
+    public Thread owner() {
+        return owner;
+    }
+
+    /**
+     * Binds this context to the current thread, which then receives the messages dispatched to its receivers. Binding
+     * it again from its owner does nothing.
+     *
+     * @throws IllegalStateException If another thread owns this context.
+     */
+    public void bind() {
+        final Thread current = Thread.currentThread();
+        if (!OWNER.compareAndSet(this, null, current) && owner != current) {
+            throw new IllegalStateException("The context " + name + " is owned by " + owner.getName());
+        }
+    }
+
+    /**
+     * Returns whether the current thread owns this context.
+     *
+     * @return True if the current thread is the owner.
+     */
+    public boolean isOwner() {
+        return owner == Thread.currentThread();
+    }
+
+    /**
+     * Queues the delivery of specified message to specified receiver, it is invoked on the next drain.
+     *
+     * @param listener The receiver.
+     * @param message  The message.
+     */
+    public void post(Listener listener, Object message) {
+        PooledMessage.retain(message);
+        mailbox.offer(new Delivery(listener, message));
+    }
+
+    /**
+     * Returns whether the mailbox of this context is empty.
+     *
+     * @return True if no delivery is queued.
+     */
+    public boolean isEmpty() {
+        return mailbox.isEmpty();
+    }
+
+    /**
+     * Performs the deliveries queued before this method is invoked, in order. If some receivers failed, the first
+     * exception is rethrown once every delivery has been performed.
+     * <p>A drain invoked by a receiver during a drain of this context performs no delivery and returns 0, the
+     * deliveries are left to the outer drain (or to the next one, for the deliveries queued meanwhile).</p>
+     *
+     * @return The amount of performed deliveries.
+     *
+     * @throws IllegalStateException If the current thread does not own this context.
+     */
+    public int drain() {
+        bind();
+
+        final Throwable[] failure = new Throwable[1];
+        final int         count   = mailbox.drain(delivery -> {
+            try {
+                delivery.listener.receive(delivery.message);
+            } catch (Throwable t) {
+                if (failure[0] == null) failure[0] = t;
+                else failure[0].addSuppressed(t);
+            } finally {
+                PooledMessage.release(delivery.message);
+            }
+        });
+        if (failure[0] instanceof RuntimeException) throw (RuntimeException) failure[0];
+        if (failure[0] instanceof Error) throw (Error) failure[0];
+        if (failure[0] != null) throw new IllegalStateException(failure[0]);
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionContext{" + "name=" + name + ", owner=" + owner + '}';
+    }
+
+    /**
+     * A queued delivery.
+     */
+    private final static class Delivery {
+        private final Listener listener;
+        private final Object   message;
+
+        Delivery(Listener listener, Object message) {
+            this.listener = listener;
+            this.message  = message;
+        }
+    }
+
+}
@@ -13,4 +13,18 @@ public interface MessageDispatcher {
      */
     void dispatch(Object message);
 
+    /**
+     * Dispatches a batch of messages (of the same topic) to each of the receivers. By default, each message is
+     * dispatched one after another.
+     *
+     * @param messages The messages.
+     * @param from     The index of the first message (inclusive).
+     * @param to       The index of the last message (exclusive).
+     */
+    default void dispatchAll(Object[] messages, int from, int to) {
+        for (int i = from; i < to; i++) {
+            dispatch(messages[i]);
+        }
+    }
+
 }
@@ -0,0 +1,73 @@
+package fr.shyrogan.post.dispatcher.impl;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.listener.BatchListener;
+import fr.shyrogan.post.message.Cancellable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A dispatcher delivering batches of messages to the {@link BatchListener}s with a single call.
+ * <p>The listeners are split into segments: each batch listener is a segment, and so is each run of consecutive
+ * listeners that do not receive batches, which has its own dispatcher. A batch is dispatched segment by segment, and
+ * message by message within a run, so that each message is still received in priority order.</p>
+ * <p>Batch listeners that do not receive cancelled messages receive the batch without its cancelled messages.</p>
+ */
+@SuppressWarnings("ALL")
+public final class BatchMessageDispatcher implements MessageDispatcher {
+
+    private final MessageDispatcher dispatcher;
+    private final Object[]          segments;
+
+    /**
+     * Creates a new batch dispatcher.
+     *
+     * @param dispatcher The dispatcher of every listener, used to dispatch single messages.
+     * @param segments   The segments, in priority order: either {@link BatchListener}s or {@link MessageDispatcher}s.
+     */
+    public BatchMessageDispatcher(MessageDispatcher dispatcher, Object[] segments) {
+        this.dispatcher = dispatcher;
+        this.segments   = segments;
+    }
+
+    @Override
+    public void dispatch(Object message) {
+        dispatcher.dispatch(message);
+    }
+
+    @Override
+    public void dispatchAll(Object[] messages, int from, int to) {
+        List batch = null;
+        for (Object segment : segments) {
+            if (segment instanceof BatchListener) {
+                final BatchListener listener = (BatchListener) segment;
+                if (batch == null) batch = Arrays.asList(messages).subList(from, to);
+                listener.receiveAll(listener.receiveCancelled() ? batch : notCancelled(batch));
+            } else {
+                ((MessageDispatcher) segment).dispatchAll(messages, from, to);
+            }
+        }
+    }
+
+    /**
+     * Returns specified batch without its cancelled messages, it is only copied if some of them are cancelled.
+     *
+     * @param batch The batch.
+     *
+     * @return The messages that are not cancelled.
+     */
+    private static List notCancelled(List batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            if (!Cancellable.cancelled(batch.get(i))) continue;
+            final List remaining = new ArrayList(batch.subList(0, i));
+            for (int j = i + 1; j < batch.size(); j++) {
+                if (!Cancellable.cancelled(batch.get(j))) remaining.add(batch.get(j));
+            }
+            return remaining;
+        }
+        return batch;
+    }
+
+}
@@ -0,0 +1,93 @@
+package fr.shyrogan.post.dispatcher.impl;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.utils.DynamicClassLoader;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fr.shyrogan.post.utils.ListenerCompiler.dispatcherByteCode;
+
+/**
+ * Creates dispatchers compiled on the fly by the {@link fr.shyrogan.post.utils.ListenerCompiler}: a single class per
+ * topic which holds each listener in a final field and calls them directly, in priority order.
+ * <p>Generated classes only depend on the topic, the classes of the listeners and whether they receive cancelled
+ * messages (their "shape"), they are therefore shared by every dispatcher of the same shape.</p>
+ */
+@SuppressWarnings("ALL")
+public final class CompiledMessageDispatcher {
+
+    /** The constructor of each generated class, by shape **/
+    private final static Map<List<Object>, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+    /** Used to give an unique name to each generated class **/
+    private final static AtomicInteger                     COUNTER      = new AtomicInteger();
+
+    private CompiledMessageDispatcher() { }
+
+    /**
+     * Compiles a dispatcher which calls each of specified listeners, in the order of the list.
+     *
+     * @param listeners   The listeners (must not be empty).
+     * @param classLoader The class loader used to define the dispatcher.
+     *
+     * @return The compiled dispatcher, or an {@link IterativeMessageDispatcher} if it failed.
+     */
+    public static MessageDispatcher of(Listener[] listeners, DynamicClassLoader classLoader) {
+        final Class<?>[] topics           = new Class<?>[listeners.length];
+        final Class<?>[] types            = new Class<?>[listeners.length];
+        final boolean[]  receiveCancelled = new boolean[listeners.length];
+        for (int i = 0; i < types.length; i++) {
+            topics[i]           = visibleOrElse(listeners[i].topic(), Object.class, classLoader);
+            types[i]            = visibleOrElse(listeners[i].getClass(), Listener.class, classLoader);
+            receiveCancelled[i] = listeners[i].receiveCancelled();
+        }
+
+        final List<Object> shape = new ArrayList<>(types.length * 2 + 2);
+        shape.add(classLoader);
+        shape.addAll(Arrays.asList(topics));
+        shape.addAll(Arrays.asList(types));
+        shape.add(Arrays.toString(receiveCancelled));
+
+        try {
+            Constructor<?> constructor = CONSTRUCTORS.get(shape);
+            if (constructor == null) {
+                final String generatedClassName = "PostDispatcher_" + topics[0].getName().replace('.', '_') + '_'
+                                                  + COUNTER.incrementAndGet();
+                constructor = classLoader.createClass(
+                        generatedClassName, dispatcherByteCode(generatedClassName, topics, types, receiveCancelled)
+                ).getDeclaredConstructor(Listener[].class);
+                CONSTRUCTORS.putIfAbsent(shape, constructor);
+            }
+            return (MessageDispatcher) constructor.newInstance((Object) listeners);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            e.printStackTrace();
+        }
+        return new IterativeMessageDispatcher(listeners);
+    }
+
+    /**
+     * Returns specified type if it can be referenced by a class defined in the class loader, otherwise the fallback.
+     *
+     * @param type        The type.
+     * @param fallback    The fallback type.
+     * @param classLoader The class loader.
+     *
+     * @return The type or its fallback.
+     */
+    private static Class<?> visibleOrElse(Class<?> type, Class<?> fallback, ClassLoader classLoader) {
+        if (!Modifier.isPublic(type.getModifiers()) || type.isHidden()) return fallback;
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type ? type : fallback;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return fallback;
+        }
+    }
+
+}
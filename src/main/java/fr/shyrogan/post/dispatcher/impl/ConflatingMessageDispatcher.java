@@ -0,0 +1,127 @@
+package fr.shyrogan.post.dispatcher.impl;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.message.PooledMessage;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A dispatcher which conflates the messages of a topic by key: it only keeps the newest message of each key until it
+ * is flushed, the remaining messages are then dispatched as a batch by the dispatcher of the topic, see {@link
+ * fr.shyrogan.post.EventBus#conflate(Class, Function)}.
+ * <p>Replacing the pending message of a key does not allocate. Messages are flushed in no particular order, and a
+ * message replacing a pending one while it is flushed is kept for the next flush. Messages without key are dispatched
+ * immediately.</p>
+ * <p>Pending {@link PooledMessage}s are retained until they are replaced or flushed.</p>
+ */
+@SuppressWarnings("ALL")
+public final class ConflatingMessageDispatcher implements MessageDispatcher {
+
+    private final    Function<Object, Object> extractor;
+    private final    Map<Object, Object>      pending = new ConcurrentHashMap<>();
+    private volatile MessageDispatcher        target;
+
+    /**
+     * Creates a new conflating dispatcher.
+     *
+     * @param extractor The key extractor.
+     * @param target    The dispatcher of the topic, receiving the flushed messages.
+     */
+    public ConflatingMessageDispatcher(Function<Object, Object> extractor, MessageDispatcher target) {
+        this.extractor = extractor;
+        this.target    = target;
+    }
+
+    /**
+     * Returns the dispatcher of the topic, receiving the flushed messages.
+     *
+     * @return The dispatcher.
+     */
+    public MessageDispatcher target() {
+        return target;
+    }
+
+    /**
+     * Replaces the dispatcher of the topic, receiving the flushed messages.
+     *
+     * @param target The dispatcher.
+     */
+    public void target(MessageDispatcher target) {
+        this.target = target;
+    }
+
+    @Override
+    public void dispatch(Object message) {
+        final Object key = extractor.apply(message);
+        if (key == null) {
+            target.dispatch(message);
+        } else {
+            PooledMessage.retain(message);
+            PooledMessage.release(pending.put(key, message));
+        }
+    }
+
+    /**
+     * Returns the amount of pending messages, one per key.
+     *
+     * @return The amount of pending messages.
+     */
+    public int pending() {
+        return pending.size();
+    }
+
+    /**
+     * Dispatches the pending messages, as a single batch.
+     *
+     * @return The amount of dispatched messages.
+     */
+    public int flush() {
+        if (pending.isEmpty()) return 0;
+
+        Object[]       messages = new Object[pending.size()];
+        int            size     = 0;
+        final Object[] removed  = new Object[1];
+        for (Map.Entry<Object, Object> entry : pending.entrySet()) {
+            final Object message = entry.getValue();
+            // Fails if the message has been replaced (or flushed) meanwhile. Compared by identity: a replacing message
+            // may be equal to this one, it must then be kept (and this one, already released, not be dispatched).
+            removed[0] = null;
+            pending.computeIfPresent(entry.getKey(), (key, current) -> {
+                if (current != message) return current;
+                removed[0] = current;
+                return null;
+            });
+            if (removed[0] != message) continue;
+            if (size == messages.length) messages = Arrays.copyOf(messages, size * 2);
+            messages[size++] = message;
+        }
+        if (size == 0) return 0;
+        try {
+            target.dispatchAll(messages, 0, size);
+        } finally {
+            for (int i = 0; i < size; i++) PooledMessage.release(messages[i]);
+        }
+        return size;
+    }
+
+    /**
+     * Flushes the pending messages at a fixed rate, until the returned future is cancelled.
+     *
+     * @param window    The time between two flushes.
+     * @param scheduler The scheduler running the flushes.
+     *
+     * @return The future of the scheduled flushes.
+     */
+    public ScheduledFuture<?> flushEvery(Duration window, ScheduledExecutorService scheduler) {
+        final long nanos = window.toNanos();
+        return scheduler.scheduleAtFixedRate(this::flush, nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+}
@@ -2,12 +2,31 @@ package fr.shyrogan.post.dispatcher.impl;
 
 import fr.shyrogan.post.dispatcher.MessageDispatcher;
 
+import java.util.function.Consumer;
+
 /**
- * A dispatcher which dispatches.. nothing.
+ * A dispatcher which dispatches.. nothing. Messages can still be handed to a dead message handler.
  */
 public final class DeadMessageDispatcher implements MessageDispatcher {
 
+    private final Consumer<Object> handler;
+
+    public DeadMessageDispatcher() {
+        this(message -> { });
+    }
+
+    /**
+     * Creates a new dispatcher handing each message to specified handler.
+     *
+     * @param handler The dead message handler.
+     */
+    public DeadMessageDispatcher(Consumer<Object> handler) {
+        this.handler = handler;
+    }
+
     @Override
-    public void dispatch(Object message) { }
+    public void dispatch(Object message) {
+        handler.accept(message);
+    }
 
 }
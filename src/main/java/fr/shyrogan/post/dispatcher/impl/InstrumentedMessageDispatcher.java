@@ -0,0 +1,69 @@
+package fr.shyrogan.post.dispatcher.impl;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.metrics.TopicMetrics;
+
+/**
+ * A dispatcher which records the {@link TopicMetrics} of the dispatches of another dispatcher: it is only used when
+ * metrics are enabled.
+ */
+public final class InstrumentedMessageDispatcher implements MessageDispatcher {
+
+    private final MessageDispatcher dispatcher;
+    private final TopicMetrics      metrics;
+    private final boolean           dead;
+
+    /**
+     * Creates a new instrumented dispatcher.
+     *
+     * @param dispatcher The instrumented dispatcher.
+     * @param metrics    The metrics of the topic.
+     * @param dead       Whether the topic does not have any receiver.
+     */
+    public InstrumentedMessageDispatcher(MessageDispatcher dispatcher, TopicMetrics metrics, boolean dead) {
+        this.dispatcher = dispatcher;
+        this.metrics    = metrics;
+        this.dead       = dead;
+    }
+
+    /**
+     * Returns the instrumented dispatcher.
+     *
+     * @return The dispatcher.
+     */
+    public MessageDispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    @Override
+    public void dispatch(Object message) {
+        metrics.dispatched(1, dead);
+        final boolean sampled = metrics.sample();
+        final long    start   = sampled ? System.nanoTime() : 0L;
+        try {
+            dispatcher.dispatch(message);
+        } catch (Throwable t) {
+            metrics.failed();
+            throw t;
+        } finally {
+            if (sampled) metrics.latency().record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void dispatchAll(Object[] messages, int from, int to) {
+        metrics.dispatched(to - from, dead);
+        final boolean sampled = metrics.sample();
+        final long    start   = sampled ? System.nanoTime() : 0L;
+        try {
+            dispatcher.dispatchAll(messages, from, to);
+        } catch (Throwable t) {
+            metrics.failed();
+            throw t;
+        } finally {
+            // The latency of a batch is attributed evenly to its messages
+            if (sampled && to > from) metrics.latency().record((System.nanoTime() - start) / (to - from));
+        }
+    }
+
+}
@@ -2,27 +2,46 @@ package fr.shyrogan.post.dispatcher.impl;
 
 import fr.shyrogan.post.dispatcher.MessageDispatcher;
 import fr.shyrogan.post.listener.Listener;
-
-import java.util.ArrayList;
+import fr.shyrogan.post.message.Cancellable;
 
 /**
- * A dispatcher which dispatches.. nothing.
+ * A dispatcher which iterates through the listeners. Once a {@link Cancellable} message is cancelled, only the
+ * listeners receiving cancelled messages are called, and the iteration stops after the last of them.
  */
 @SuppressWarnings("ALL")
 public final class IterativeMessageDispatcher implements MessageDispatcher {
 
-    private final int                 size;
-    private final ArrayList<Listener> listeners;
+    private final Listener[] listeners;
+    /** Whether each listener receives cancelled messages **/
+    private final boolean[]  receiveCancelled;
+    /** The index of the last listener receiving cancelled messages, or -1 **/
+    private final int        lastReceivingCancelled;
 
-    public IterativeMessageDispatcher(int size, ArrayList<Listener> listeners) {
-        this.size      = size;
-        this.listeners = listeners;
+    public IterativeMessageDispatcher(Listener[] listeners) {
+        this.listeners        = listeners;
+        this.receiveCancelled = new boolean[listeners.length];
+        int last = -1;
+        for (int i = 0; i < listeners.length; i++) {
+            if (receiveCancelled[i] = listeners[i].receiveCancelled()) last = i;
+        }
+        this.lastReceivingCancelled = last;
     }
 
     @Override
     public void dispatch(Object message) {
-        for(int i = 0; i < size; i++) {
-            listeners.get(i).receive(message);
+        if (!(message instanceof Cancellable)) {
+            for (Listener listener : listeners) {
+                listener.receive(message);
+            }
+            return;
+        }
+        final Cancellable cancellable = (Cancellable) message;
+        for (int i = 0; i < listeners.length; i++) {
+            if (cancellable.isCancelled()) {
+                if (i > lastReceivingCancelled) return;
+                if (!receiveCancelled[i]) continue;
+            }
+            listeners[i].receive(message);
         }
     }
 
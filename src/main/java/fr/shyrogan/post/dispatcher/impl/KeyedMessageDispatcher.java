@@ -0,0 +1,229 @@
+package fr.shyrogan.post.dispatcher.impl;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.listener.Listener;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A dispatcher routing each message to the listeners of its key, using a hash index instead of testing each listener.
+ * <p>The key of each message is extracted by the key extractor of the topic, and looked up in the index: each key is
+ * associated to an {@link Entry} holding the dispatchers of the listeners of that key only. The listeners without key
+ * are dispatched to through their own dispatchers, shared by every key: they are split into bands at the distinct
+ * priorities of the listeners with a key, so that a message is still received in priority order (the listeners of its
+ * key first, among equal priorities). Messages whose key has no listener are dispatched to the listeners without key
+ * only.</p>
+ * <p>The index is updated in place, one key at a time, and shared by the dispatchers replacing this one as long as the
+ * priorities of the listeners with a key do not change. Dispatching threads see each entry as soon as it is put.</p>
+ * <p>A batch of messages is grouped by key before being dispatched, so that the batch listeners receive the messages
+ * of each key at once, in order. The groups themselves are dispatched in the order of their first message.</p>
+ */
+@SuppressWarnings("ALL")
+public final class KeyedMessageDispatcher implements MessageDispatcher {
+
+    private final Function<Object, Object> extractor;
+    private final MessageDispatcher        unkeyed;
+    /** The distinct priorities of the listeners with a key, in descending order **/
+    private final int[]                    priorities;
+    /** The dispatchers of the listeners without key of higher priority than each priority, or null **/
+    private final MessageDispatcher[]      bands;
+    private final Map<Object, Entry>       entries;
+
+    /**
+     * Creates a new keyed dispatcher.
+     *
+     * @param extractor  The key extractor.
+     * @param unkeyed    The dispatcher of the listeners without key.
+     * @param priorities The distinct priorities of the listeners with a key, in descending order.
+     * @param bands      The dispatchers of the bands of listeners without key (one more than the priorities): the band
+     *                   of index i holds the listeners whose priority is lower than or equal to {@code priorities[i -
+     *                   1]} and higher than {@code priorities[i]}, or null if it is empty.
+     * @param entries    The entry of each key, a concurrent map.
+     */
+    public KeyedMessageDispatcher(Function<Object, Object> extractor, MessageDispatcher unkeyed, int[] priorities,
+                                  MessageDispatcher[] bands, Map<Object, Entry> entries) {
+        this.extractor  = extractor;
+        this.unkeyed    = unkeyed;
+        this.priorities = priorities;
+        this.bands      = bands;
+        this.entries    = entries;
+    }
+
+    @Override
+    public void dispatch(Object message) {
+        final Entry entry = entryOf(message);
+        if (entry == null) {
+            unkeyed.dispatch(message);
+            return;
+        }
+        final MessageDispatcher[] dispatchers = entry.dispatchers;
+        for (int i = 0; i < dispatchers.length; i++) {
+            if (bands[i] != null) bands[i].dispatch(message);
+            if (dispatchers[i] != null) dispatchers[i].dispatch(message);
+        }
+        if (bands[dispatchers.length] != null) bands[dispatchers.length].dispatch(message);
+    }
+
+    @Override
+    public void dispatchAll(Object[] messages, int from, int to) {
+        if (from >= to) return;
+
+        // Common case: every message of the batch has the same entry, which receives the batch as is
+        final Entry first = entryOf(messages[from]);
+        int index = from + 1;
+        while (index < to && entryOf(messages[index]) == first) index++;
+        if (index == to) {
+            dispatchAll(first, messages, from, to);
+            return;
+        }
+
+        final Map<Entry, List<Object>> groups = new IdentityHashMap<>();
+        final List<Entry>              order  = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            final Entry  entry = entryOf(messages[i]);
+            List<Object> group = groups.get(entry);
+            if (group == null) {
+                groups.put(entry, group = new ArrayList<>());
+                order.add(entry);
+            }
+            group.add(messages[i]);
+        }
+        for (Entry entry : order) {
+            final Object[] group = groups.get(entry).toArray();
+            dispatchAll(entry, group, 0, group.length);
+        }
+    }
+
+    /**
+     * Dispatches a batch of messages to the listeners of specified entry and to the listeners without key.
+     *
+     * @param entry    The entry, or null to only dispatch to the listeners without key.
+     * @param messages The messages.
+     * @param from     The index of the first message (inclusive).
+     * @param to       The index of the last message (exclusive).
+     */
+    private void dispatchAll(Entry entry, Object[] messages, int from, int to) {
+        if (entry == null) {
+            unkeyed.dispatchAll(messages, from, to);
+            return;
+        }
+        final MessageDispatcher[] dispatchers = entry.dispatchers;
+        for (int i = 0; i < dispatchers.length; i++) {
+            if (bands[i] != null) bands[i].dispatchAll(messages, from, to);
+            if (dispatchers[i] != null) dispatchers[i].dispatchAll(messages, from, to);
+        }
+        if (bands[dispatchers.length] != null) bands[dispatchers.length].dispatchAll(messages, from, to);
+    }
+
+    /**
+     * Returns the entry of the key of specified message.
+     *
+     * @param message The message.
+     *
+     * @return The entry, or null if no listener has its key.
+     */
+    private Entry entryOf(Object message) {
+        final Object key = extractor.apply(message);
+        return key == null ? null : entries.get(key);
+    }
+
+    /**
+     * Returns the key extractor.
+     *
+     * @return The key extractor.
+     */
+    public Function<Object, Object> extractor() {
+        return extractor;
+    }
+
+    /**
+     * Returns the distinct priorities of the listeners with a key, in descending order. The array must not be
+     * modified.
+     *
+     * @return The priorities.
+     */
+    public int[] priorities() {
+        return priorities;
+    }
+
+    /**
+     * Returns the listeners of specified key, or null if no listener has that key. The array must not be modified.
+     *
+     * @param key The key.
+     *
+     * @return The listeners.
+     */
+    public Listener[] listeners(Object key) {
+        final Entry entry = entries.get(key);
+        return entry == null ? null : entry.listeners;
+    }
+
+    /**
+     * Returns the entry of specified key.
+     *
+     * @param key The key.
+     *
+     * @return The entry, or null if no listener has that key.
+     */
+    public Entry entry(Object key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Replaces the entry of specified key, in place: this dispatcher and the dispatchers sharing its index use it as
+     * soon as this method returns. The entry must have been built for the priorities of this dispatcher.
+     *
+     * @param key   The key.
+     * @param entry The entry, or null to remove the key.
+     */
+    public void entry(Object key, Entry entry) {
+        if (entry == null) entries.remove(key);
+        else entries.put(key, entry);
+    }
+
+    /**
+     * Returns a dispatcher sharing the index of this one, with other listeners without key.
+     *
+     * @param unkeyed The dispatcher of the listeners without key.
+     * @param bands   The dispatchers of the bands of listeners without key.
+     *
+     * @return The dispatcher.
+     */
+    public KeyedMessageDispatcher withUnkeyed(MessageDispatcher unkeyed, MessageDispatcher[] bands) {
+        return new KeyedMessageDispatcher(extractor, unkeyed, priorities, bands, entries);
+    }
+
+    /**
+     * The listeners of a key along with their dispatchers.
+     */
+    public final static class Entry {
+        private final Listener[]          listeners;
+        private final MessageDispatcher[] dispatchers;
+
+        /**
+         * Creates a new entry.
+         *
+         * @param listeners   The listeners of the key, sorted by priority.
+         * @param dispatchers The dispatcher of the listeners of each priority of the keyed dispatcher, or null if the
+         *                    key has no listener of that priority.
+         */
+        public Entry(Listener[] listeners, MessageDispatcher[] dispatchers) {
+            this.listeners   = listeners;
+            this.dispatchers = dispatchers;
+        }
+
+        /**
+         * Returns the listeners of the key, sorted by priority. The array must not be modified.
+         *
+         * @return The listeners.
+         */
+        public Listener[] listeners() {
+            return listeners;
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package fr.shyrogan.post.dispatcher.impl;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.message.Cancellable;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A dispatcher which groups the listeners into bands of equal priority: bands are invoked one after another, in
+ * priority order, while the listeners of a band that has enough of them are invoked in parallel on a fork/join pool.
+ * The dispatch returns once every listener has been invoked, the first exception thrown by a listener is rethrown.
+ * <p>Listeners of a same band must therefore be independent. Once a {@link Cancellable} message is cancelled, the next
+ * bands only invoke the listeners receiving cancelled messages, whereas the listeners of the band that cancelled it may
+ * already be running.</p>
+ */
+@SuppressWarnings("ALL")
+public final class ParallelMessageDispatcher implements MessageDispatcher {
+
+    private final Listener[]   listeners;
+    /** The index of the first listener of each band, followed by the amount of listeners **/
+    private final int[]        bands;
+    private final int          threshold;
+    private final ForkJoinPool pool;
+    /** The amount of listeners invoked by a single task **/
+    private final int          leafSize;
+
+    /**
+     * Creates a new parallel dispatcher.
+     *
+     * @param listeners The listeners sorted by priority.
+     * @param threshold The minimum amount of listeners of a band invoked in parallel.
+     * @param pool      The pool invoking the listeners.
+     */
+    public ParallelMessageDispatcher(Listener[] listeners, int threshold, ForkJoinPool pool) {
+        this.listeners = listeners;
+        this.bands     = bandsOf(listeners);
+        this.threshold = Math.max(2, threshold);
+        this.pool      = pool;
+        this.leafSize  = Math.max(1, threshold / Math.max(1, pool.getParallelism()));
+    }
+
+    /**
+     * Returns whether some band of specified listeners has enough listeners to be invoked in parallel.
+     *
+     * @param listeners The listeners sorted by priority.
+     * @param threshold The minimum amount of listeners of a band invoked in parallel, 0 disables the parallelism.
+     *
+     * @return True if the listeners should be dispatched by a parallel dispatcher.
+     */
+    public static boolean parallelizes(Listener[] listeners, int threshold) {
+        if (threshold <= 0 || listeners.length < Math.max(2, threshold)) return false;
+        final int[] bands = bandsOf(listeners);
+        for (int b = 0; b < bands.length - 1; b++) {
+            if (bands[b + 1] - bands[b] >= Math.max(2, threshold)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void dispatch(Object message) {
+        for (int b = 0; b < bands.length - 1; b++) {
+            final int from = bands[b], to = bands[b + 1];
+            if (to - from < threshold) {
+                for (int i = from; i < to; i++) {
+                    final Listener listener = listeners[i];
+                    if (listener.receiveCancelled() || !Cancellable.cancelled(message)) listener.receive(message);
+                }
+            } else {
+                pool.invoke(new FanOut(message, Cancellable.cancelled(message), from, to));
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the first listener of each band, followed by the amount of listeners.
+     *
+     * @param listeners The listeners sorted by priority.
+     *
+     * @return The bands.
+     */
+    private static int[] bandsOf(Listener[] listeners) {
+        int count = listeners.length == 0 ? 0 : 1;
+        for (int i = 1; i < listeners.length; i++) {
+            if (listeners[i].priority() != listeners[i - 1].priority()) count++;
+        }
+        final int[] bands = new int[count + 1];
+        int         band  = 0;
+        for (int i = 1; i < listeners.length; i++) {
+            if (listeners[i].priority() != listeners[i - 1].priority()) bands[++band] = i;
+        }
+        bands[count] = listeners.length;
+        return bands;
+    }
+
+    /**
+     * Invokes a range of listeners, splitting it in halves until it is small enough.
+     */
+    private final class FanOut extends RecursiveAction {
+        private final Object  message;
+        private final boolean cancelled;
+        private final int     from, to;
+
+        FanOut(Object message, boolean cancelled, int from, int to) {
+            this.message   = message;
+            this.cancelled = cancelled;
+            this.from      = from;
+            this.to        = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = from; i < to; i++) {
+                    if (!cancelled || listeners[i].receiveCancelled()) listeners[i].receive(message);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new FanOut(message, cancelled, from, middle), new FanOut(message, cancelled, middle, to));
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package fr.shyrogan.post.dispatcher.impl;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.jfr.DispatchEvent;
+
+/**
+ * A dispatcher which records a {@link DispatchEvent} for each slow dispatch of another dispatcher: it is only used when
+ * flight recorder events are enabled. While the event is not enabled by a recording, the dispatch only checks it.
+ */
+public final class RecordedMessageDispatcher implements MessageDispatcher {
+
+    private final MessageDispatcher dispatcher;
+    private final Class<?>          topic;
+    private final int               listeners;
+
+    /**
+     * Creates a new recorded dispatcher.
+     *
+     * @param dispatcher The recorded dispatcher.
+     * @param topic      The topic.
+     * @param listeners  The amount of dispatched listeners.
+     */
+    public RecordedMessageDispatcher(MessageDispatcher dispatcher, Class<?> topic, int listeners) {
+        this.dispatcher = dispatcher;
+        this.topic      = topic;
+        this.listeners  = listeners;
+    }
+
+    /**
+     * Returns the recorded dispatcher.
+     *
+     * @return The dispatcher.
+     */
+    public MessageDispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    @Override
+    public void dispatch(Object message) {
+        final DispatchEvent event = new DispatchEvent();
+        if (!event.isEnabled()) {
+            dispatcher.dispatch(message);
+            return;
+        }
+        event.begin();
+        try {
+            dispatcher.dispatch(message);
+        } finally {
+            commit(event, 1);
+        }
+    }
+
+    @Override
+    public void dispatchAll(Object[] messages, int from, int to) {
+        final DispatchEvent event = new DispatchEvent();
+        if (!event.isEnabled()) {
+            dispatcher.dispatchAll(messages, from, to);
+            return;
+        }
+        event.begin();
+        try {
+            dispatcher.dispatchAll(messages, from, to);
+        } finally {
+            commit(event, to - from);
+        }
+    }
+
+    /**
+     * Commits specified event, if it lasted longer than the threshold.
+     *
+     * @param event    The event.
+     * @param messages The amount of dispatched messages.
+     */
+    private void commit(DispatchEvent event, int messages) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.topic     = topic;
+        event.listeners = listeners;
+        event.messages  = messages;
+        event.commit();
+    }
+
+}
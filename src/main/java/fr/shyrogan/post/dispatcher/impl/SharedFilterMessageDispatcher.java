@@ -0,0 +1,126 @@
+package fr.shyrogan.post.dispatcher.impl;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.listener.DelegatingListener;
+import fr.shyrogan.post.listener.FilteredListener;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.message.Cancellable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * A dispatcher evaluating the filters shared by several {@link FilteredListener}s only once per message.
+ * <p>Each shared filter (up to 64) gets a bit: the result of its first evaluation is kept in a bit mask for the rest of
+ * the dispatch, and a whole run of consecutive listeners sharing a rejecting filter is skipped at once. Other
+ * listeners are simply invoked, in priority order.</p>
+ * <p>Filtered listeners are also recognized through their {@link DelegatingListener} wrappers (metrics, recordings,
+ * asynchronous invocations), the shared filters are then evaluated by the dispatching thread.</p>
+ * <p>Once a {@link Cancellable} message is cancelled, only the listeners receiving cancelled messages are invoked.</p>
+ */
+@SuppressWarnings("ALL")
+public final class SharedFilterMessageDispatcher implements MessageDispatcher {
+
+    /** The maximum amount of shared filters, one per bit of a long **/
+    private final static int MAX_FILTERS = 64;
+
+    private final Listener[]    listeners;
+    private final Predicate[]   filters;
+    /** The index of the filter of each listener, or -1 **/
+    private final int[]         filterOf;
+    /** The index following the run of listeners sharing the filter of each listener **/
+    private final int[]         runEnd;
+    /** Whether each listener receives cancelled messages **/
+    private final boolean[]     receiveCancelled;
+
+    /**
+     * Creates a new dispatcher.
+     *
+     * @param listeners The listeners, sorted by priority.
+     */
+    public SharedFilterMessageDispatcher(Listener[] listeners) {
+        final Map<Predicate, Integer> indexes = sharedFilters(listeners);
+        this.listeners        = listeners;
+        this.filters          = new Predicate[indexes.size()];
+        this.filterOf         = new int[listeners.length];
+        this.runEnd           = new int[listeners.length];
+        this.receiveCancelled = new boolean[listeners.length];
+        indexes.forEach((filter, index) -> filters[index] = filter);
+
+        for (int i = 0; i < listeners.length; i++) {
+            final Predicate filter = DelegatingListener.filterOf(listeners[i]);
+            final Integer   index  = filter == null ? null : indexes.get(filter);
+            filterOf[i]         = index == null ? -1 : index;
+            receiveCancelled[i] = listeners[i].receiveCancelled();
+        }
+        for (int i = listeners.length - 1; i >= 0; i--) {
+            final boolean sameRun = i + 1 < listeners.length && filterOf[i] >= 0 && filterOf[i + 1] == filterOf[i];
+            runEnd[i] = sameRun ? runEnd[i + 1] : i + 1;
+        }
+    }
+
+    @Override
+    public void dispatch(Object message) {
+        final Cancellable cancellable = message instanceof Cancellable ? (Cancellable) message : null;
+        long              evaluated   = 0, accepted = 0;
+        int               i           = 0;
+        while (i < listeners.length) {
+            if (cancellable != null && !receiveCancelled[i] && cancellable.isCancelled()) {
+                i++;
+                continue;
+            }
+            final int filter = filterOf[i];
+            if (filter < 0) {
+                listeners[i++].receive(message);
+                continue;
+            }
+            final long bit = 1L << filter;
+            if ((evaluated & bit) == 0) {
+                evaluated |= bit;
+                if (filters[filter].test(message)) accepted |= bit;
+            }
+            if ((accepted & bit) == 0) {
+                i = runEnd[i];
+                continue;
+            }
+            DelegatingListener.receiveFiltered(listeners[i++], message);
+        }
+    }
+
+    /**
+     * Returns whether some of specified listeners share the same filter instance.
+     *
+     * @param listeners The listeners.
+     *
+     * @return True if a filter is shared.
+     */
+    public static boolean sharesFilters(Listener[] listeners) {
+        return !sharedFilters(listeners).isEmpty();
+    }
+
+    /**
+     * Indexes the filters shared by several of specified listeners.
+     *
+     * @param listeners The listeners.
+     *
+     * @return The index of each shared filter.
+     */
+    private static Map<Predicate, Integer> sharedFilters(Listener[] listeners) {
+        final Map<Predicate, Integer> counts = new IdentityHashMap<>();
+        for (Listener listener : listeners) {
+            final Predicate filter = DelegatingListener.filterOf(listener);
+            if (filter != null) counts.merge(filter, 1, Integer::sum);
+        }
+        final List<Predicate>         shared  = new ArrayList<>();
+        counts.forEach((filter, count) -> {
+            if (count > 1 && shared.size() < MAX_FILTERS) shared.add(filter);
+        });
+        final Map<Predicate, Integer> indexes = new IdentityHashMap<>();
+        for (int i = 0; i < shared.size(); i++) indexes.put(shared.get(i), i);
+        return indexes;
+    }
+
+}
@@ -2,6 +2,7 @@ package fr.shyrogan.post.dispatcher.impl;
 
 import fr.shyrogan.post.dispatcher.MessageDispatcher;
 import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.message.Cancellable;
 
 /**
  * A dispatcher which dispatches.. nothing.
@@ -10,14 +11,16 @@ import fr.shyrogan.post.listener.Listener;
 public final class SingletonMessageDispatcher implements MessageDispatcher {
 
     private final Listener listener;
+    private final boolean  receiveCancelled;
 
     public SingletonMessageDispatcher(Listener listener) {
-        this.listener = listener;
+        this.listener         = listener;
+        this.receiveCancelled = listener.receiveCancelled();
     }
 
     @Override
     public void dispatch(Object message) {
-        listener.receive(message);
+        if (receiveCancelled || !Cancellable.cancelled(message)) listener.receive(message);
     }
 
 }
@@ -0,0 +1,32 @@
+package fr.shyrogan.post.factory;
+
+import fr.shyrogan.post.listener.Listener;
+
+import java.util.List;
+
+/**
+ * A registrar creates the receivers of the objects of a single class without any reflection. Registrars are generated
+ * at compile time by the {@link fr.shyrogan.post.processor.SubscribeProcessor} and found by the {@link
+ * fr.shyrogan.post.factory.impl.GeneratedRegistrarFactory}.
+ *
+ * @param <T> The class holding the receivers.
+ */
+public interface Registrar<T> {
+
+    /**
+     * Returns the class whose receivers are created by this registrar.
+     *
+     * @return The holder class.
+     */
+    Class<T> holder();
+
+    /**
+     * Returns a list of each receiver contained inside of specified object.
+     *
+     * @param holder The object.
+     *
+     * @return A list of each receiver.
+     */
+    List<Listener> listenersOf(T holder);
+
+}
@@ -6,23 +6,36 @@ import fr.shyrogan.post.listener.annotation.Subscribe;
 import fr.shyrogan.post.factory.ReceiverFactory;
 import fr.shyrogan.post.listener.ListenerBuilder;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
 import java.util.function.Consumer;
 
-import static java.util.stream.Collectors.toList;
+import static java.lang.invoke.MethodType.methodType;
 
 /**
- * This {@link ReceiverFactory} looks for each field type {@link Listener} or annotated {@link Consumer}.
+ * This {@link ReceiverFactory} looks for each field type {@link Listener} or annotated {@link Consumer}. The attributes
+ * of the {@link Subscribe} annotation only apply to {@link Consumer} fields, {@link Listener} fields provide their own.
+ * <p>Classes are only inspected once: the getter of each of their receiver fields is kept along with the attributes of
+ * its annotation, so that creating the receivers of another object of the same class only reads its fields.</p>
  */
 @SuppressWarnings({ "rawtypes", "unchecked" })
 public enum AnnotatedFieldFactory implements ReceiverFactory {
     /** Singleton **/
     INSTANCE;
 
+    /** The receiver fields of each class **/
+    private final static ClassValue<ReceiverField[]> FIELDS = new ClassValue<ReceiverField[]>() {
+        @Override
+        protected ReceiverField[] computeValue(Class<?> type) {
+            return fieldsOf(type);
+        }
+    };
+
     /**
      * Looks for the receiver fields.
      *
@@ -32,39 +45,99 @@ public enum AnnotatedFieldFactory implements ReceiverFactory {
      */
     @Override
     public List<Listener> lookInto(Object object, EventBusConfiguration configuration) {
-        return Arrays.stream(object.getClass().getDeclaredFields()).map(f -> toReceiver(f, object))
-                     .filter(Objects::nonNull).collect(toList());
+        final ReceiverField[] fields    = FIELDS.get(object.getClass());
+        final List<Listener>  listeners = new ArrayList<>(fields.length);
+        for (ReceiverField field : fields) {
+            final Listener listener = field.toReceiver(object);
+            if (listener != null) listeners.add(listener);
+        }
+        return listeners;
+    }
+
+    /**
+     * Returns the receiver fields of specified class.
+     *
+     * @param type The class.
+     *
+     * @return The receiver fields.
+     */
+    private static ReceiverField[] fieldsOf(Class<?> type) {
+        final List<ReceiverField> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            final ReceiverField receiverField = toReceiverField(field);
+            if (receiverField != null) fields.add(receiverField);
+        }
+        return fields.toArray(new ReceiverField[0]);
     }
 
     /**
-     * Returns the field mapped to a receiver (if it was possible) or null.
+     * Returns the field mapped to a receiver field (if it was possible) or null.
      *
      * @param field The field.
      *
-     * @return The field mapped to a receiver (if it was possible) or null.
+     * @return The field mapped to a receiver field (if it was possible) or null.
      */
-    private static Listener toReceiver(Field field, Object instance) {
+    private static ReceiverField toReceiverField(Field field) {
         Subscribe annotation = field.getAnnotation(Subscribe.class);
         if (annotation == null) return null;
-        if (Listener.class.isAssignableFrom(field.getType())) {
-            if (!field.canAccess(instance)) field.setAccessible(true);
-            try {
-                return (Listener) field.get(instance);
-            } catch (ReflectiveOperationException e) {
-                e.printStackTrace();
-            }
-        } else if (Consumer.class.isAssignableFrom(field.getType())) {
-            if (!field.canAccess(instance)) field.setAccessible(true);
+        final boolean listener = Listener.class.isAssignableFrom(field.getType());
+        if (!listener && !Consumer.class.isAssignableFrom(field.getType())) return null;
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+            // Static fields do not take the object, it is dropped.
+            if (Modifier.isStatic(field.getModifiers())) getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            getter = getter.asType(methodType(Object.class, Object.class));
+            // Savage solution but, would work, I guess.
+            final Class topic = listener ? null
+                                         : (Class) ((ParameterizedType) field.getGenericType())
+                                                 .getActualTypeArguments()[0];
+            return new ReceiverField(getter, topic, annotation);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * A field holding a receiver: either a {@link Listener}, or a {@link Consumer} (if it has a topic).
+     */
+    private final static class ReceiverField {
+        private final MethodHandle getter;
+        private final Class        topic;
+        private final Subscribe    annotation;
+
+        ReceiverField(MethodHandle getter, Class topic, Subscribe annotation) {
+            this.getter     = getter;
+            this.topic      = topic;
+            this.annotation = annotation;
+        }
+
+        /**
+         * Returns the receiver held by this field in specified object (if it was possible) or null.
+         *
+         * @param instance The object.
+         *
+         * @return The receiver, or null.
+         */
+        Listener toReceiver(Object instance) {
+            final Object value;
             try {
-                // Savage solution but, would work, I guess.
-                return new ListenerBuilder(
-                        (Class) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0]).priority(
-                        annotation.priority()).perform((Consumer) field.get(instance)).build();
-            } catch (ReflectiveOperationException e) {
-                e.printStackTrace();
+                value = getter.invokeExact(instance);
+            } catch (Throwable t) {
+                t.printStackTrace();
+                return null;
             }
+            if (topic == null || value == null) return (Listener) value;
+
+            final ListenerBuilder builder = new ListenerBuilder(topic).priority(annotation.priority())
+                                                                      .perform((Consumer) value);
+            if (annotation.async()) builder.async();
+            if (!annotation.key().isEmpty()) builder.key(annotation.key());
+            if (annotation.receiveCancelled()) builder.receiveCancelled();
+            if (!annotation.thread().isEmpty()) builder.thread(annotation.thread());
+            return builder.build();
         }
-        return null;
     }
 
 }
@@ -4,19 +4,25 @@ import fr.shyrogan.post.configuration.EventBusConfiguration;
 import fr.shyrogan.post.factory.ReceiverFactory;
 import fr.shyrogan.post.listener.Listener;
 import fr.shyrogan.post.listener.annotation.Subscribe;
+import fr.shyrogan.post.utils.DynamicClassLoader;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static fr.shyrogan.post.utils.ListenerCompiler.byteCode;
 import static fr.shyrogan.post.utils.ListenerCompiler.getUniqueMethodName;
-import static java.util.stream.Collectors.toList;
+import static java.lang.invoke.MethodType.methodType;
 
 /**
  * This {@link ReceiverFactory} looks for each method annotated with the {@link Subscribe} annotation and then compiles
  * a receiver on the fly to invoke it.
+ * <p>Classes are only inspected once (per class loader): the constructor of each of their receivers is kept, bound to
+ * its topic and priority, so that creating the receivers of another object of the same class only allocates them.</p>
  */
 @SuppressWarnings("ALL")
 public enum AnnotatedMethodFactory implements ReceiverFactory {
@@ -25,6 +31,15 @@ public enum AnnotatedMethodFactory implements ReceiverFactory {
      **/
     INSTANCE;
 
+    /** The constructor of each receiver of a class, taking the object and returning the receiver, by class loader **/
+    private final static ClassValue<Map<DynamicClassLoader, MethodHandle[]>> CONSTRUCTORS =
+            new ClassValue<Map<DynamicClassLoader, MethodHandle[]>>() {
+                @Override
+                protected Map<DynamicClassLoader, MethodHandle[]> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>(1);
+                }
+            };
+
     /**
      * Looks for the receiver methods.
      *
@@ -35,31 +50,60 @@ public enum AnnotatedMethodFactory implements ReceiverFactory {
      */
     @Override
     public List<Listener> lookInto(Object object, EventBusConfiguration configuration) {
-        return Arrays.stream(object.getClass().getDeclaredMethods()).map(m -> toReceiver(m, object, configuration))
-                     .filter(Objects::nonNull).collect(toList());
+        final Class<?>       type         = object.getClass();
+        final MethodHandle[] constructors = CONSTRUCTORS.get(type).computeIfAbsent(
+                configuration.classLoader(), classLoader -> constructorsOf(type, classLoader));
+        final List<Listener> listeners    = new ArrayList<>(constructors.length);
+        for (MethodHandle constructor : constructors) {
+            try {
+                listeners.add((Listener) constructor.invokeExact(object));
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+        return listeners;
+    }
+
+    /**
+     * Compiles the receiver of each method of specified class annotated with the {@link Subscribe} annotation.
+     *
+     * @param type        The class.
+     * @param classLoader The class loader used to define the receivers.
+     *
+     * @return The constructor of each receiver, bound to its topic and priority.
+     */
+    private static MethodHandle[] constructorsOf(Class<?> type, DynamicClassLoader classLoader) {
+        final List<MethodHandle> constructors = new ArrayList<>();
+        for (Method method : type.getDeclaredMethods()) {
+            final MethodHandle constructor = toConstructor(method, type, classLoader);
+            if (constructor != null) constructors.add(constructor);
+        }
+        return constructors.toArray(new MethodHandle[0]);
     }
 
     /**
-     * Returns the method mapped to a receiver (if it was possible) or null.
+     * Returns the constructor of the receiver of specified method (if it was possible) or null.
      *
      * @param method The method.
      *
-     * @return The method mapped to a receiver (if it was possible) or null.
+     * @return The constructor of the receiver, taking the object and returning the receiver, or null.
      */
-    private static final Listener toReceiver(Method method, Object instance, EventBusConfiguration configuration) {
+    private static MethodHandle toConstructor(Method method, Class<?> type, DynamicClassLoader classLoader) {
         Subscribe annotation = method.getAnnotation(Subscribe.class);
         if (annotation == null || method.getParameterTypes().length != 1) return null;
         Class<?> topicType          = method.getParameterTypes()[0];
         String   generatedClassName = getUniqueMethodName(method);
 
         try {
-            return (Listener) configuration.classLoader().lookForClass(generatedClassName)
-                                           .orElse(configuration.classLoader().createClass(
-                                                   generatedClassName,
-                                                   byteCode(generatedClassName, instance.getClass(), topicType, method)
-                                           )).getDeclaredConstructor(Object.class, Class.class, int.class)
-                                           .newInstance(instance, topicType, annotation.priority());
-        } catch (ReflectiveOperationException e) {
+            final Class<?> generated = classLoader.lookForClass(generatedClassName).orElseGet(
+                    () -> classLoader.createClass(generatedClassName,
+                                                  byteCode(generatedClassName, type, topicType, method))
+            );
+            final MethodHandle constructor = MethodHandles.publicLookup().findConstructor(
+                    generated, methodType(void.class, Object.class, Class.class, int.class));
+            return MethodHandles.insertArguments(constructor, 1, topicType, annotation.priority())
+                                .asType(methodType(Listener.class, Object.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
             e.printStackTrace();
         }
         return null;
@@ -0,0 +1,84 @@
+package fr.shyrogan.post.factory.impl;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.factory.ReceiverFactory;
+import fr.shyrogan.post.factory.Registrar;
+import fr.shyrogan.post.listener.Listener;
+
+import java.util.List;
+
+/**
+ * This {@link ReceiverFactory} creates the receivers of an object using the {@link Registrar} generated for its class
+ * at compile time by the {@link fr.shyrogan.post.processor.SubscribeProcessor}, which does not need any reflection.
+ * Objects whose class does not have a registrar are inspected by the {@link AnnotatedFieldAndMethodFactory} instead.
+ * <p>The registrar of a class is loaded by name, from the class loader of the class, once per class. Its constructor
+ * is declared to native images by the processor.</p>
+ */
+@SuppressWarnings("ALL")
+public enum GeneratedRegistrarFactory implements ReceiverFactory {
+    /** Singleton **/
+    INSTANCE;
+
+    /** The suffix appended to the binary name of a class to get the name of its registrar **/
+    public final static String REGISTRAR_SUFFIX = "$PostRegistrar";
+
+    /** The registrar of each class, or null **/
+    private final static ClassValue<Registrar> REGISTRARS = new ClassValue<Registrar>() {
+        @Override
+        protected Registrar computeValue(Class<?> type) {
+            return registrarOf(type);
+        }
+    };
+
+    /**
+     * Looks for the receivers using the registrar of the object's class, if there is one.
+     *
+     * @param object        The object.
+     * @param configuration The event bus configuration.
+     *
+     * @return The receivers found.
+     */
+    @Override
+    public List<Listener> lookInto(Object object, EventBusConfiguration configuration) {
+        final Registrar registrar = REGISTRARS.get(object.getClass());
+        if (registrar == null) return AnnotatedFieldAndMethodFactory.INSTANCE.lookInto(object, configuration);
+        return registrar.listenersOf(object);
+    }
+
+    /**
+     * Returns whether specified class has a generated registrar.
+     *
+     * @param type The class.
+     *
+     * @return True if the class has a registrar.
+     */
+    public static boolean hasRegistrar(Class<?> type) {
+        return REGISTRARS.get(type) != null;
+    }
+
+    /**
+     * Loads the registrar of specified class, named after its binary name, from its class loader.
+     *
+     * @param type The class.
+     *
+     * @return The registrar, or null.
+     */
+    private static Registrar registrarOf(Class<?> type) {
+        final Class<?> registrarType;
+        try {
+            registrarType = Class.forName(type.getName() + REGISTRAR_SUFFIX, true, type.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            // The class was not processed
+            return null;
+        }
+        if (!Registrar.class.isAssignableFrom(registrarType)) return null;
+        try {
+            final Registrar registrar = (Registrar) registrarType.getDeclaredConstructor().newInstance();
+            return registrar.holder() == type ? registrar : null;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+package fr.shyrogan.post.factory.impl;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.factory.ReceiverFactory;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static fr.shyrogan.post.utils.ListenerCompiler.byteCode;
+import static java.lang.invoke.MethodHandles.Lookup.ClassOption.NESTMATE;
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * This {@link ReceiverFactory} looks for each method annotated with the {@link Subscribe} annotation, like the {@link
+ * AnnotatedMethodFactory}, but defines the receivers compiled on the fly as hidden classes instead of using the {@link
+ * fr.shyrogan.post.utils.DynamicClassLoader}.
+ * <p>Each receiver class is defined through a {@link MethodHandles.Lookup} on the class declaring the method, as one of
+ * its nestmates: the methods and classes do not need to be public, and the receiver classes can be unloaded along with
+ * the class declaring them. They are generated once per class, each receiver is then created by invoking a constructor
+ * handle instead of looking the constructor up reflectively.</p>
+ */
+@SuppressWarnings("ALL")
+public enum HiddenClassMethodFactory implements ReceiverFactory {
+    /** Singleton **/
+    INSTANCE;
+
+    /** The constructor of each receiver of a class, taking the object and returning the receiver **/
+    private final static ClassValue<MethodHandle[]> CONSTRUCTORS = new ClassValue<MethodHandle[]>() {
+        @Override
+        protected MethodHandle[] computeValue(Class<?> type) {
+            return constructorsOf(type);
+        }
+    };
+
+    /**
+     * Looks for the receiver methods.
+     *
+     * @param object        The object.
+     * @param configuration The event bus configuration.
+     *
+     * @return The receivers found.
+     */
+    @Override
+    public List<Listener> lookInto(Object object, EventBusConfiguration configuration) {
+        final MethodHandle[] constructors = CONSTRUCTORS.get(object.getClass());
+        final List<Listener> listeners    = new ArrayList<>(constructors.length);
+        for (MethodHandle constructor : constructors) {
+            try {
+                listeners.add((Listener) constructor.invokeExact(object));
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+        return listeners;
+    }
+
+    /**
+     * Defines the receiver class of each method of specified class annotated with the {@link Subscribe} annotation.
+     *
+     * @param type The class.
+     *
+     * @return The constructor of each receiver, bound to its topic and priority.
+     */
+    private static MethodHandle[] constructorsOf(Class<?> type) {
+        final List<MethodHandle> constructors = new ArrayList<>();
+        final MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            // The package of the class is not opened to Post
+            e.printStackTrace();
+            return new MethodHandle[0];
+        }
+        for (Method method : type.getDeclaredMethods()) {
+            final Subscribe annotation = method.getAnnotation(Subscribe.class);
+            if (annotation == null || method.getParameterTypes().length != 1) continue;
+            final Class<?> topicType = method.getParameterTypes()[0];
+            // Hidden classes must be defined in the package of the lookup class, their name is then made unique.
+            final String generatedClassName = type.getName().replace('.', '/') + "$PostListener_" + method.getName();
+
+            try {
+                final MethodHandles.Lookup hidden = lookup.defineHiddenClass(
+                        byteCode(generatedClassName, type, topicType, method), true, NESTMATE);
+                final MethodHandle constructor = hidden.findConstructor(
+                        hidden.lookupClass(), methodType(void.class, Object.class, Class.class, int.class));
+                constructors.add(MethodHandles.insertArguments(constructor, 1, topicType, annotation.priority())
+                                              .asType(methodType(Listener.class, Object.class)));
+            } catch (ReflectiveOperationException | LinkageError e) {
+                e.printStackTrace();
+            }
+        }
+        return constructors.toArray(new MethodHandle[0]);
+    }
+
+}
@@ -0,0 +1,250 @@
+package fr.shyrogan.post.flow;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.message.PooledMessage;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link Flow.Publisher} of the messages of a topic, backed by a listener subscribed to an {@link EventBus} until the
+ * publisher is closed. It is hot: subscribers only receive the messages dispatched after they subscribed.
+ * <p>Each subscriber has a bounded buffer, messages are delivered from it (using an executor) as long as the
+ * subscriber requested them. The receiving listener only appends the message to each buffer, so a slow subscriber
+ * never blocks the dispatching thread: once its buffer is full, the {@link OverflowStrategy} applies.</p>
+ * <p>Buffered {@link PooledMessage}s are retained until they are delivered (or dropped).</p>
+ *
+ * @param <T> The message type.
+ */
+@SuppressWarnings("ALL")
+public final class FlowPublisher<T> implements Flow.Publisher<T>, AutoCloseable {
+
+    private final EventBus               bus;
+    private final int                    bufferSize;
+    private final OverflowStrategy       overflowStrategy;
+    private final Executor               executor;
+    private final Listener<T>            listener;
+    private final List<FlowSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final LongAdder              dropped       = new LongAdder();
+    private volatile boolean             closed;
+
+    /**
+     * Creates a new publisher of specified topic, whose subscribers have a buffer of {@link Flow#defaultBufferSize()}
+     * messages, dropping the oldest ones, delivered by the common pool.
+     *
+     * @param bus   The event bus.
+     * @param topic The topic.
+     */
+    public FlowPublisher(EventBus bus, Class<T> topic) {
+        this(bus, topic, Flow.defaultBufferSize(), OverflowStrategy.DROP_OLDEST, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new publisher of specified topic.
+     *
+     * @param bus              The event bus.
+     * @param topic            The topic.
+     * @param bufferSize       The maximum amount of messages buffered for each subscriber.
+     * @param overflowStrategy What to do with a message received while the buffer of a subscriber is full.
+     * @param executor         The executor delivering the messages to the subscribers.
+     */
+    public FlowPublisher(EventBus bus, Class<T> topic, int bufferSize, OverflowStrategy overflowStrategy,
+                         Executor executor) {
+        if (bufferSize < 1) throw new IllegalArgumentException("The buffer size must be positive");
+        this.bus              = bus;
+        this.bufferSize       = bufferSize;
+        this.overflowStrategy = overflowStrategy;
+        this.executor         = executor;
+        this.listener         = new ListenerBuilder<>(topic).perform(this::offer).build();
+        bus.subscribe(listener);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+        final FlowSubscription subscription = new FlowSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (subscription.cancelled) return;
+
+        subscriptions.add(subscription);
+        // Closed while subscribing, the subscription may have been missed
+        if (closed) subscription.complete();
+    }
+
+    /**
+     * Returns the amount of subscribers.
+     *
+     * @return The amount of subscribers.
+     */
+    public int subscribers() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Returns the amount of messages dropped because the buffer of a subscriber was full.
+     *
+     * @return The amount of dropped messages.
+     */
+    public long droppedMessages() {
+        return dropped.sum();
+    }
+
+    /**
+     * Unsubscribes the listener from the event bus, subscribers are completed once they received their buffered
+     * messages.
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        bus.unsubscribe(listener);
+        for (FlowSubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Appends specified message to the buffer of each subscriber.
+     *
+     * @param message The message.
+     */
+    private void offer(T message) {
+        for (FlowSubscription subscription : subscriptions) {
+            subscription.offer(message);
+        }
+    }
+
+    /**
+     * The subscription of a subscriber, along with its buffer. Signals are serialized by a work-in-progress counter:
+     * the thread incrementing it from 0 schedules the delivery, which loops until it is back to 0.
+     */
+    private final class FlowSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        /** The buffered messages, guarded by itself **/
+        private final ArrayDeque<T>              buffer = new ArrayDeque<>();
+        private final AtomicLong                 demand = new AtomicLong();
+        private final AtomicInteger              wip    = new AtomicInteger();
+        private volatile Throwable               error;
+        private volatile boolean                 completed, cancelled;
+
+        FlowSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Non-positive request: " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> {
+                    final long sum = current + added;
+                    return sum < 0 ? Long.MAX_VALUE : sum;
+                });
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+            synchronized (buffer) {
+                buffer.forEach(PooledMessage::release);
+                buffer.clear();
+            }
+        }
+
+        void offer(T message) {
+            if (cancelled) return;
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    switch (overflowStrategy) {
+                        case DROP_NEWEST:
+                            dropped.increment();
+                            return;
+                        case DROP_OLDEST:
+                            PooledMessage.release(buffer.poll());
+                            dropped.increment();
+                            break;
+                        default:
+                            error = new IllegalStateException("The buffer of the subscriber is full");
+                            break;
+                    }
+                }
+                if (error == null) {
+                    PooledMessage.retain(message);
+                    buffer.add(message);
+                }
+            }
+            schedule();
+        }
+
+        void complete() {
+            completed = true;
+            schedule();
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() == 0) executor.execute(this::deliver);
+        }
+
+        /**
+         * Delivers the buffered messages as long as they are requested, then the terminal signal.
+         */
+        void deliver() {
+            int missed = 1;
+            do {
+                long requested = demand.get(), emitted = 0;
+                while (!cancelled) {
+                    if (error != null) {
+                        cancel();
+                        subscriber.onError(error);
+                        return;
+                    }
+                    if (emitted == requested) break;
+
+                    final T next;
+                    synchronized (buffer) {
+                        next = buffer.poll();
+                    }
+                    if (next == null) break;
+                    try {
+                        subscriber.onNext(next);
+                    } catch (Throwable t) {
+                        // The subscriber violated the specification, it does not receive anything anymore
+                        cancel();
+                        return;
+                    } finally {
+                        PooledMessage.release(next);
+                    }
+                    emitted++;
+                }
+                if (cancelled) return;
+                if (completed && isEmpty()) {
+                    cancel();
+                    subscriber.onComplete();
+                    return;
+                }
+                if (emitted != 0 && requested != Long.MAX_VALUE) demand.addAndGet(-emitted);
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        boolean isEmpty() {
+            synchronized (buffer) {
+                return buffer.isEmpty();
+            }
+        }
+    }
+
+}
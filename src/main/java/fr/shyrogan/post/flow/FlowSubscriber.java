@@ -0,0 +1,95 @@
+package fr.shyrogan.post.flow;
+
+import fr.shyrogan.post.EventBus;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Subscriber} dispatching each received item to an {@link EventBus}. Items are requested by batches of
+ * the prefetch amount, replenished once half of them have been dispatched, so that the upstream publisher never
+ * outpaces the receivers.
+ *
+ * @param <T> The item type.
+ */
+public final class FlowSubscriber<T> implements Flow.Subscriber<T> {
+
+    private final EventBus                bus;
+    private final int                     prefetch;
+    private final int                     limit;
+    private final CompletableFuture<Void> terminated = new CompletableFuture<>();
+    private Flow.Subscription             subscription;
+    private int                           consumed;
+
+    /**
+     * Creates a new subscriber dispatching to specified event bus, prefetching {@link Flow#defaultBufferSize()}
+     * items.
+     *
+     * @param bus The event bus.
+     */
+    public FlowSubscriber(EventBus bus) {
+        this(bus, Flow.defaultBufferSize());
+    }
+
+    /**
+     * Creates a new subscriber dispatching to specified event bus.
+     *
+     * @param bus      The event bus.
+     * @param prefetch The amount of items requested in advance.
+     */
+    public FlowSubscriber(EventBus bus, int prefetch) {
+        if (prefetch < 1) throw new IllegalArgumentException("The prefetch amount must be positive");
+        this.bus      = bus;
+        this.prefetch = prefetch;
+        this.limit    = Math.max(1, prefetch / 2);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(prefetch);
+    }
+
+    @Override
+    public void onNext(T item) {
+        bus.dispatch(Objects.requireNonNull(item));
+        if (++consumed == limit) {
+            consumed = 0;
+            subscription.request(limit);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        terminated.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        terminated.complete(null);
+    }
+
+    /**
+     * Cancels the subscription, no more items are dispatched.
+     */
+    public void cancel() {
+        if (subscription != null) subscription.cancel();
+        terminated.complete(null);
+    }
+
+    /**
+     * Returns a future completed once the publisher completes (exceptionally if it fails) or the subscription is
+     * cancelled.
+     *
+     * @return The future.
+     */
+    public CompletableFuture<Void> terminated() {
+        return terminated;
+    }
+
+}
@@ -0,0 +1,21 @@
+package fr.shyrogan.post.flow;
+
+/**
+ * What a {@link FlowPublisher} does with a message received while the buffer of a subscriber is full. None of them
+ * blocks the dispatching thread.
+ */
+public enum OverflowStrategy {
+    /**
+     * Drops the received message, see {@link FlowPublisher#droppedMessages()}.
+     */
+    DROP_NEWEST,
+    /**
+     * Drops the oldest buffered message to make room for the received one, see {@link
+     * FlowPublisher#droppedMessages()}.
+     */
+    DROP_OLDEST,
+    /**
+     * Cancels the subscription and signals an {@link IllegalStateException} to the subscriber.
+     */
+    ERROR
+}
@@ -0,0 +1,40 @@
+package fr.shyrogan.post.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Recorded when a class (a receiver, a dispatcher or a publisher) is generated on the fly, its duration is the time
+ * spent generating the bytecode.
+ */
+@Name("fr.shyrogan.post.Compilation")
+@Label("Bytecode Generation")
+@Category({ "Post", "Registration" })
+@Description("Generation of the bytecode of a class compiled on the fly")
+@StackTrace(false)
+public final class CompilationEvent extends Event {
+
+    @Label("Class Name")
+    public String className;
+
+    @Label("Bytecode Size")
+    @DataAmount
+    public int size;
+
+    /**
+     * Commits this event, if it is enabled and lasted longer than the threshold.
+     *
+     * @param className The generated class name.
+     * @param byteCode  The generated bytecode.
+     *
+     * @return The generated bytecode.
+     */
+    public byte[] commit(String className, byte[] byteCode) {
+        if (shouldCommit()) {
+            this.className = className.replace('/', '.');
+            this.size      = byteCode.length;
+            commit();
+        }
+        return byteCode;
+    }
+
+}
@@ -0,0 +1,26 @@
+package fr.shyrogan.post.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Recorded when the dispatch of a message (or of a batch of messages) of a topic lasts longer than the threshold of
+ * the recording, 1 ms by default ({@code fr.shyrogan.post.Dispatch#threshold}).
+ */
+@Name("fr.shyrogan.post.Dispatch")
+@Label("Message Dispatch")
+@Category({ "Post", "Dispatch" })
+@Description("Dispatch of a message to the receivers of its topic")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class DispatchEvent extends Event {
+
+    @Label("Topic")
+    public Class<?> topic;
+
+    @Label("Receivers")
+    public int listeners;
+
+    @Label("Messages")
+    public int messages;
+
+}
@@ -0,0 +1,24 @@
+package fr.shyrogan.post.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Recorded when the dispatcher of a topic is rebuilt, its duration includes the compilation of the dispatcher.
+ */
+@Name("fr.shyrogan.post.DispatcherRebuild")
+@Label("Dispatcher Rebuild")
+@Category({ "Post", "Registration" })
+@Description("Rebuild of the dispatcher of a topic")
+@StackTrace(false)
+public final class DispatcherRebuildEvent extends Event {
+
+    @Label("Topic")
+    public Class<?> topic;
+
+    @Label("Receivers")
+    public int listeners;
+
+    @Label("Dispatcher")
+    public Class<?> dispatcher;
+
+}
@@ -0,0 +1,23 @@
+package fr.shyrogan.post.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Recorded when a receiver takes longer than the threshold of the recording to receive a message, 1 ms by default
+ * ({@code fr.shyrogan.post.Listener#threshold}).
+ */
+@Name("fr.shyrogan.post.Listener")
+@Label("Slow Receiver")
+@Category({ "Post", "Dispatch" })
+@Description("Invocation of a receiver")
+@Threshold("1 ms")
+@StackTrace(false)
+public final class ListenerEvent extends Event {
+
+    @Label("Topic")
+    public Class<?> topic;
+
+    @Label("Receiver")
+    public String listener;
+
+}
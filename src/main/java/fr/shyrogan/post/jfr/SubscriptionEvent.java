@@ -0,0 +1,35 @@
+package fr.shyrogan.post.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Recorded when receivers are subscribed to (or unsubscribed from) an event bus, its duration includes the rebuild of
+ * the dispatchers of the modified topics.
+ */
+@Name("fr.shyrogan.post.Subscription")
+@Label("Subscription")
+@Category({ "Post", "Registration" })
+@Description("Subscription or unsubscription of receivers")
+public final class SubscriptionEvent extends Event {
+
+    @Label("Subscribed")
+    @Description("True if the receivers are subscribed, false if they are unsubscribed")
+    public boolean subscribed;
+
+    @Label("Receivers")
+    public int listeners;
+
+    /**
+     * Commits this event, if it is enabled and lasted longer than the threshold.
+     *
+     * @param subscribed True if the receivers are subscribed, false if they are unsubscribed.
+     * @param listeners  The amount of receivers.
+     */
+    public void commit(boolean subscribed, int listeners) {
+        if (!shouldCommit()) return;
+        this.subscribed = subscribed;
+        this.listeners  = listeners;
+        commit();
+    }
+
+}
@@ -0,0 +1,116 @@
+package fr.shyrogan.post.listener;
+
+import fr.shyrogan.post.message.PooledMessage;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A {@link Listener} which invokes another listener asynchronously, using an executor. {@link PooledMessage}s are
+ * retained until the listener has been invoked.
+ *
+ * @param <T> The message type.
+ */
+public final class AsyncListener<T> implements DelegatingListener<T> {
+
+    private final Listener<T> listener;
+    private final Executor    executor;
+
+    /**
+     * Creates a new asynchronous listener.
+     *
+     * @param listener The listener invoked asynchronously.
+     * @param executor The executor.
+     */
+    public AsyncListener(Listener<T> listener, Executor executor) {
+        this.listener = listener;
+        this.executor = executor;
+    }
+
+    @Override
+    public Listener<T> listener() {
+        return listener;
+    }
+
+    @Override
+    public Class<T> topic() {
+        return listener.topic();
+    }
+
+    @Override
+    public int priority() {
+        return listener.priority();
+    }
+
+    @Override
+    public boolean async() {
+        return true;
+    }
+
+    @Override
+    public Object key() {
+        return listener.key();
+    }
+
+    @Override
+    public boolean receiveCancelled() {
+        return listener.receiveCancelled();
+    }
+
+    @Override
+    public String thread() {
+        return listener.thread();
+    }
+
+    @Override
+    public void receive(T message) {
+        execute(message, false);
+    }
+
+    @Override
+    public void receiveFiltered(T message) {
+        execute(message, true);
+    }
+
+    /**
+     * Invokes the wrapped listener using the executor.
+     *
+     * @param message  The message's instance
+     * @param filtered Whether the message was already accepted by the filter of the listener.
+     */
+    private void execute(T message, boolean filtered) {
+        if (!(message instanceof PooledMessage)) {
+            executor.execute(() -> invoke(message, filtered));
+            return;
+        }
+        final PooledMessage pooled = ((PooledMessage) message).retain();
+        try {
+            executor.execute(() -> {
+                try {
+                    invoke(message, filtered);
+                } finally {
+                    pooled.release();
+                }
+            });
+        } catch (Throwable t) {
+            pooled.release();
+            throw t;
+        }
+    }
+
+    /**
+     * Invokes the wrapped listener on the current thread.
+     *
+     * @param message  The message's instance
+     * @param filtered Whether the message was already accepted by the filter of the listener.
+     */
+    private void invoke(T message, boolean filtered) {
+        if (filtered) DelegatingListener.receiveFiltered(listener, message);
+        else listener.receive(message);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncListener{" + listener + '}';
+    }
+
+}
@@ -0,0 +1,22 @@
+package fr.shyrogan.post.listener;
+
+import fr.shyrogan.post.EventBus;
+
+import java.util.List;
+
+/**
+ * A {@link Listener} able of receiving a whole batch of messages at once, when they are dispatched using {@link
+ * EventBus#dispatchAll(Object[])}. Messages dispatched one by one are still received through {@link #receive(Object)}.
+ *
+ * @param <T> The message type.
+ */
+public interface BatchListener<T> extends Listener<T> {
+
+    /**
+     * Method invoked to call this receiver with a batch of messages, in the order they were dispatched.
+     *
+     * @param messages The messages, the list is only valid during this call and must not be modified.
+     */
+    void receiveAll(List<T> messages);
+
+}
@@ -0,0 +1,54 @@
+package fr.shyrogan.post.listener;
+
+import java.util.function.Predicate;
+
+/**
+ * A {@link Listener} wrapping another listener, such as the listeners added by the event bus for metrics, recordings
+ * or asynchronous invocations. Exposing the wrapped listener allows dispatchers to see the {@link FilteredListener}s
+ * through their wrappers.
+ *
+ * @param <T> The message type.
+ */
+public interface DelegatingListener<T> extends Listener<T> {
+
+    /**
+     * Returns the wrapped listener.
+     *
+     * @return The wrapped listener.
+     */
+    Listener<T> listener();
+
+    /**
+     * Method invoked to call this receiver with a message already accepted by the filter of the wrapped listener (see
+     * {@link #filterOf(Listener)}), it is invoked the same way {@link #receive(Object)} invokes it.
+     *
+     * @param message The message's instance
+     */
+    void receiveFiltered(T message);
+
+    /**
+     * Returns the filter of specified listener: the filter of the {@link FilteredListener} it wraps, if any.
+     *
+     * @param listener The listener.
+     *
+     * @return The filter, or null if the listener is not filtered.
+     */
+    static Predicate filterOf(Listener listener) {
+        while (listener instanceof DelegatingListener) listener = ((DelegatingListener) listener).listener();
+        return listener instanceof FilteredListener ? ((FilteredListener) listener).filter() : null;
+    }
+
+    /**
+     * Calls specified listener with a message already accepted by its filter (see {@link #filterOf(Listener)}).
+     *
+     * @param listener The listener.
+     * @param message  The message's instance
+     * @param <T>      The message type.
+     */
+    static <T> void receiveFiltered(Listener<T> listener, T message) {
+        if (listener instanceof DelegatingListener) ((DelegatingListener<T>) listener).receiveFiltered(message);
+        else if (listener instanceof FilteredListener) ((FilteredListener<T>) listener).receiveFiltered(message);
+        else listener.receive(message);
+    }
+
+}
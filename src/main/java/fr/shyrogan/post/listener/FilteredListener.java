@@ -0,0 +1,37 @@
+package fr.shyrogan.post.listener;
+
+import java.util.function.Predicate;
+
+/**
+ * A {@link Listener} which only receives the messages accepted by its filter. Exposing the filter allows dispatchers to
+ * evaluate a filter shared by several listeners only once per message.
+ *
+ * @param <T> The message type.
+ */
+public interface FilteredListener<T> extends Listener<T> {
+
+    /**
+     * Returns the filter of this receiver, it must not have side effects.
+     *
+     * @return The filter.
+     */
+    Predicate<? super T> filter();
+
+    /**
+     * Method invoked to call this receiver with a message already accepted by its filter.
+     *
+     * @param message The message's instance
+     */
+    void receiveFiltered(T message);
+
+    /**
+     * Calls this receiver if its filter accepts specified message.
+     *
+     * @param message The message's instance
+     */
+    @Override
+    default void receive(T message) {
+        if (filter().test(message)) receiveFiltered(message);
+    }
+
+}
@@ -0,0 +1,94 @@
+package fr.shyrogan.post.listener;
+
+import fr.shyrogan.post.metrics.ListenerMetrics;
+
+/**
+ * A {@link Listener} which records the {@link ListenerMetrics} of another listener: it is only used when metrics are
+ * enabled.
+ *
+ * @param <T> The message type.
+ */
+public final class InstrumentedListener<T> implements DelegatingListener<T> {
+
+    private final Listener<T>     listener;
+    private final ListenerMetrics metrics;
+
+    /**
+     * Creates a new instrumented listener.
+     *
+     * @param listener The instrumented listener.
+     * @param metrics  The metrics of the listener.
+     */
+    public InstrumentedListener(Listener<T> listener, ListenerMetrics metrics) {
+        this.listener = listener;
+        this.metrics  = metrics;
+    }
+
+    @Override
+    public Listener<T> listener() {
+        return listener;
+    }
+
+    @Override
+    public Class<T> topic() {
+        return listener.topic();
+    }
+
+    @Override
+    public int priority() {
+        return listener.priority();
+    }
+
+    @Override
+    public boolean async() {
+        return listener.async();
+    }
+
+    @Override
+    public Object key() {
+        return listener.key();
+    }
+
+    @Override
+    public boolean receiveCancelled() {
+        return listener.receiveCancelled();
+    }
+
+    @Override
+    public String thread() {
+        return listener.thread();
+    }
+
+    @Override
+    public void receive(T message) {
+        invoke(message, false);
+    }
+
+    @Override
+    public void receiveFiltered(T message) {
+        invoke(message, true);
+    }
+
+    /**
+     * Invokes the instrumented listener.
+     *
+     * @param message  The message's instance
+     * @param filtered Whether the message was already accepted by the filter of the listener.
+     */
+    private void invoke(T message, boolean filtered) {
+        metrics.called();
+        try {
+            if (filtered) DelegatingListener.receiveFiltered(listener, message);
+            else listener.receive(message);
+        } catch (Throwable t) {
+            metrics.failed();
+            throw t;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "InstrumentedListener{" + listener + '}';
+    }
+
+}
@@ -23,6 +23,48 @@ public interface Listener<T> {
      */
     int priority();
 
+    /**
+     * Returns whether this receiver is invoked asynchronously, using the {@link
+     * fr.shyrogan.post.configuration.EventBusConfiguration#asyncExecutor()}, instead of on the dispatching thread.
+     *
+     * @return True if this receiver is asynchronous.
+     */
+    default boolean async() {
+        return false;
+    }
+
+    /**
+     * Returns the key of this receiver, which then only receives the messages whose key (as returned by the key
+     * extractor of the topic, see {@link fr.shyrogan.post.EventBus#keyExtractor(Class, java.util.function.Function)})
+     * is equal to it. Receivers without key receive every message of the topic.
+     *
+     * @return The key of this receiver, or null.
+     */
+    default Object key() {
+        return null;
+    }
+
+    /**
+     * Returns whether this receiver still receives the {@link fr.shyrogan.post.message.Cancellable} messages cancelled
+     * by a receiver of higher priority, otherwise they are not dispatched to it.
+     *
+     * @return True if this receiver receives cancelled messages.
+     */
+    default boolean receiveCancelled() {
+        return false;
+    }
+
+    /**
+     * Returns the name of the execution context of this receiver, see {@link
+     * fr.shyrogan.post.EventBus#drain(String)}. Messages dispatched by another thread than the owner of the context
+     * are queued into its mailbox, and received when the owner drains it.
+     *
+     * @return The name of the execution context, or null if this receiver is invoked by the dispatching thread.
+     */
+    default String thread() {
+        return null;
+    }
+
     /**
      * Method invoked to call this receiver.
      *
@@ -1,7 +1,7 @@
 package fr.shyrogan.post.listener;
 
 import java.util.function.Consumer;
-import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * A pretty simple but useful builder to create receivers on the fly! Careful! Incomplete receivers will throw errors!
@@ -12,8 +12,12 @@ public class ListenerBuilder<T> {
 
     private final Class<T>             topic;
     private       int                  priority;
+    private       boolean              async;
+    private       Object               key;
+    private       boolean              receiveCancelled;
+    private       String               thread;
     private       Consumer<T>          consumer;
-    private       Function<T, Boolean> filter;
+    private       Predicate<? super T> filter;
 
     /**
      * Creates a new builder for specified topic.
@@ -39,13 +43,68 @@ public class ListenerBuilder<T> {
     }
 
     /**
-     * Specifies a filter that will block the call if it returns false.
+     * Makes the receiver asynchronous.
+     *
+     * @return The builder.
+     *
+     * @see Listener#async()
+     */
+    public ListenerBuilder<T> async() {
+        this.async = true;
+        return this;
+    }
+
+    /**
+     * Specifies the key of the receiver, which then only receives the messages of that key.
+     *
+     * @param key The key.
+     *
+     * @return The builder.
+     *
+     * @see Listener#key()
+     */
+    public ListenerBuilder<T> key(Object key) {
+        this.key = key;
+        return this;
+    }
+
+    /**
+     * Makes the receiver receive the messages cancelled by a receiver of higher priority.
+     *
+     * @return The builder.
+     *
+     * @see Listener#receiveCancelled()
+     */
+    public ListenerBuilder<T> receiveCancelled() {
+        this.receiveCancelled = true;
+        return this;
+    }
+
+    /**
+     * Specifies the execution context of the receiver, whose owner thread then receives the messages.
+     *
+     * @param thread The name of the execution context.
+     *
+     * @return The builder.
+     *
+     * @see Listener#thread()
+     */
+    public ListenerBuilder<T> thread(String thread) {
+        this.thread = thread;
+        return this;
+    }
+
+    /**
+     * Specifies a filter that will block the call if it returns false. Receivers of a same topic sharing the same
+     * filter instance evaluate it only once per message, it must therefore not have side effects.
      *
      * @param filter The filter.
      *
      * @return The builder.
+     *
+     * @see FilteredListener
      */
-    public ListenerBuilder<T> filter(Function<T, Boolean> filter) {
+    public ListenerBuilder<T> filter(Predicate<? super T> filter) {
         this.filter = filter;
         return this;
     }
@@ -64,8 +123,10 @@ public class ListenerBuilder<T> {
 
     public Listener<T> build() {
         if (consumer == null) throw new IllegalStateException("A receiver is being built yet no actions performed.");
-        if (filter == null) return new NonFilteredReceiver<>(topic, priority, consumer);
-        return new FilteredReceiver<>(topic, priority, filter, consumer);
+        if (filter == null) {
+            return new NonFilteredReceiver<>(topic, priority, async, key, receiveCancelled, thread, consumer);
+        }
+        return new FilteredReceiver<>(topic, priority, async, key, receiveCancelled, thread, filter, consumer);
     }
 
     /**
@@ -76,12 +137,21 @@ public class ListenerBuilder<T> {
     public static class NonFilteredReceiver<T> implements Listener<T> {
         private final Class<T>    topic;
         private final int         priority;
+        private final boolean     async;
+        private final Object      key;
+        private final boolean     receiveCancelled;
+        private final String      thread;
         private final Consumer<T> consumer;
 
-        NonFilteredReceiver(Class<T> topic, int priority, Consumer<T> consumer) {
-            this.topic    = topic;
-            this.priority = priority;
-            this.consumer = consumer;
+        NonFilteredReceiver(Class<T> topic, int priority, boolean async, Object key, boolean receiveCancelled,
+                            String thread, Consumer<T> consumer) {
+            this.topic            = topic;
+            this.priority         = priority;
+            this.async            = async;
+            this.key              = key;
+            this.receiveCancelled = receiveCancelled;
+            this.thread           = thread;
+            this.consumer         = consumer;
         }
 
         @Override
@@ -94,6 +164,26 @@ public class ListenerBuilder<T> {
             return priority;
         }
 
+        @Override
+        public boolean async() {
+            return async;
+        }
+
+        @Override
+        public Object key() {
+            return key;
+        }
+
+        @Override
+        public boolean receiveCancelled() {
+            return receiveCancelled;
+        }
+
+        @Override
+        public String thread() {
+            return thread;
+        }
+
         @Override
         public void receive(T message) {
             consumer.accept(message);
@@ -106,21 +196,30 @@ public class ListenerBuilder<T> {
     }
 
     /**
-     * A simple {@link Listener} implementation that does not contain any filter!
+     * A simple {@link FilteredListener} implementation.
      *
      * @param <T> Message type.
      */
-    public static class FilteredReceiver<T> implements Listener<T> {
+    public static class FilteredReceiver<T> implements FilteredListener<T> {
         private final Class<T>             topic;
         private final int                  priority;
-        private final Function<T, Boolean> filter;
+        private final boolean              async;
+        private final Object               key;
+        private final boolean              receiveCancelled;
+        private final String               thread;
+        private final Predicate<? super T> filter;
         private final Consumer<T>          consumer;
 
-        FilteredReceiver(Class<T> topic, int priority, Function<T, Boolean> filter, Consumer<T> consumer) {
-            this.topic    = topic;
-            this.priority = priority;
-            this.filter   = filter;
-            this.consumer = consumer;
+        FilteredReceiver(Class<T> topic, int priority, boolean async, Object key, boolean receiveCancelled,
+                         String thread, Predicate<? super T> filter, Consumer<T> consumer) {
+            this.topic            = topic;
+            this.priority         = priority;
+            this.async            = async;
+            this.key              = key;
+            this.receiveCancelled = receiveCancelled;
+            this.thread           = thread;
+            this.filter           = filter;
+            this.consumer         = consumer;
         }
 
         @Override
@@ -133,9 +232,39 @@ public class ListenerBuilder<T> {
             return priority;
         }
 
+        @Override
+        public boolean async() {
+            return async;
+        }
+
+        @Override
+        public Object key() {
+            return key;
+        }
+
+        @Override
+        public boolean receiveCancelled() {
+            return receiveCancelled;
+        }
+
+        @Override
+        public String thread() {
+            return thread;
+        }
+
+        @Override
+        public Predicate<? super T> filter() {
+            return filter;
+        }
+
+        @Override
+        public void receiveFiltered(T message) {
+            consumer.accept(message);
+        }
+
         @Override
         public void receive(T message) {
-            if (filter.apply(message)) consumer.accept(message);
+            if (filter.test(message)) consumer.accept(message);
         }
 
         @Override
@@ -0,0 +1,102 @@
+package fr.shyrogan.post.listener;
+
+import fr.shyrogan.post.jfr.ListenerEvent;
+
+/**
+ * A {@link Listener} which records a {@link ListenerEvent} for each slow invocation of another listener: it is only
+ * used when flight recorder events are enabled. While the event is not enabled by a recording, the invocation only
+ * checks it.
+ *
+ * @param <T> The message type.
+ */
+public final class RecordedListener<T> implements DelegatingListener<T> {
+
+    private final Listener<T> listener;
+
+    /**
+     * Creates a new recorded listener.
+     *
+     * @param listener The recorded listener.
+     */
+    public RecordedListener(Listener<T> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public Listener<T> listener() {
+        return listener;
+    }
+
+    @Override
+    public Class<T> topic() {
+        return listener.topic();
+    }
+
+    @Override
+    public int priority() {
+        return listener.priority();
+    }
+
+    @Override
+    public boolean async() {
+        return listener.async();
+    }
+
+    @Override
+    public Object key() {
+        return listener.key();
+    }
+
+    @Override
+    public boolean receiveCancelled() {
+        return listener.receiveCancelled();
+    }
+
+    @Override
+    public String thread() {
+        return listener.thread();
+    }
+
+    @Override
+    public void receive(T message) {
+        invoke(message, false);
+    }
+
+    @Override
+    public void receiveFiltered(T message) {
+        invoke(message, true);
+    }
+
+    /**
+     * Invokes the recorded listener.
+     *
+     * @param message  The message's instance
+     * @param filtered Whether the message was already accepted by the filter of the listener.
+     */
+    private void invoke(T message, boolean filtered) {
+        final ListenerEvent event = new ListenerEvent();
+        if (!event.isEnabled()) {
+            if (filtered) DelegatingListener.receiveFiltered(listener, message);
+            else listener.receive(message);
+            return;
+        }
+        event.begin();
+        try {
+            if (filtered) DelegatingListener.receiveFiltered(listener, message);
+            else listener.receive(message);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.topic    = listener.topic();
+                event.listener = listener.toString();
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RecordedListener{" + listener + '}';
+    }
+
+}
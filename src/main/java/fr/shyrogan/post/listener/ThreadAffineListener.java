@@ -0,0 +1,90 @@
+package fr.shyrogan.post.listener;
+
+import fr.shyrogan.post.context.ExecutionContext;
+
+/**
+ * A {@link Listener} which invokes another listener on the thread owning its {@link ExecutionContext}: directly if the
+ * message is dispatched by the owner, otherwise on the next drain of the context.
+ *
+ * @param <T> The message type.
+ */
+public final class ThreadAffineListener<T> implements DelegatingListener<T> {
+
+    private final Listener<T>      listener;
+    private final ExecutionContext context;
+
+    /**
+     * Creates a new thread-affine listener.
+     *
+     * @param listener The listener invoked by the owner of the context.
+     * @param context  The execution context.
+     */
+    public ThreadAffineListener(Listener<T> listener, ExecutionContext context) {
+        this.listener = listener;
+        this.context  = context;
+    }
+
+    @Override
+    public Listener<T> listener() {
+        return listener;
+    }
+
+    @Override
+    public Class<T> topic() {
+        return listener.topic();
+    }
+
+    @Override
+    public int priority() {
+        return listener.priority();
+    }
+
+    @Override
+    public boolean async() {
+        return listener.async();
+    }
+
+    @Override
+    public Object key() {
+        return listener.key();
+    }
+
+    @Override
+    public boolean receiveCancelled() {
+        return listener.receiveCancelled();
+    }
+
+    @Override
+    public String thread() {
+        return context.name();
+    }
+
+    @Override
+    public void receive(T message) {
+        if (context.isOwner()) {
+            listener.receive(message);
+        } else {
+            context.post(listener, message);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>When the message is dispatched by another thread, the delivery is queued as is: the filter is then evaluated
+     * again by the owner, which keeps the state it reads confined to that thread.</p>
+     */
+    @Override
+    public void receiveFiltered(T message) {
+        if (context.isOwner()) {
+            DelegatingListener.receiveFiltered(listener, message);
+        } else {
+            context.post(listener, message);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ThreadAffineListener{" + listener + ", context=" + context.name() + '}';
+    }
+
+}
@@ -20,4 +20,45 @@ public @interface Subscribe {
      */
     int priority() default 0;
 
+    /**
+     * Returns whether the marked (future) receiver is invoked asynchronously.
+     *
+     * @return True if this receiver is asynchronous.
+     *
+     * @see fr.shyrogan.post.listener.Listener#async()
+     */
+    boolean async() default false;
+
+    /**
+     * Returns the key of the marked (future) receiver, an empty key means the receiver has no key.
+     * <p>The key is a string, so the key extractor of the topic must return strings for the receiver to match: an
+     * extracted {@code Integer} id never equals the key {@code "42"}. Receivers with keys of other types can be
+     * registered with {@link fr.shyrogan.post.listener.ListenerBuilder#key(Object)}.</p>
+     *
+     * @return The key of this receiver.
+     *
+     * @see fr.shyrogan.post.listener.Listener#key()
+     */
+    String key() default "";
+
+    /**
+     * Returns whether the marked (future) receiver still receives the messages cancelled by a receiver of higher
+     * priority.
+     *
+     * @return True if this receiver receives cancelled messages.
+     *
+     * @see fr.shyrogan.post.listener.Listener#receiveCancelled()
+     */
+    boolean receiveCancelled() default false;
+
+    /**
+     * Returns the name of the execution context of the marked (future) receiver, an empty name means the receiver is
+     * invoked by the dispatching thread.
+     *
+     * @return The name of the execution context of this receiver.
+     *
+     * @see fr.shyrogan.post.listener.Listener#thread()
+     */
+    String thread() default "";
+
 }
@@ -0,0 +1,42 @@
+package fr.shyrogan.post.message;
+
+/**
+ * A message which can be cancelled by one of its receivers. Once cancelled, the dispatch stops calling the receivers
+ * of lower priority, except the ones receiving cancelled messages (see {@link
+ * fr.shyrogan.post.listener.Listener#receiveCancelled()}).
+ */
+public interface Cancellable {
+
+    /**
+     * Returns whether this message has been cancelled.
+     *
+     * @return True if this message is cancelled.
+     */
+    boolean isCancelled();
+
+    /**
+     * Cancels (or restores) this message.
+     *
+     * @param cancelled True to cancel this message.
+     */
+    void setCancelled(boolean cancelled);
+
+    /**
+     * Cancels this message.
+     */
+    default void cancel() {
+        setCancelled(true);
+    }
+
+    /**
+     * Returns whether specified message is a cancelled {@link Cancellable}.
+     *
+     * @param message The message.
+     *
+     * @return True if the message is cancelled.
+     */
+    static boolean cancelled(Object message) {
+        return message instanceof Cancellable && ((Cancellable) message).isCancelled();
+    }
+
+}
@@ -0,0 +1,183 @@
+package fr.shyrogan.post.message;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.Publisher;
+import fr.shyrogan.post.utils.MpscQueue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A pool of recyclable messages of a topic, which avoids allocating a message per dispatch: a message is acquired
+ * (reset), filled and dispatched through the pool, it then returns to the pool once the receivers are done with it.
+ * <p>Each thread has its own pool (of a bounded capacity), so acquiring and recycling a message never contends. A
+ * message released on another thread (an asynchronous receiver, a short-lived executor thread...) returns to the pool
+ * of the thread which acquired it through a lock-free queue, drained once that pool is empty.</p>
+ * <p>In debug mode, released messages are never reused but weakly referenced instead: the ones that are still
+ * reachable after a garbage collection have been retained past their delivery, see {@link #retainedMessages()}.</p>
+ *
+ * @param <T> The message type.
+ */
+@SuppressWarnings("ALL")
+public final class MessagePool<T extends PooledMessage> {
+
+    private final EventBus                                bus;
+    private final Publisher<T>                            publisher;
+    private final Supplier<? extends T>                   factory;
+    private final int                                     capacity;
+    private final boolean                                 debug;
+    private final ThreadLocal<Stack>                      stacks   = ThreadLocal.withInitial(Stack::new);
+    private final LongAdder                               created  = new LongAdder();
+    /** The released messages, in debug mode **/
+    private final ConcurrentLinkedQueue<WeakReference<T>> released = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a new pool of messages of specified topic.
+     *
+     * @param bus      The event bus the messages are dispatched to.
+     * @param topic    The topic.
+     * @param factory  The factory creating a new message when the pool is empty.
+     * @param capacity The maximum amount of messages pooled by each thread.
+     * @param debug    Whether released messages are tracked instead of being reused.
+     */
+    public MessagePool(EventBus bus, Class<T> topic, Supplier<? extends T> factory, int capacity, boolean debug) {
+        if (capacity < 1) throw new IllegalArgumentException("The capacity must be positive");
+        this.bus       = bus;
+        this.publisher = bus.publisher(topic);
+        this.factory   = factory;
+        this.capacity  = capacity;
+        this.debug     = debug;
+    }
+
+    /**
+     * Acquires a reset message from the pool of the current thread, or creates one if it is empty.
+     *
+     * @return The message, holding a single reference.
+     */
+    public T acquire() {
+        final Stack stack = stacks.get();
+        if (stack.size == 0 && stack.pending.get() > 0) stack.reclaim();
+        T message = stack.size == 0 ? null : (T) stack.items[--stack.size];
+        if (message == null) {
+            message = Objects.requireNonNull(factory.get());
+            created.increment();
+        } else {
+            stack.items[stack.size] = null;
+        }
+        message.acquired(this, stack);
+        return message;
+    }
+
+    /**
+     * Dispatches specified message to each of the receivers of the topic, then releases it.
+     *
+     * @param message The message, acquired from this pool.
+     */
+    public void dispatch(T message) {
+        try {
+            publisher.publish(message);
+        } finally {
+            message.release();
+        }
+    }
+
+    /**
+     * Dispatches specified message asynchronously (see {@link EventBus#dispatchAsync(Object)}), then releases it once
+     * every receiver has been invoked.
+     *
+     * @param message The message, acquired from this pool.
+     *
+     * @return A future completed once every receiver has been invoked.
+     */
+    public CompletableFuture<Void> dispatchAsync(T message) {
+        final CompletableFuture<Void> future;
+        try {
+            future = bus.dispatchAsync(message);
+        } catch (Throwable t) {
+            message.release();
+            throw t;
+        }
+        return future.whenComplete((result, throwable) -> message.release());
+    }
+
+    /**
+     * Returns the amount of messages created because the pool was empty.
+     *
+     * @return The amount of created messages.
+     */
+    public long createdMessages() {
+        return created.sum();
+    }
+
+    /**
+     * Returns the released messages that are still reachable, which should only be called in debug mode after a
+     * garbage collection: they are retained by a receiver (or by whoever dispatched them) past their delivery.
+     *
+     * @return The retained messages.
+     *
+     * @throws IllegalStateException If the pool is not in debug mode.
+     */
+    public List<T> retainedMessages() {
+        if (!debug) throw new IllegalStateException("Released messages are only tracked in debug mode");
+        final List<T> retained = new ArrayList<>();
+        released.removeIf(reference -> {
+            final T message = reference.get();
+            if (message == null) return true;
+            retained.add(message);
+            return false;
+        });
+        return retained;
+    }
+
+    /**
+     * Returns a message whose references have all been released to the pool of the thread which acquired it.
+     *
+     * @param message The message.
+     * @param home    The stack of the thread which acquired the message.
+     */
+    void recycle(PooledMessage message, Object home) {
+        if (debug) {
+            released.add(new WeakReference<>((T) message));
+            return;
+        }
+        final Stack stack = (Stack) home;
+        if (stack.owner == Thread.currentThread()) {
+            if (stack.size < capacity) stack.items[stack.size++] = message;
+        } else if (stack.pending.incrementAndGet() <= capacity) {
+            stack.returned.offer(message);
+        } else {
+            // The owner has enough messages coming back already
+            stack.pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * The pooled messages of a thread.
+     */
+    private final class Stack {
+        private final Thread                   owner    = Thread.currentThread();
+        private final Object[]                 items    = new Object[capacity];
+        private       int                      size;
+        /** The messages released by other threads, along with their amount **/
+        private final MpscQueue<PooledMessage> returned = new MpscQueue<>();
+        private final AtomicInteger            pending  = new AtomicInteger();
+
+        /**
+         * Moves the messages released by other threads into this stack, must be called by the owner.
+         */
+        void reclaim() {
+            returned.drain(message -> {
+                pending.decrementAndGet();
+                if (size < capacity) items[size++] = message;
+            });
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package fr.shyrogan.post.message;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A message which can be recycled by a {@link MessagePool}: it is reference counted, acquiring it from the pool holds
+ * the first reference and it returns to the pool once every reference has been released.
+ * <p>Receivers invoked after the dispatch returns (asynchronous receivers, conflated topics...) retain the message
+ * until they are done with it. Receivers must not keep a reference to it past its delivery, otherwise they would see
+ * it being reused.</p>
+ * <p>Messages that were not acquired from a pool are not reference counted.</p>
+ */
+public abstract class PooledMessage {
+
+    /** The references field **/
+    private final static VarHandle REFERENCES;
+
+    static {
+        try {
+            REFERENCES = MethodHandles.lookup().findVarHandle(PooledMessage.class, "references", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile int            references;
+    /** The pool of this message, set when it is acquired **/
+    private          MessagePool<?> pool;
+    /** The stack of the thread which acquired this message, which it returns to **/
+    private          Object         home;
+
+    /**
+     * Resets the state of this message before it is acquired again, sub classes should clear their fields.
+     */
+    protected void reset() {
+    }
+
+    /**
+     * Returns the amount of references to this message.
+     *
+     * @return The amount of references, 0 if it is in its pool or not pooled.
+     */
+    public final int references() {
+        return references;
+    }
+
+    /**
+     * Adds a reference to this message, it does not return to its pool until it is released.
+     *
+     * @return This message.
+     *
+     * @throws IllegalStateException If the message has already returned to its pool.
+     */
+    public final PooledMessage retain() {
+        if (pool == null) return this;
+        int current;
+        do {
+            current = references;
+            if (current <= 0) throw new IllegalStateException("The message has already been released: " + this);
+        } while (!REFERENCES.compareAndSet(this, current, current + 1));
+        return this;
+    }
+
+    /**
+     * Releases a reference to this message, it returns to its pool once every reference has been released.
+     *
+     * @throws IllegalStateException If the message has already returned to its pool.
+     */
+    public final void release() {
+        final MessagePool<?> owner = pool;
+        if (owner == null) return;
+        final Object stack = home;
+        final int remaining = (int) REFERENCES.getAndAdd(this, -1) - 1;
+        if (remaining < 0) {
+            REFERENCES.getAndAdd(this, 1);
+            throw new IllegalStateException("The message has already been released: " + this);
+        }
+        if (remaining == 0) owner.recycle(this, stack);
+    }
+
+    /**
+     * Adds a reference to specified message, if it is a {@link PooledMessage}.
+     *
+     * @param message The message.
+     */
+    public static void retain(Object message) {
+        if (message instanceof PooledMessage) ((PooledMessage) message).retain();
+    }
+
+    /**
+     * Releases a reference to specified message, if it is a {@link PooledMessage}.
+     *
+     * @param message The message.
+     */
+    public static void release(Object message) {
+        if (message instanceof PooledMessage) ((PooledMessage) message).release();
+    }
+
+    /**
+     * Prepares this message to be acquired from specified pool, holding the first reference.
+     *
+     * @param pool The pool.
+     * @param home The stack of the acquiring thread in the pool.
+     */
+    final void acquired(MessagePool<?> pool, Object home) {
+        reset();
+        if (this instanceof Cancellable) ((Cancellable) this).setCancelled(false);
+        this.pool = pool;
+        this.home = home;
+        REFERENCES.setRelease(this, 1);
+    }
+
+}
@@ -0,0 +1,134 @@
+package fr.shyrogan.post.metrics;
+
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.utils.WeakIdentityMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The metrics of an event bus, only collected if {@link
+ * fr.shyrogan.post.configuration.EventBusConfiguration#metricsEnabled()} is enabled: the dispatcher of each topic and
+ * each of its listeners are then wrapped to record them. Otherwise, the dispatch path is left untouched.
+ * <p>Counters are striped ({@link java.util.concurrent.atomic.LongAdder}) so that concurrent dispatches do not contend,
+ * and only a sample of the dispatches is timed.</p>
+ */
+public final class EventBusMetrics implements EventBusMetricsMXBean {
+
+    private final int                                       samplingInterval;
+    private final Map<Class<?>, TopicMetrics>               topics    = new ConcurrentHashMap<>();
+    private final WeakIdentityMap<Listener, ListenerMetrics> listeners = new WeakIdentityMap<>();
+
+    /**
+     * Creates new metrics.
+     *
+     * @param samplingInterval One out of this amount of dispatches is timed.
+     */
+    public EventBusMetrics(int samplingInterval) {
+        if (samplingInterval < 1) throw new IllegalArgumentException("The sampling interval must be positive");
+        this.samplingInterval = samplingInterval;
+    }
+
+    /**
+     * Returns the metrics of specified topic, they are created if they do not exist yet.
+     *
+     * @param type The message class.
+     *
+     * @return The topic metrics.
+     */
+    public TopicMetrics topic(Class<?> type) {
+        return topics.computeIfAbsent(type, t -> new TopicMetrics(t, samplingInterval));
+    }
+
+    /**
+     * Returns the metrics of each topic.
+     *
+     * @return The topic metrics.
+     */
+    public Collection<TopicMetrics> topics() {
+        return Collections.unmodifiableCollection(topics.values());
+    }
+
+    /**
+     * Returns the metrics of specified listener, they are created if they do not exist yet and forgotten once the
+     * listener is garbage collected.
+     *
+     * @param listener The listener.
+     *
+     * @return The listener metrics.
+     */
+    public ListenerMetrics listener(Listener listener) {
+        listeners.expunge();
+        final ListenerMetrics metrics = listeners.get(listener);
+        if (metrics != null) return metrics;
+        return listeners.compute(listener, (l, current) -> {
+            return current != null ? current : new ListenerMetrics(l.toString(), l.topic());
+        });
+    }
+
+    /**
+     * Returns the metrics of each listener that has not been garbage collected.
+     *
+     * @return The listener metrics.
+     */
+    public Collection<ListenerMetrics> listeners() {
+        listeners.expunge();
+        return listeners.values();
+    }
+
+    @Override
+    public long getDeadMessages() {
+        long dead = 0;
+        for (TopicMetrics topic : topics.values()) dead += topic.deadMessages();
+        return dead;
+    }
+
+    @Override
+    public long getExceptions() {
+        long exceptions = 0;
+        for (TopicMetrics topic : topics.values()) exceptions += topic.exceptions();
+        return exceptions;
+    }
+
+    @Override
+    public Map<String, Long> getTopicDispatches() {
+        final Map<String, Long> dispatches = new TreeMap<>();
+        for (TopicMetrics topic : topics.values()) dispatches.put(topic.type().getName(), topic.dispatches());
+        return dispatches;
+    }
+
+    @Override
+    public Map<String, Long> getTopicLatencyP99Nanos() {
+        final Map<String, Long> latencies = new TreeMap<>();
+        for (TopicMetrics topic : topics.values()) {
+            latencies.put(topic.type().getName(), topic.latency().percentile(99));
+        }
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Long> getListenerCalls() {
+        final Map<String, Long> calls = new TreeMap<>();
+        for (ListenerMetrics listener : listeners()) calls.merge(listener.name(), listener.calls(), Long::sum);
+        return calls;
+    }
+
+    /**
+     * Registers these metrics to the platform MBean server.
+     *
+     * @param name The object name, such as {@code fr.shyrogan.post:type=EventBus,name=main}.
+     *
+     * @return The object name.
+     *
+     * @throws JMException If the name is invalid or already registered.
+     */
+    public ObjectName registerMBean(String name) throws JMException {
+        final ObjectName objectName = new ObjectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+}
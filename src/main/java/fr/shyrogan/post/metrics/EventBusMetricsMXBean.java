@@ -0,0 +1,45 @@
+package fr.shyrogan.post.metrics;
+
+import java.util.Map;
+
+/**
+ * The JMX view of the {@link EventBusMetrics}, topics and listeners are identified by their name.
+ */
+public interface EventBusMetricsMXBean {
+
+    /**
+     * Returns the amount of messages dispatched to each topic.
+     *
+     * @return The dispatches of each topic.
+     */
+    Map<String, Long> getTopicDispatches();
+
+    /**
+     * Returns the 99th percentile of the sampled dispatch latencies of each topic, in nanoseconds.
+     *
+     * @return The latency of each topic.
+     */
+    Map<String, Long> getTopicLatencyP99Nanos();
+
+    /**
+     * Returns the amount of calls of each listener.
+     *
+     * @return The calls of each listener.
+     */
+    Map<String, Long> getListenerCalls();
+
+    /**
+     * Returns the amount of messages dispatched to topics without receivers.
+     *
+     * @return The amount of dead messages.
+     */
+    long getDeadMessages();
+
+    /**
+     * Returns the amount of dispatches that threw an exception.
+     *
+     * @return The amount of exceptions.
+     */
+    long getExceptions();
+
+}
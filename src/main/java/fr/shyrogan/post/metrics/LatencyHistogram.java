@@ -0,0 +1,68 @@
+package fr.shyrogan.post.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies (in nanoseconds), whose buckets are powers of two: bucket {@code i} counts the
+ * latencies lower than {@code 2^i} and greater than or equal to {@code 2^(i-1)}.
+ */
+public final class LatencyHistogram {
+
+    /** The amount of buckets, one per bit of a long **/
+    private final static int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records specified latency.
+     *
+     * @param nanos The latency, in nanoseconds.
+     */
+    public void record(long nanos) {
+        buckets.incrementAndGet(nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos)));
+    }
+
+    /**
+     * Returns the amount of recorded latencies.
+     *
+     * @return The amount of latencies.
+     */
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) count += buckets.get(i);
+        return count;
+    }
+
+    /**
+     * Returns an upper bound of specified percentile of the recorded latencies (the upper bound of its bucket).
+     *
+     * @param percentile The percentile, between 0 and 100.
+     *
+     * @return The latency in nanoseconds, or 0 if nothing has been recorded.
+     */
+    public long percentile(double percentile) {
+        final long[] snapshot = snapshot();
+        long         count    = 0;
+        for (long bucket : snapshot) count += bucket;
+        if (count == 0) return 0;
+
+        final long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long       seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if ((seen += snapshot[i]) >= rank) return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns a copy of the amount of latencies recorded in each bucket.
+     *
+     * @return The buckets.
+     */
+    public long[] snapshot() {
+        final long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) snapshot[i] = buckets.get(i);
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,76 @@
+package fr.shyrogan.post.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a listener: its calls and the ones that threw an exception. It does not reference the listener, only
+ * its description.
+ */
+public final class ListenerMetrics {
+
+    private final String    name;
+    private final Class<?>  topic;
+    private final LongAdder calls      = new LongAdder();
+    private final LongAdder exceptions = new LongAdder();
+
+    ListenerMetrics(String name, Class<?> topic) {
+        this.name  = name;
+        this.topic = topic;
+    }
+
+    /**
+     * Returns the description of the listener (as returned by its {@code toString}).
+     *
+     * @return The name of the listener.
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Returns the topic of the listener.
+     *
+     * @return The topic.
+     */
+    public Class<?> topic() {
+        return topic;
+    }
+
+    /**
+     * Returns the amount of times the listener has been called.
+     *
+     * @return The amount of calls.
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the amount of calls that threw an exception.
+     *
+     * @return The amount of exceptions.
+     */
+    public long exceptions() {
+        return exceptions.sum();
+    }
+
+    /**
+     * Records a call of the listener.
+     */
+    public void called() {
+        calls.increment();
+    }
+
+    /**
+     * Records a call that threw an exception.
+     */
+    public void failed() {
+        exceptions.increment();
+    }
+
+    @Override
+    public String toString() {
+        return "ListenerMetrics{" + "name=" + name + ", calls=" + calls() + ", exceptions=" + exceptions() + '}';
+    }
+
+}
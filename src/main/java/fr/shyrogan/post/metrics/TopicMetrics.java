@@ -0,0 +1,102 @@
+package fr.shyrogan.post.metrics;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics of a topic: its dispatched messages, the ones that did not have any receiver, the dispatches that threw
+ * an exception and the latency of a sample of the dispatches.
+ */
+public final class TopicMetrics {
+
+    private final Class<?>         type;
+    private final int              samplingInterval;
+    private final LongAdder        dispatches   = new LongAdder();
+    private final LongAdder        deadMessages = new LongAdder();
+    private final LongAdder        exceptions   = new LongAdder();
+    private final LatencyHistogram latency      = new LatencyHistogram();
+
+    TopicMetrics(Class<?> type, int samplingInterval) {
+        this.type             = type;
+        this.samplingInterval = samplingInterval;
+    }
+
+    /**
+     * Returns the message class of the topic.
+     *
+     * @return The message class.
+     */
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * Returns the amount of dispatched messages.
+     *
+     * @return The amount of messages.
+     */
+    public long dispatches() {
+        return dispatches.sum();
+    }
+
+    /**
+     * Returns the amount of messages dispatched while the topic did not have any receiver.
+     *
+     * @return The amount of dead messages.
+     */
+    public long deadMessages() {
+        return deadMessages.sum();
+    }
+
+    /**
+     * Returns the amount of dispatches that threw an exception.
+     *
+     * @return The amount of exceptions.
+     */
+    public long exceptions() {
+        return exceptions.sum();
+    }
+
+    /**
+     * Returns the latencies of the sampled dispatches.
+     *
+     * @return The latency histogram.
+     */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    /**
+     * Records dispatched messages.
+     *
+     * @param count The amount of messages.
+     * @param dead  Whether the topic does not have any receiver.
+     */
+    public void dispatched(int count, boolean dead) {
+        dispatches.add(count);
+        if (dead) deadMessages.add(count);
+    }
+
+    /**
+     * Records a dispatch that threw an exception.
+     */
+    public void failed() {
+        exceptions.increment();
+    }
+
+    /**
+     * Returns whether the latency of the current dispatch should be recorded, one out of the sampling interval.
+     *
+     * @return True if the dispatch is sampled.
+     */
+    public boolean sample() {
+        return samplingInterval == 1 || ThreadLocalRandom.current().nextInt(samplingInterval) == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "TopicMetrics{" + "type=" + type.getName() + ", dispatches=" + dispatches() + ", deadMessages="
+               + deadMessages() + ", exceptions=" + exceptions() + '}';
+    }
+
+}
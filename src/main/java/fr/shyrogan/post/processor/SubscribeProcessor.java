@@ -0,0 +1,332 @@
+package fr.shyrogan.post.processor;
+
+import fr.shyrogan.post.listener.annotation.Subscribe;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+import static fr.shyrogan.post.factory.impl.GeneratedRegistrarFactory.REGISTRAR_SUFFIX;
+
+/**
+ * An annotation processor generating, for each class holding members annotated with the {@link Subscribe} annotation,
+ * a {@link fr.shyrogan.post.factory.Registrar} which creates its receivers without any reflection:
+ * <p>{@code methods => a typed listener class per method, invoking it directly on the (weakly referenced)
+ * holder}</p>
+ * <p>{@code Listener fields => the value of the field}</p>
+ * <p>{@code Consumer fields => a listener built by the ListenerBuilder}</p>
+ * Null fields are skipped and the receivers of the methods come before the ones of the fields, like the {@link
+ * fr.shyrogan.post.factory.impl.AnnotatedFieldAndMethodFactory} does.
+ * The registrar is named after the binary name of the class followed by {@code $PostRegistrar}, its constructor is
+ * declared to native images (which cannot look it up by name otherwise). Classes which cannot be referenced from their
+ * package (or whose receivers cannot) are silently skipped, they are still inspected at runtime.
+ * <p>The processor is opt-in: it is declared by the jar of classifier {@code processor} only, so that it does not run
+ * in the builds merely depending on the library.</p>
+ */
+@SupportedAnnotationTypes("fr.shyrogan.post.listener.annotation.Subscribe")
+public class SubscribeProcessor extends AbstractProcessor {
+
+    /** The native image configuration declaring the constructor of the generated registrars **/
+    private final static String REFLECTION_FILE = "META-INF/native-image/fr.shyrogan.post/registrars/"
+                                                  + "reflect-config.json";
+
+    /** The name of each registrar generated during this compilation **/
+    private final Set<String> registrars = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        final Set<TypeElement> holders = new LinkedHashSet<>();
+        for (Element element : round.getElementsAnnotatedWith(Subscribe.class)) {
+            final Element enclosing = element.getEnclosingElement();
+            if (enclosing instanceof TypeElement) holders.add((TypeElement) enclosing);
+        }
+        for (TypeElement holder : holders) {
+            final String source = registrarSource(holder);
+            if (source == null) continue;
+            final String name = processingEnv.getElementUtils().getBinaryName(holder) + REGISTRAR_SUFFIX;
+            try (Writer writer = processingEnv.getFiler().createSourceFile(name, holder).openWriter()) {
+                writer.write(source);
+                registrars.add(name);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(
+                        Diagnostic.Kind.ERROR, "Could not generate the registrar: " + e.getMessage(), holder);
+            }
+        }
+        if (round.processingOver() && !registrars.isEmpty()) writeReflectionFile();
+        return false;
+    }
+
+    /**
+     * Writes the native image configuration declaring the constructor of each generated registrar.
+     */
+    private void writeReflectionFile() {
+        try {
+            final FileObject file = processingEnv.getFiler().createResource(
+                    StandardLocation.CLASS_OUTPUT, "", REFLECTION_FILE);
+            try (Writer writer = file.openWriter()) {
+                writer.write("[\n");
+                final Iterator<String> iterator = registrars.iterator();
+                while (iterator.hasNext()) {
+                    writer.write("  { \"name\": \"" + iterator.next() + "\", ");
+                    writer.write("\"methods\": [ { \"name\": \"<init>\", \"parameterTypes\": [] } ] }");
+                    writer.write(iterator.hasNext() ? ",\n" : "\n");
+                }
+                writer.write("]\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR, "Could not declare the registrars: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Generates the source of the registrar of specified class.
+     *
+     * @param holder The class holding the receivers.
+     *
+     * @return The source, or null if the class or one of its receivers cannot be referenced by the registrar.
+     */
+    private String registrarSource(TypeElement holder) {
+        if (!EnumSet.of(ElementKind.CLASS, ElementKind.ENUM, ElementKind.RECORD).contains(holder.getKind())
+            || !isAccessible(holder)) {
+            // The class cannot be referenced from its package
+            return null;
+        }
+        final String packageName = processingEnv.getElementUtils().getPackageOf(holder).getQualifiedName().toString();
+        final String binaryName  = processingEnv.getElementUtils().getBinaryName(holder).toString();
+        final String simpleName  = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+                                   + REGISTRAR_SUFFIX;
+        final String holderType  = holder.getQualifiedName().toString();
+
+        // Methods are registered before fields, like the AnnotatedFieldAndMethodFactory does, so that receivers of a
+        // same priority are invoked in the same order whether the registrar exists or not.
+        final StringBuilder registrations = new StringBuilder();
+        final StringBuilder fields        = new StringBuilder();
+        final StringBuilder listeners     = new StringBuilder();
+        int                 count         = 0;
+        for (Element member : holder.getEnclosedElements()) {
+            final Subscribe annotation = member.getAnnotation(Subscribe.class);
+            if (annotation == null) continue;
+            // Private receivers (and inaccessible topics) cannot be referenced by the registrar
+            if (member.getModifiers().contains(Modifier.PRIVATE)) return null;
+            if (member.getKind() == ElementKind.METHOD) {
+                final ExecutableElement method = (ExecutableElement) member;
+                if (method.getParameters().size() != 1) continue;
+                final TypeMirror parameter = method.getParameters().get(0).asType();
+                if (parameter.getKind().isPrimitive()) continue;
+                if (!isAccessible(parameter)) return null;
+
+                final String topic      = typeName(parameter);
+                final String listener   = "Listener" + count++;
+                final String invocation = method.getModifiers().contains(Modifier.STATIC)
+                                          ? holderType + '.' + method.getSimpleName() + "(message);"
+                                          : "final " + holderType + " holder = this.holder.get();\n"
+                                            + "            if (holder != null) holder." + method.getSimpleName()
+                                            + "(message);";
+                registrations.append("        listeners.add(new ").append(listener).append("(holder));\n");
+                listeners.append(listenerSource(listener, holderType, topic, annotation, invocation));
+            } else if (member.getKind() == ElementKind.FIELD) {
+                final TypeMirror type  = member.asType();
+                final String     field = member.getModifiers().contains(Modifier.STATIC)
+                                         ? holderType + '.' + member.getSimpleName()
+                                         : "holder." + member.getSimpleName();
+                if (isSubtype(type, "fr.shyrogan.post.listener.Listener")) {
+                    fields.append("        if (").append(field).append(" != null) listeners.add(")
+                          .append(field).append(");\n");
+                } else if (isSubtype(type, "java.util.function.Consumer")) {
+                    final List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+                    if (arguments.isEmpty() || arguments.get(0).getKind() == TypeKind.WILDCARD) continue;
+                    if (!isAccessible(arguments.get(0))) {
+                        return null;
+                    }
+                    fields.append("        if (").append(field).append(" != null) ")
+                          .append("listeners.add(new fr.shyrogan.post.listener.ListenerBuilder<>(")
+                          .append(typeName(arguments.get(0))).append(".class).priority(")
+                          .append(annotation.priority()).append(')');
+                    if (annotation.async()) fields.append(".async()");
+                    if (!annotation.key().isEmpty()) {
+                        fields.append(".key(")
+                              .append(processingEnv.getElementUtils().getConstantExpression(annotation.key()))
+                              .append(')');
+                    }
+                    if (annotation.receiveCancelled()) fields.append(".receiveCancelled()");
+                    if (!annotation.thread().isEmpty()) {
+                        fields.append(".thread(")
+                              .append(processingEnv.getElementUtils().getConstantExpression(annotation.thread()))
+                              .append(')');
+                    }
+                    fields.append(".perform(").append(field).append(").build());\n");
+                }
+            }
+        }
+
+        final StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) source.append("package ").append(packageName).append(";\n\n");
+        source.append("/**\n * The registrar of {@link ").append(holderType).append("}, generated by the ")
+              .append(SubscribeProcessor.class.getSimpleName()).append(".\n */\n")
+              .append("@javax.annotation.processing.Generated(\"").append(SubscribeProcessor.class.getName())
+              .append("\")\n")
+              .append("@SuppressWarnings({ \"rawtypes\", \"unchecked\" })\n")
+              .append("public final class ").append(simpleName)
+              .append(" implements fr.shyrogan.post.factory.Registrar<").append(holderType).append("> {\n\n")
+              .append("    @Override\n")
+              .append("    public Class<").append(holderType).append("> holder() {\n")
+              .append("        return ").append(holderType).append(".class;\n")
+              .append("    }\n\n")
+              .append("    @Override\n")
+              .append("    public java.util.List<fr.shyrogan.post.listener.Listener> listenersOf(").append(holderType)
+              .append(" holder) {\n")
+              .append("        final java.util.List<fr.shyrogan.post.listener.Listener> listeners = ")
+              .append("new java.util.ArrayList<>();\n")
+              .append(registrations)
+              .append(fields)
+              .append("        return listeners;\n")
+              .append("    }\n")
+              .append(listeners)
+              .append("\n}\n");
+        return source.toString();
+    }
+
+    /**
+     * Generates the source of the listener class invoking a method.
+     *
+     * @param name       The listener class name.
+     * @param holderType The holder type.
+     * @param topic      The topic type.
+     * @param annotation The annotation of the method.
+     * @param invocation The statements invoking the method.
+     *
+     * @return The source.
+     */
+    private String listenerSource(String name, String holderType, String topic, Subscribe annotation,
+                                  String invocation) {
+        final StringBuilder source = new StringBuilder()
+                .append("\n    public static final class ").append(name)
+                .append(" implements fr.shyrogan.post.listener.Listener<").append(topic).append("> {\n\n")
+                .append("        private final java.lang.ref.WeakReference<").append(holderType)
+                .append("> holder;\n\n")
+                .append("        ").append(name).append('(').append(holderType).append(" holder) {\n")
+                .append("            this.holder = new java.lang.ref.WeakReference<>(holder);\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public Class<").append(topic).append("> topic() {\n")
+                .append("            return ").append(topic).append(".class;\n")
+                .append("        }\n\n")
+                .append("        @Override\n")
+                .append("        public int priority() {\n")
+                .append("            return ").append(annotation.priority()).append(";\n")
+                .append("        }\n\n");
+        if (annotation.async()) {
+            source.append("        @Override\n")
+                  .append("        public boolean async() {\n")
+                  .append("            return true;\n")
+                  .append("        }\n\n");
+        }
+        if (!annotation.key().isEmpty()) {
+            source.append("        @Override\n")
+                  .append("        public Object key() {\n")
+                  .append("            return ")
+                  .append(processingEnv.getElementUtils().getConstantExpression(annotation.key())).append(";\n")
+                  .append("        }\n\n");
+        }
+        if (annotation.receiveCancelled()) {
+            source.append("        @Override\n")
+                  .append("        public boolean receiveCancelled() {\n")
+                  .append("            return true;\n")
+                  .append("        }\n\n");
+        }
+        if (!annotation.thread().isEmpty()) {
+            source.append("        @Override\n")
+                  .append("        public String thread() {\n")
+                  .append("            return ")
+                  .append(processingEnv.getElementUtils().getConstantExpression(annotation.thread())).append(";\n")
+                  .append("        }\n\n");
+        }
+        return source.append("        @Override\n")
+                     .append("        public void receive(").append(topic).append(" message) {\n")
+                     .append("            ").append(invocation).append('\n')
+                     .append("        }\n")
+                     .append("    }\n")
+                     .toString();
+    }
+
+    /**
+     * Returns whether specified type is a sub type of the (erased) type of specified name.
+     *
+     * @param type The type.
+     * @param name The qualified name of the super type.
+     *
+     * @return True if it is a sub type.
+     */
+    private boolean isSubtype(TypeMirror type, String name) {
+        final TypeElement superType = processingEnv.getElementUtils().getTypeElement(name);
+        return superType != null && processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(type), processingEnv.getTypeUtils().erasure(superType.asType()));
+    }
+
+    /**
+     * Returns whether the erasure of specified type can be referenced from another class of its package.
+     *
+     * @param type The type.
+     *
+     * @return True if the type is accessible.
+     */
+    private boolean isAccessible(TypeMirror type) {
+        final TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) return isAccessible(((ArrayType) erased).getComponentType());
+        if (erased.getKind() != TypeKind.DECLARED) return erased.getKind().isPrimitive();
+        return isAccessible((TypeElement) ((DeclaredType) erased).asElement());
+    }
+
+    /**
+     * Returns whether specified class can be referenced from another class of its package.
+     *
+     * @param type The class.
+     *
+     * @return True if the class is accessible.
+     */
+    private boolean isAccessible(TypeElement type) {
+        for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            final TypeElement current = (TypeElement) element;
+            if (current.getNestingKind() != NestingKind.TOP_LEVEL && current.getNestingKind() != NestingKind.MEMBER) {
+                return false;
+            }
+            if (current.getModifiers().contains(Modifier.PRIVATE)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the source name of the erasure of specified type, without any annotation.
+     *
+     * @param type The type.
+     *
+     * @return The type name.
+     */
+    private String typeName(TypeMirror type) {
+        final TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) return typeName(((ArrayType) erased).getComponentType()) + "[]";
+        if (erased.getKind() == TypeKind.DECLARED) {
+            return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+        }
+        return erased.getKind().name().toLowerCase(Locale.ROOT);
+    }
+
+}
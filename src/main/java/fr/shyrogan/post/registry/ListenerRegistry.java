@@ -0,0 +1,763 @@
+package fr.shyrogan.post.registry;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.context.ExecutionContext;
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.BatchMessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.ConflatingMessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.InstrumentedMessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.KeyedMessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.KeyedMessageDispatcher.Entry;
+import fr.shyrogan.post.dispatcher.impl.RecordedMessageDispatcher;
+import fr.shyrogan.post.jfr.DispatcherRebuildEvent;
+import fr.shyrogan.post.jfr.SubscriptionEvent;
+import fr.shyrogan.post.listener.AsyncListener;
+import fr.shyrogan.post.listener.BatchListener;
+import fr.shyrogan.post.listener.InstrumentedListener;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.RecordedListener;
+import fr.shyrogan.post.listener.ThreadAffineListener;
+import fr.shyrogan.post.metrics.EventBusMetrics;
+
+import jdk.jfr.EventType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static java.util.Comparator.comparingInt;
+
+/**
+ * Associates each topic (message's class) to its {@link Topic}.
+ * <p>Modifications are performed synchronously and serialized, they copy the listeners of the modified topic, sort
+ * them and publish the result along with a new dispatcher. A subscription is therefore visible as soon as the method
+ * returns while dispatching never has to lock.</p>
+ * <p>The topic of a message class is resolved through a {@link ClassValue}, which is the cheapest lookup available: it
+ * is created the first time the class is dispatched, with a dead dispatcher if nobody listens to it.</p>
+ * <p>When the dispatch is polymorphic, the dispatcher of each topic merges the listeners of each of its super types.
+ * Only the topics inheriting from a modified topic are published again.</p>
+ * <p>When a topic has a key extractor, its listeners with a key are indexed by key, so that a message is dispatched
+ * only to the listeners of its key (and to the listeners without key). Subscribing or unsubscribing listeners with a
+ * key only rebuilds the dispatchers of their keys.</p>
+ * <p>When metrics (or flight recorder events) are enabled, the dispatcher of each topic and its executed listeners are
+ * instrumented. When flight recorder events are enabled, subscriptions and dispatcher rebuilds are also recorded as
+ * flight recorder events.</p>
+ * <p>The listeners bound to an execution context are invoked by the thread owning that context, see {@link
+ * ExecutionContext}.</p>
+ */
+@SuppressWarnings("ALL")
+public final class ListenerRegistry {
+
+    private final EventBusConfiguration         configuration;
+    private final boolean                       polymorphic;
+    private final Executor                      asyncExecutor;
+    private final EventBusMetrics               metrics;
+    private final boolean                       recorded;
+    private final Map<Class<?>, Topic>          topics;
+    private final Map<String, ExecutionContext> contexts = new ConcurrentHashMap<>();
+    private final ClassValue<Topic>             lookup = new ClassValue<Topic>() {
+        @Override
+        protected Topic computeValue(Class<?> type) {
+            return materialize(type);
+        }
+    };
+
+    /**
+     * Creates a new registry.
+     *
+     * @param configuration The event bus configuration.
+     */
+    public ListenerRegistry(EventBusConfiguration configuration) {
+        this.configuration = configuration;
+        this.polymorphic   = configuration.polymorphicDispatch();
+        this.asyncExecutor = configuration.asyncExecutor();
+        this.metrics       = configuration.metricsEnabled()
+                             ? new EventBusMetrics(configuration.metricsSamplingInterval()) : null;
+        this.recorded      = configuration.flightRecorderEvents();
+        this.topics        = new ConcurrentHashMap<>(configuration.initialReceiverMapCapacity());
+    }
+
+    /**
+     * Returns the topic of specified message class, it is created if it does not exist yet.
+     *
+     * @param type The message class.
+     *
+     * @return The topic.
+     */
+    public Topic topic(Class<?> type) {
+        return lookup.get(type);
+    }
+
+    /**
+     * Returns each known topic.
+     *
+     * @return The topics.
+     */
+    public Collection<Topic> topics() {
+        return topics.values();
+    }
+
+    /**
+     * Adds specified listener to its topic, after the listeners of higher or equal priority.
+     *
+     * @param listener The listener.
+     */
+    public synchronized void subscribe(Listener listener) {
+        final SubscriptionEvent event = beginSubscription();
+
+        final Topic  topic = topicOf(listener.topic());
+        final Object key   = listener.key();
+        topic.listeners(merge(topic.listeners(), new Listener[] { listener }));
+        topic.listeners(key, merge(topic.listeners(key), new Listener[] { listener }));
+
+        publish(singletonList(topic), singleton(key));
+        if (event != null) event.commit(true, 1);
+    }
+
+    /**
+     * Adds each of specified listeners to their topic. Listeners are grouped by topic, sorted once and merged with the
+     * listeners already subscribed so that each modified topic is published only once.
+     *
+     * @param listeners The listeners.
+     */
+    public synchronized void subscribe(Collection<? extends Listener> listeners) {
+        final SubscriptionEvent event = beginSubscription();
+
+        final List<Topic> modified = new ArrayList<>();
+        final Set<Object> keys     = new HashSet<>();
+        for (Map.Entry<Class<?>, List<Listener>> entry : byTopic(listeners).entrySet()) {
+            final Topic      topic = topicOf(entry.getKey());
+            final Listener[] added = entry.getValue().toArray(Topic.EMPTY);
+            // Stable, so listeners of equal priority keep their subscription order
+            Arrays.sort(added, comparingInt(l -> -l.priority()));
+
+            topic.listeners(merge(topic.listeners(), added));
+            for (Map.Entry<Object, List<Listener>> keyed : byKey(Arrays.asList(added)).entrySet()) {
+                final Object key = keyed.getKey();
+                topic.listeners(key, merge(topic.listeners(key), keyed.getValue().toArray(Topic.EMPTY)));
+                keys.add(key);
+            }
+            modified.add(topic);
+        }
+        publish(modified, keys);
+        if (event != null) event.commit(true, listeners.size());
+    }
+
+    /**
+     * Removes specified listener from its topic, if it was subscribed.
+     *
+     * @param listener The listener.
+     */
+    public synchronized void unsubscribe(Listener listener) {
+        final Topic topic = topics.get(listener.topic());
+        if (topic == null) return;
+
+        final SubscriptionEvent event = beginSubscription();
+
+        final Listener[] current = topic.listeners();
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                final Listener[] listeners = new Listener[current.length - 1];
+                System.arraycopy(current, 0, listeners, 0, i);
+                System.arraycopy(current, i + 1, listeners, i, listeners.length - i);
+                topic.listeners(listeners);
+
+                final Object key = current[i].key();
+                topic.listeners(key, remove(topic.listeners(key), current[i]));
+                publish(singletonList(topic), singleton(key));
+                if (event != null) event.commit(false, 1);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes each of specified listeners from their topic, each modified topic is published only once.
+     *
+     * @param listeners The listeners.
+     */
+    public synchronized void unsubscribe(Collection<? extends Listener> listeners) {
+        final SubscriptionEvent event = beginSubscription();
+
+        final List<Topic> modified = new ArrayList<>();
+        final Set<Object> keys     = new HashSet<>();
+        for (Map.Entry<Class<?>, List<Listener>> entry : byTopic(listeners).entrySet()) {
+            final Topic topic = topics.get(entry.getKey());
+            if (topic == null) continue;
+
+            // Each listener of the batch removes a single subscription, like unsubscribe(Listener).
+            final Map<Listener, Integer> removed = new HashMap<>();
+            for (Listener listener : entry.getValue()) removed.merge(listener, 1, Integer::sum);
+
+            final Listener[]     current   = topic.listeners();
+            final Listener[]     remaining = new Listener[current.length];
+            final List<Listener> dropped   = new ArrayList<>();
+            int size = 0;
+            for (Listener listener : current) {
+                final Integer count = removed.get(listener);
+                if (count == null) {
+                    remaining[size++] = listener;
+                    continue;
+                }
+                if (count == 1) removed.remove(listener);
+                else removed.put(listener, count - 1);
+                dropped.add(listener);
+            }
+            if (dropped.isEmpty()) continue;
+
+            topic.listeners(Arrays.copyOf(remaining, size));
+            for (Listener listener : dropped) {
+                final Object key = listener.key();
+                topic.listeners(key, remove(topic.listeners(key), listener));
+                keys.add(key);
+            }
+            modified.add(topic);
+        }
+        publish(modified, keys);
+        if (event != null) event.commit(false, listeners.size());
+    }
+
+    /**
+     * Registers the key extractor of specified topic, replacing the previous one.
+     *
+     * @param type      The message class.
+     * @param extractor The key extractor, or null to remove it.
+     */
+    public synchronized void keyExtractor(Class<?> type, Function<?, ?> extractor) {
+        final Topic topic = topicOf(type);
+        topic.keyExtractor((Function) extractor);
+        publish(singletonList(topic), null);
+    }
+
+    /**
+     * Conflates the messages of specified topic by key, replacing its previous conflation (whose pending messages are
+     * flushed first).
+     *
+     * @param type      The message class.
+     * @param extractor The key extractor, or null to stop conflating the topic.
+     *
+     * @return The conflating dispatcher, or null.
+     */
+    public synchronized ConflatingMessageDispatcher conflate(Class<?> type, Function<?, ?> extractor) {
+        final Topic                       topic    = topicOf(type);
+        final ConflatingMessageDispatcher previous = topic.conflation();
+        // The target is set when the topic is published
+        final ConflatingMessageDispatcher conflation = extractor == null ? null : new ConflatingMessageDispatcher(
+                (Function) extractor, topic.dispatcher()
+        );
+        topic.conflation(conflation);
+        publish(topic, null);
+        // No message is conflated by the previous dispatcher anymore
+        if (previous != null) previous.flush();
+        return conflation;
+    }
+
+    /**
+     * Removes every listener of every topic.
+     */
+    public synchronized void clear() {
+        for (Topic topic : topics.values()) {
+            topic.clear();
+        }
+        publish(topics.values(), null);
+    }
+
+    /**
+     * Returns the topic of specified message class, creating it if needed. Must be called while holding the lock.
+     *
+     * @param type The message class.
+     *
+     * @return The topic.
+     */
+    private Topic topicOf(Class<?> type) {
+        Topic topic = topics.get(type);
+        if (topic == null) {
+            topics.put(type, topic = new Topic(type));
+        }
+        return topic;
+    }
+
+    /**
+     * Returns the topic of a message class that is looked up for the first time, creating and publishing it if it does
+     * not exist yet.
+     *
+     * @param type The message class.
+     *
+     * @return The topic.
+     */
+    private synchronized Topic materialize(Class<?> type) {
+        Topic topic = topics.get(type);
+        if (topic == null) {
+            topic = new Topic(type);
+            publish(topic, null);
+            topics.put(type, topic);
+        }
+        return topic;
+    }
+
+    /**
+     * Publishes each topic whose dispatched listeners depend on the listeners of the modified topics.
+     *
+     * @param modified The modified topics.
+     * @param keys     The keys whose listeners were modified (null standing for the listeners without key), or null if
+     *                 anything else may have been modified.
+     */
+    private void publish(Collection<Topic> modified, Set<Object> keys) {
+        if (!polymorphic) {
+            for (Topic topic : modified) {
+                publish(topic, keys);
+            }
+            return;
+        }
+        for (Topic topic : topics.values()) {
+            for (Topic modifiedTopic : modified) {
+                if (modifiedTopic.type().isAssignableFrom(topic.type())) {
+                    publish(topic, keys);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Begins a subscription event, only allocated while it is recorded.
+     *
+     * @return The event, or null if it is not recorded.
+     */
+    private SubscriptionEvent beginSubscription() {
+        if (!recorded || !EventTypes.SUBSCRIPTION.isEnabled()) return null;
+        final SubscriptionEvent event = new SubscriptionEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Builds the dispatched listeners of specified topic, along with their dispatcher, and publishes them.
+     *
+     * @param topic The topic.
+     * @param keys  The keys whose listeners were modified (null standing for the listeners without key), or null if
+     *              anything else may have been modified.
+     */
+    private void publish(Topic topic, Set<Object> keys) {
+        // Only allocated while the event is recorded
+        final DispatcherRebuildEvent event = recorded && EventTypes.REBUILD.isEnabled()
+                                             ? new DispatcherRebuildEvent() : null;
+        if (event != null) event.begin();
+
+        Listener[] dispatched = topic.listeners();
+        if (polymorphic) {
+            final List<Listener> merged = new ArrayList<>(dispatched.length);
+            for (Class<?> type : topic.hierarchy()) {
+                final Topic superTopic = type == topic.type() ? topic : topics.get(type);
+                if (superTopic != null) Collections.addAll(merged, superTopic.listeners());
+            }
+            // Stable, so listeners of the most specific types come first among equal priorities
+            dispatched = merged.toArray(Topic.EMPTY);
+            Arrays.sort(dispatched, comparingInt(l -> -l.priority()));
+        }
+        final Function<Object, Object> extractor = keyExtractorOf(topic);
+        MessageDispatcher dispatcher = dispatcherFor(topic, dispatched, extractor, keys);
+        if (metrics != null) {
+            final boolean dead = dispatched.length == 0;
+            dispatcher = new InstrumentedMessageDispatcher(dispatcher, metrics.topic(topic.type()), dead);
+        }
+        if (recorded) dispatcher = new RecordedMessageDispatcher(dispatcher, topic.type(), dispatched.length);
+        final ConflatingMessageDispatcher conflation = topic.conflation();
+        if (conflation != null) {
+            conflation.target(dispatcher);
+            dispatcher = conflation;
+        }
+        topic.publish(dispatched, extractor, dispatcher);
+
+        if (event == null) return;
+        event.end();
+        if (event.shouldCommit()) {
+            event.topic      = topic.type();
+            event.listeners  = dispatched.length;
+            event.dispatcher = unwrapped(dispatcher).getClass();
+            event.commit();
+        }
+    }
+
+    /**
+     * Returns the key extractor of specified topic or, if the dispatch is polymorphic and it does not have one, the key
+     * extractor of its closest super type.
+     *
+     * @param topic The topic.
+     *
+     * @return The key extractor, or null.
+     */
+    private Function<Object, Object> keyExtractorOf(Topic topic) {
+        if (!polymorphic) return topic.keyExtractor();
+        for (Class<?> type : topic.hierarchy()) {
+            final Topic superTopic = type == topic.type() ? topic : topics.get(type);
+            if (superTopic != null && superTopic.keyExtractor() != null) return superTopic.keyExtractor();
+        }
+        return null;
+    }
+
+    /**
+     * Returns the dispatcher of specified dispatched listeners. If some of them have a key, they are indexed in a
+     * {@link KeyedMessageDispatcher}: when only the listeners of some keys were modified, the index of the current
+     * dispatcher is updated for these keys only.
+     *
+     * @param topic      The topic.
+     * @param dispatched The dispatched listeners.
+     * @param extractor  The key extractor, or null.
+     * @param keys       The keys whose listeners were modified (null standing for the listeners without key), or null
+     *                   if anything else may have been modified.
+     *
+     * @return The dispatcher.
+     */
+    private MessageDispatcher dispatcherFor(Topic topic, Listener[] dispatched, Function<Object, Object> extractor,
+                                            Set<Object> keys) {
+        final MessageDispatcher      current  = unwrapped(topic.dispatcher());
+        final KeyedMessageDispatcher previous = current instanceof KeyedMessageDispatcher
+                                                ? (KeyedMessageDispatcher) current : null;
+        if (keys != null && previous != null && previous.extractor() == extractor) {
+            final MessageDispatcher updated = update(topic, previous, keys);
+            if (updated != null) return updated;
+        }
+
+        final List<Listener>              unkeyed    = new ArrayList<>(dispatched.length);
+        final Map<Object, List<Listener>> keyed      = new HashMap<>();
+        final SortedSet<Integer>          priorities = new TreeSet<>(Comparator.reverseOrder());
+        for (Listener listener : dispatched) {
+            final Object key = listener.key();
+            if (key == null) {
+                unkeyed.add(listener);
+            } else {
+                keyed.computeIfAbsent(key, k -> new ArrayList<>()).add(listener);
+                priorities.add(listener.priority());
+            }
+        }
+        if (keyed.isEmpty()) return dispatcherFor(executed(dispatched));
+
+        final Listener[]        unkeyedListeners  = unkeyed.toArray(Topic.EMPTY);
+        final MessageDispatcher unkeyedDispatcher = dispatcherFor(executed(unkeyedListeners));
+        if (extractor == null) return unkeyedDispatcher;
+
+        final int[] sorted = new int[priorities.size()];
+        int         index  = 0;
+        for (int priority : priorities) sorted[index++] = priority;
+        final boolean            reused  = previous != null && Arrays.equals(previous.priorities(), sorted);
+        final Map<Object, Entry> entries = new ConcurrentHashMap<>(keyed.size() * 2);
+        for (Map.Entry<Object, List<Listener>> entry : keyed.entrySet()) {
+            final Object     key       = entry.getKey();
+            final Listener[] listeners = entry.getValue().toArray(Topic.EMPTY);
+            if (reused && Arrays.equals(previous.listeners(key), listeners)) {
+                entries.put(key, previous.entry(key));
+            } else {
+                entries.put(key, entryFor(listeners, sorted));
+            }
+        }
+        return new KeyedMessageDispatcher(extractor, unkeyedDispatcher, sorted, bandsFor(unkeyedListeners, sorted),
+                                          entries);
+    }
+
+    /**
+     * Updates the index of specified keyed dispatcher for the modified keys only, in place.
+     *
+     * @param topic    The topic.
+     * @param previous The current keyed dispatcher of the topic.
+     * @param keys     The keys whose listeners were modified, null standing for the listeners without key.
+     *
+     * @return The dispatcher, or null if a listener has a new priority, which changes every entry of the index.
+     */
+    private MessageDispatcher update(Topic topic, KeyedMessageDispatcher previous, Set<Object> keys) {
+        final int[]                   priorities = previous.priorities();
+        final Map<Object, Listener[]> modified   = new HashMap<>();
+        for (Object key : keys) {
+            if (key == null) continue;
+            final Listener[] listeners = dispatchedListeners(topic, key);
+            for (Listener listener : listeners) {
+                if (band(priorities, listener.priority()) < 0) return null;
+            }
+            modified.put(key, listeners);
+        }
+        modified.forEach((key, listeners) -> {
+            previous.entry(key, listeners.length == 0 ? null : entryFor(listeners, priorities));
+        });
+        if (!keys.contains(null)) return previous;
+
+        final Listener[] unkeyed = dispatchedListeners(topic, null);
+        return previous.withUnkeyed(dispatcherFor(executed(unkeyed)), bandsFor(unkeyed, priorities));
+    }
+
+    /**
+     * Returns the dispatched listeners of specified key: the listeners of that key subscribed to the topic or, if the
+     * dispatch is polymorphic, to one of its super types.
+     *
+     * @param topic The topic.
+     * @param key   The key, or null for the listeners without key.
+     *
+     * @return The listeners, sorted by priority.
+     */
+    private Listener[] dispatchedListeners(Topic topic, Object key) {
+        if (!polymorphic) return topic.listeners(key);
+        final List<Listener> merged = new ArrayList<>();
+        for (Class<?> type : topic.hierarchy()) {
+            final Topic superTopic = type == topic.type() ? topic : topics.get(type);
+            if (superTopic != null) Collections.addAll(merged, superTopic.listeners(key));
+        }
+        // Stable, so listeners of the most specific types come first among equal priorities
+        final Listener[] dispatched = merged.toArray(Topic.EMPTY);
+        Arrays.sort(dispatched, comparingInt(l -> -l.priority()));
+        return dispatched;
+    }
+
+    /**
+     * Builds the entry of the listeners of a key: each run of listeners of the same priority gets its own dispatcher.
+     *
+     * @param listeners  The listeners of the key, sorted by priority.
+     * @param priorities The priorities of the keyed dispatcher, in descending order.
+     *
+     * @return The entry.
+     */
+    private Entry entryFor(Listener[] listeners, int[] priorities) {
+        final Listener[]          executed    = executed(listeners);
+        final MessageDispatcher[] dispatchers = new MessageDispatcher[priorities.length];
+        int                       run         = 0;
+        for (int i = 1; i <= listeners.length; i++) {
+            if (i < listeners.length && listeners[i].priority() == listeners[run].priority()) continue;
+            dispatchers[band(priorities, listeners[run].priority())] = dispatcherFor(
+                    Arrays.copyOfRange(executed, run, i));
+            run = i;
+        }
+        return new Entry(listeners, dispatchers);
+    }
+
+    /**
+     * Builds the dispatchers of the bands of listeners without key, split at specified priorities: the listeners of a
+     * key are dispatched to after the listeners without key of higher priority, and before the other ones.
+     *
+     * @param unkeyed    The listeners without key, sorted by priority.
+     * @param priorities The priorities of the listeners with a key, in descending order.
+     *
+     * @return The dispatcher of each band, or null if it is empty.
+     */
+    private MessageDispatcher[] bandsFor(Listener[] unkeyed, int[] priorities) {
+        final Listener[]          executed = executed(unkeyed);
+        final MessageDispatcher[] bands    = new MessageDispatcher[priorities.length + 1];
+        int                       from     = 0;
+        for (int band = 0; band < bands.length; band++) {
+            int to = from;
+            while (to < executed.length && (band == priorities.length || executed[to].priority() > priorities[band])) {
+                to++;
+            }
+            if (to > from) bands[band] = dispatcherFor(Arrays.copyOfRange(executed, from, to));
+            from = to;
+        }
+        return bands;
+    }
+
+    /**
+     * Returns the index of specified priority among the priorities of a keyed dispatcher.
+     *
+     * @param priorities The priorities, in descending order.
+     * @param priority   The priority.
+     *
+     * @return The index, or a negative value if the priority is not found.
+     */
+    private static int band(int[] priorities, int priority) {
+        for (int i = 0; i < priorities.length; i++) {
+            if (priorities[i] == priority) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the dispatcher wrapped by the conflating/instrumented/recorded dispatchers, if any.
+     *
+     * @param dispatcher The dispatcher.
+     *
+     * @return The unwrapped dispatcher.
+     */
+    private static MessageDispatcher unwrapped(MessageDispatcher dispatcher) {
+        while (true) {
+            if (dispatcher instanceof ConflatingMessageDispatcher) {
+                dispatcher = ((ConflatingMessageDispatcher) dispatcher).target();
+            } else if (dispatcher instanceof RecordedMessageDispatcher) {
+                dispatcher = ((RecordedMessageDispatcher) dispatcher).dispatcher();
+            } else if (dispatcher instanceof InstrumentedMessageDispatcher) {
+                dispatcher = ((InstrumentedMessageDispatcher) dispatcher).dispatcher();
+            } else {
+                return dispatcher;
+            }
+        }
+    }
+
+    /**
+     * Merges listeners into sorted listeners, after the listeners of higher or equal priority.
+     *
+     * @param current The current listeners, sorted by priority.
+     * @param added   The added listeners, sorted by priority.
+     *
+     * @return The merged listeners.
+     */
+    private static Listener[] merge(Listener[] current, Listener[] added) {
+        final Listener[] merged = new Listener[current.length + added.length];
+        int i = 0, j = 0, k = 0;
+        while (i < current.length && j < added.length) {
+            merged[k++] = current[i].priority() >= added[j].priority() ? current[i++] : added[j++];
+        }
+        while (i < current.length) merged[k++] = current[i++];
+        while (j < added.length) merged[k++] = added[j++];
+        return merged;
+    }
+
+    /**
+     * Removes the first occurrence of specified listener from sorted listeners.
+     *
+     * @param current  The current listeners.
+     * @param listener The removed listener.
+     *
+     * @return The remaining listeners.
+     */
+    private static Listener[] remove(Listener[] current, Listener listener) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].equals(listener)) {
+                final Listener[] remaining = new Listener[current.length - 1];
+                System.arraycopy(current, 0, remaining, 0, i);
+                System.arraycopy(current, i + 1, remaining, i, remaining.length - i);
+                return remaining;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the dispatcher of specified executed listeners. If some of them receive batches, the dispatcher is
+     * wrapped into a {@link BatchMessageDispatcher} whose runs of other listeners get their own dispatcher.
+     *
+     * @param listeners The executed listeners.
+     *
+     * @return The dispatcher.
+     */
+    private MessageDispatcher dispatcherFor(Listener[] listeners) {
+        final MessageDispatcher dispatcher = configuration.dispatcherFor(listeners);
+        final List<Object>      segments   = new ArrayList<>();
+        int                     run        = 0;
+        for (int i = 0; i < listeners.length; i++) {
+            if (!(listeners[i] instanceof BatchListener)) continue;
+            if (run < i) segments.add(configuration.dispatcherFor(Arrays.copyOfRange(listeners, run, i)));
+            segments.add(listeners[i]);
+            run = i + 1;
+        }
+        if (segments.isEmpty()) return dispatcher;
+        if (run < listeners.length) {
+            segments.add(configuration.dispatcherFor(Arrays.copyOfRange(listeners, run, listeners.length)));
+        }
+        return new BatchMessageDispatcher(dispatcher, segments.toArray());
+    }
+
+    /**
+     * Returns the listeners as they are executed by the dispatcher: when flight recorder events or metrics are enabled,
+     * listeners (except the ones receiving batches) are wrapped into a {@link RecordedListener} or an {@link
+     * InstrumentedListener}, the listeners bound to an execution context are then wrapped into a {@link
+     * ThreadAffineListener} and the other asynchronous listeners into an {@link AsyncListener}.
+     *
+     * @param listeners The listeners.
+     *
+     * @return The listeners executed by the dispatcher.
+     */
+    private Listener[] executed(Listener[] listeners) {
+        Listener[] executed = listeners;
+        if (recorded || metrics != null) {
+            executed = listeners.clone();
+            for (int i = 0; i < executed.length; i++) {
+                if (executed[i] instanceof BatchListener) continue;
+                if (recorded) executed[i] = new RecordedListener(executed[i]);
+                if (metrics != null) {
+                    executed[i] = new InstrumentedListener(executed[i], metrics.listener(listeners[i]));
+                }
+            }
+        }
+        for (int i = 0; i < listeners.length; i++) {
+            if (executed[i] instanceof BatchListener) continue;
+            // The execution context takes precedence over the asynchronous execution
+            if (executed[i].thread() != null) {
+                if (!(executed[i] instanceof ThreadAffineListener)) {
+                    if (executed == listeners) executed = listeners.clone();
+                    executed[i] = new ThreadAffineListener(executed[i], context(executed[i].thread()));
+                }
+            } else if (executed[i].async() && !(executed[i] instanceof AsyncListener)) {
+                if (executed == listeners) executed = listeners.clone();
+                executed[i] = new AsyncListener(executed[i], asyncExecutor);
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Returns the execution context of specified name, creating it if needed.
+     *
+     * @param name The name.
+     *
+     * @return The execution context.
+     */
+    public ExecutionContext context(String name) {
+        return contexts.computeIfAbsent(name, ExecutionContext::new);
+    }
+
+    /**
+     * Returns the metrics of the event bus.
+     *
+     * @return The metrics, or null if they are disabled.
+     */
+    public EventBusMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the executor used to invoke the asynchronous listeners.
+     *
+     * @return The executor.
+     */
+    public Executor asyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Groups specified listeners by topic, keeping their order.
+     *
+     * @param listeners The listeners.
+     *
+     * @return The listeners of each topic.
+     */
+    private static Map<Class<?>, List<Listener>> byTopic(Collection<? extends Listener> listeners) {
+        final Map<Class<?>, List<Listener>> byTopic = new LinkedHashMap<>();
+        for (Listener listener : listeners) {
+            byTopic.computeIfAbsent(listener.topic(), t -> new ArrayList<>()).add(listener);
+        }
+        return byTopic;
+    }
+
+    /**
+     * Groups specified listeners by key, keeping their order.
+     *
+     * @param listeners The listeners.
+     *
+     * @return The listeners of each key, null being the key of the listeners without key.
+     */
+    private static Map<Object, List<Listener>> byKey(Collection<? extends Listener> listeners) {
+        final Map<Object, List<Listener>> byKey = new LinkedHashMap<>();
+        for (Listener listener : listeners) {
+            byKey.computeIfAbsent(listener.key(), k -> new ArrayList<>()).add(listener);
+        }
+        return byKey;
+    }
+
+    /**
+     * The flight recorder event types, checked before allocating an event. Looking them up registers the metadata of
+     * the flight recorder, so they are only loaded once a registry records flight recorder events.
+     */
+    private final static class EventTypes {
+        private final static EventType SUBSCRIPTION = EventType.getEventType(SubscriptionEvent.class),
+                                       REBUILD      = EventType.getEventType(DispatcherRebuildEvent.class);
+    }
+
+}
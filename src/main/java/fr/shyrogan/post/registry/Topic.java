@@ -0,0 +1,295 @@
+package fr.shyrogan.post.registry;
+
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.ConflatingMessageDispatcher;
+import fr.shyrogan.post.dispatcher.impl.DeadMessageDispatcher;
+import fr.shyrogan.post.listener.Listener;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A topic holds the listeners subscribed to a message class along with the dispatcher built from them.
+ * <p>The listeners are stored in an immutable array, sorted by priority, which is replaced (copy-on-write) by the
+ * {@link ListenerRegistry} whenever a listener is subscribed/unsubscribed. Dispatching only reads the volatile
+ * dispatcher field, it is therefore lock-free and never sees a topic being modified.</p>
+ * <p>The listeners are also indexed by key (see {@link Listener#key()}), so that the dispatcher of a single key can be
+ * updated without going through every listener.</p>
+ * <p>When the dispatch is polymorphic, the dispatched listeners also contain the listeners subscribed to each super
+ * type of the message class.</p>
+ * <p>A topic can also expose its dispatcher through a {@link MutableCallSite}, relinked whenever a new dispatcher is
+ * published, so that pre-bound publishers do not have to look the topic or its dispatcher up.</p>
+ * <p>A conflated topic publishes its {@link ConflatingMessageDispatcher}, whose target is the dispatcher built from the
+ * listeners.</p>
+ */
+@SuppressWarnings("ALL")
+public final class Topic {
+
+    /** The empty listener array **/
+    final static Listener[] EMPTY = new Listener[0];
+
+    /** The MessageDispatcher#dispatch(Object) method **/
+    private final static MethodHandle DISPATCH;
+
+    static {
+        try {
+            DISPATCH = MethodHandles.publicLookup().findVirtual(
+                    MessageDispatcher.class, "dispatch", MethodType.methodType(void.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final    Class<?>                    type;
+    private final    Class<?>[]                  hierarchy;
+    private volatile Listener[]                  listeners  = EMPTY;
+    private volatile Listener[]                  dispatched = EMPTY;
+    private volatile MessageDispatcher           dispatcher = new DeadMessageDispatcher();
+    private volatile Function                    keyExtractor;
+    private volatile Function                    dispatchedKeyExtractor;
+    private volatile ConflatingMessageDispatcher conflation;
+    private          MutableCallSite             callSite;
+    /** The listeners subscribed with each key and without key, sorted by priority, guarded by the registry **/
+    private final    Map<Object, Listener[]>     keyed      = new HashMap<>();
+    private          Listener[]                  unkeyed    = EMPTY;
+
+    Topic(Class<?> type) {
+        this.type      = type;
+        this.hierarchy = hierarchyOf(type);
+    }
+
+    /**
+     * Returns the message class of this topic.
+     *
+     * @return The message class.
+     */
+    public Class<?> type() {
+        return type;
+    }
+
+    /**
+     * Returns the message class followed by its super classes then by each of its interfaces.
+     *
+     * @return The type hierarchy of the message class. The array must not be modified.
+     */
+    public Class<?>[] hierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * Returns the current snapshot of the listeners subscribed to this topic, sorted by priority. The array must not
+     * be modified.
+     *
+     * @return The listeners.
+     */
+    public Listener[] listeners() {
+        return listeners;
+    }
+
+    /**
+     * Returns the current snapshot of the listeners the messages are dispatched to, sorted by priority. The array must
+     * not be modified.
+     *
+     * @return The dispatched listeners.
+     */
+    public Listener[] dispatchedListeners() {
+        return dispatched;
+    }
+
+    /**
+     * Returns the dispatcher built from the current snapshot of the dispatched listeners.
+     *
+     * @return The dispatcher.
+     */
+    public MessageDispatcher dispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * Returns the key extractor registered to this topic.
+     *
+     * @return The key extractor, or null.
+     */
+    public Function<Object, Object> keyExtractor() {
+        return keyExtractor;
+    }
+
+    /**
+     * Returns the conflating dispatcher of this topic.
+     *
+     * @return The conflating dispatcher, or null if the topic is not conflated.
+     */
+    public ConflatingMessageDispatcher conflation() {
+        return conflation;
+    }
+
+    /**
+     * Returns the key of specified message, as extracted by the key extractor the messages are dispatched with (which,
+     * if the dispatch is polymorphic, may be the key extractor of a super type).
+     *
+     * @param message The message.
+     *
+     * @return The key, or null if the topic does not have a key extractor.
+     */
+    public Object keyOf(Object message) {
+        final Function extractor = dispatchedKeyExtractor;
+        return extractor == null ? null : extractor.apply(message);
+    }
+
+    /**
+     * Returns the call site linked to the dispatcher of this topic, whose type is {@code (Object)void}. It is created
+     * the first time it is requested, and then relinked whenever a new dispatcher is published.
+     *
+     * @return The call site.
+     */
+    public synchronized MutableCallSite callSite() {
+        if (callSite == null) {
+            callSite = new MutableCallSite(DISPATCH.bindTo(dispatcher));
+        }
+        return callSite;
+    }
+
+    /**
+     * Dispatches specified message to each of the listeners of this topic.
+     *
+     * @param message The message.
+     */
+    public void dispatch(Object message) {
+        dispatcher.dispatch(message);
+    }
+
+    /**
+     * Dispatches a batch of messages of this topic to each of the listeners of this topic.
+     *
+     * @param messages The messages.
+     * @param from     The index of the first message (inclusive).
+     * @param to       The index of the last message (exclusive).
+     */
+    public void dispatchAll(Object[] messages, int from, int to) {
+        dispatcher.dispatchAll(messages, from, to);
+    }
+
+    /**
+     * Replaces the listeners subscribed to this topic, they are not dispatched to until they are published.
+     *
+     * @param listeners The listeners.
+     */
+    void listeners(Listener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * Returns the listeners subscribed to this topic with specified key, sorted by priority. The array must not be
+     * modified.
+     *
+     * @param key The key, or null for the listeners without key.
+     *
+     * @return The listeners.
+     */
+    Listener[] listeners(Object key) {
+        if (key == null) return unkeyed;
+        final Listener[] listeners = keyed.get(key);
+        return listeners == null ? EMPTY : listeners;
+    }
+
+    /**
+     * Replaces the listeners subscribed to this topic with specified key, they are not dispatched to until they are
+     * published.
+     *
+     * @param key       The key, or null for the listeners without key.
+     * @param listeners The listeners.
+     */
+    void listeners(Object key, Listener[] listeners) {
+        if (key == null) unkeyed = listeners;
+        else if (listeners.length == 0) keyed.remove(key);
+        else keyed.put(key, listeners);
+    }
+
+    /**
+     * Removes every listener of this topic, they are still dispatched to until the topic is published.
+     */
+    void clear() {
+        listeners = EMPTY;
+        unkeyed   = EMPTY;
+        keyed.clear();
+    }
+
+    /**
+     * Replaces the key extractor registered to this topic, it is not used until the topic is published.
+     *
+     * @param keyExtractor The key extractor.
+     */
+    void keyExtractor(Function<Object, Object> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Replaces the conflating dispatcher of this topic, it is not used until the topic is published.
+     *
+     * @param conflation The conflating dispatcher, or null.
+     */
+    void conflation(ConflatingMessageDispatcher conflation) {
+        this.conflation = conflation;
+    }
+
+    /**
+     * Publishes a new snapshot of the dispatched listeners along with their dispatcher.
+     *
+     * @param dispatched   The dispatched listeners.
+     * @param keyExtractor The key extractor used by the dispatcher.
+     * @param dispatcher   The dispatcher.
+     */
+    synchronized void publish(Listener[] dispatched, Function<Object, Object> keyExtractor,
+                              MessageDispatcher dispatcher) {
+        this.dispatched             = dispatched;
+        this.dispatchedKeyExtractor = keyExtractor;
+        this.dispatcher = dispatcher;
+        if (callSite != null) {
+            callSite.setTarget(DISPATCH.bindTo(dispatcher));
+            MutableCallSite.syncAll(new MutableCallSite[] { callSite });
+        }
+    }
+
+    /**
+     * Returns the type hierarchy of specified class: itself, its super classes and then its interfaces (breadth
+     * first).
+     *
+     * @param type The class.
+     *
+     * @return The type hierarchy.
+     */
+    private static Class<?>[] hierarchyOf(Class<?> type) {
+        final Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            hierarchy.add(current);
+        }
+        final List<Class<?>> queue = new ArrayList<>(hierarchy);
+        for (int i = 0; i < queue.size(); i++) {
+            for (Class<?> implemented : queue.get(i).getInterfaces()) {
+                if (hierarchy.add(implemented)) queue.add(implemented);
+            }
+        }
+        return hierarchy.toArray(new Class<?>[0]);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder  = new StringBuilder(type.getSimpleName()).append('=');
+        final Listener[]    snapshot = listeners;
+        for (int i = 0; i < snapshot.length; i++) {
+            if (i > 0) builder.append(',');
+            builder.append(snapshot[i]);
+        }
+        return builder.toString();
+    }
+
+}
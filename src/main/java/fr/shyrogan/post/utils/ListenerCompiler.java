@@ -1,13 +1,24 @@
 package fr.shyrogan.post.utils;
 
+import fr.shyrogan.post.dispatcher.MessageDispatcher;
+import fr.shyrogan.post.jfr.CompilationEvent;
 import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import fr.shyrogan.post.message.Cancellable;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Type;
 import org.objectweb.asm.tree.*;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
+import static java.lang.reflect.Modifier.isFinal;
 import static java.lang.reflect.Modifier.isStatic;
 import static org.objectweb.asm.ClassWriter.COMPUTE_FRAMES;
 import static org.objectweb.asm.Opcodes.*;
@@ -24,14 +35,25 @@ public class ListenerCompiler {
     private final static String CLASS_TYPE    = "java/lang/Class";
     /** The receiver type name **/
     private final static String RECEIVER_TYPE = getTypeName(Listener.class);
+    /** The dispatcher type name **/
+    private final static String DISPATCHER_TYPE = getTypeName(MessageDispatcher.class);
+    /** The cancellable type name **/
+    private final static String CANCELLABLE_TYPE = getTypeName(Cancellable.class);
+    /** The weak reference type name **/
+    private final static String WEAK_REFERENCE_TYPE = getTypeName(WeakReference.class);
 
     /**
      * Generates a receiver implementation that calls specified method.
-     * <p>{@code fields for parent, topic, priority}</p>
+     * <p>{@code fields for parent (weakly referenced, so that the receiver does not keep it reachable), topic,
+     * priority}</p>
      * <p>{@code constructor(Parent, Topic, Priority)}</p>
      * <p>{@code topic() => returns topic}</p>
      * <p>{@code priority() => return priority}</p>
-     * <p>{@code receive(T) => invokes the method using invokevirtual}</p>
+     * <p>{@code async() => return true (only if the method is asynchronous)}</p>
+     * <p>{@code key() => return key (only if the method has a key)}</p>
+     * <p>{@code receiveCancelled() => return true (only if the method receives cancelled messages)}</p>
+     * <p>{@code thread() => return thread (only if the method has an execution context)}</p>
+     * <p>{@code receive(T) => invokes the method using invokevirtual, unless the parent has been collected}</p>
      * <p>{@code receive(Object) => casts the object to T then invokes receive(T)}</p>
      *
      * @param generatedClassName The generated class name.
@@ -46,6 +68,10 @@ public class ListenerCompiler {
         String parentType = getTypeName(parent);
         String topicType  = getTypeName(topic);
 
+        // Times the generation for the flight recorder
+        CompilationEvent EVENT = new CompilationEvent();
+        EVENT.begin();
+
         ClassNode NODE = new ClassNode();
         NODE.visit(V1_8, ACC_PUBLIC + ACC_SUPER, generatedClassName,
                    'L' + OBJECT_TYPE + ";L" + RECEIVER_TYPE + "<L" + topicType + ";>;", OBJECT_TYPE,
@@ -56,7 +82,9 @@ public class ListenerCompiler {
 
         //<editor-fold desc="Fields">
         // The parent field
-        FieldNode PARENT_FIELD = new FieldNode(ACC_PRIVATE + ACC_FINAL, "parent", 'L' + parentType + ';', null, null);
+        FieldNode PARENT_FIELD = new FieldNode(ACC_PRIVATE + ACC_FINAL, "parent", 'L' + WEAK_REFERENCE_TYPE + ';',
+                                               null, null
+        );
 
         // The topic field
         FieldNode TOPIC_FIELD = new FieldNode(ACC_PRIVATE + ACC_FINAL, "topic", 'L' + CLASS_TYPE + ";",
@@ -79,11 +107,16 @@ public class ListenerCompiler {
         );
         INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 0));
         INIT_METHOD.instructions.add(new MethodInsnNode(INVOKESPECIAL, OBJECT_TYPE, "<init>", "()V", false));
-        // Puts the parent field value
+        // Puts the parent field value, a weak reference to the (checked) parent
         INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 0));
+        INIT_METHOD.instructions.add(new TypeInsnNode(NEW, WEAK_REFERENCE_TYPE));
+        INIT_METHOD.instructions.add(new InsnNode(DUP));
         INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 1));
         INIT_METHOD.instructions.add(new TypeInsnNode(CHECKCAST, parentType));
-        INIT_METHOD.instructions.add(new FieldInsnNode(PUTFIELD, generatedClassName, "parent", 'L' + parentType + ';'));
+        INIT_METHOD.instructions.add(
+                new MethodInsnNode(INVOKESPECIAL, WEAK_REFERENCE_TYPE, "<init>", "(L" + OBJECT_TYPE + ";)V", false));
+        INIT_METHOD.instructions.add(
+                new FieldInsnNode(PUTFIELD, generatedClassName, "parent", 'L' + WEAK_REFERENCE_TYPE + ';'));
         // Puts the topic field value
         INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 0));
         INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 2));
@@ -110,6 +143,39 @@ public class ListenerCompiler {
         GET_PRIORITY_METHOD.instructions.add(new FieldInsnNode(GETFIELD, generatedClassName, "priority", "I"));
         GET_PRIORITY_METHOD.instructions.add(new InsnNode(IRETURN));
 
+        // Implements the async() method if the listener is asynchronous (it is constant for each method).
+        Subscribe annotation = method.getAnnotation(Subscribe.class);
+        if (annotation != null && annotation.async()) {
+            MethodNode ASYNC_METHOD = new MethodNode(ACC_PUBLIC, "async", "()Z", null, null);
+            ASYNC_METHOD.instructions.add(new InsnNode(ICONST_1));
+            ASYNC_METHOD.instructions.add(new InsnNode(IRETURN));
+            NODE.methods.add(ASYNC_METHOD);
+        }
+
+        // Implements the key() method if the listener has a key (it is constant for each method).
+        if (annotation != null && !annotation.key().isEmpty()) {
+            MethodNode KEY_METHOD = new MethodNode(ACC_PUBLIC, "key", "()L" + OBJECT_TYPE + ';', null, null);
+            KEY_METHOD.instructions.add(new LdcInsnNode(annotation.key()));
+            KEY_METHOD.instructions.add(new InsnNode(ARETURN));
+            NODE.methods.add(KEY_METHOD);
+        }
+
+        // Implements the receiveCancelled() method if the listener receives cancelled messages (constant as well).
+        if (annotation != null && annotation.receiveCancelled()) {
+            MethodNode RECEIVE_CANCELLED_METHOD = new MethodNode(ACC_PUBLIC, "receiveCancelled", "()Z", null, null);
+            RECEIVE_CANCELLED_METHOD.instructions.add(new InsnNode(ICONST_1));
+            RECEIVE_CANCELLED_METHOD.instructions.add(new InsnNode(IRETURN));
+            NODE.methods.add(RECEIVE_CANCELLED_METHOD);
+        }
+
+        // Implements the thread() method if the listener has an execution context (constant as well).
+        if (annotation != null && !annotation.thread().isEmpty()) {
+            MethodNode THREAD_METHOD = new MethodNode(ACC_PUBLIC, "thread", "()Ljava/lang/String;", null, null);
+            THREAD_METHOD.instructions.add(new LdcInsnNode(annotation.thread()));
+            THREAD_METHOD.instructions.add(new InsnNode(ARETURN));
+            NODE.methods.add(THREAD_METHOD);
+        }
+
         // Implements the onReceive(T) method.
         MethodNode CALL_METHOD = new MethodNode(ACC_PUBLIC, "receive", "(L" + topicType + ";)V", null, null);
         if (isStatic(method.getModifiers())) {
@@ -119,14 +185,24 @@ public class ListenerCompiler {
                     new MethodInsnNode(INVOKESTATIC, parentType, method.getName(), getMethodDescriptor(method), false));
             CALL_METHOD.instructions.add(new InsnNode(RETURN));
         } else {
-            // If its static
+            // Otherwise the parent is dereferenced, the message is dropped if it has been collected (the receiver is
+            // then unsubscribed lazily).
+            LabelNode COLLECTED_LABEL = new LabelNode();
             CALL_METHOD.instructions.add(new VarInsnNode(ALOAD, 0));
             CALL_METHOD.instructions.add(
-                    new FieldInsnNode(GETFIELD, generatedClassName, "parent", "L" + parentType + ";"));
+                    new FieldInsnNode(GETFIELD, generatedClassName, "parent", 'L' + WEAK_REFERENCE_TYPE + ';'));
+            CALL_METHOD.instructions.add(
+                    new MethodInsnNode(INVOKEVIRTUAL, WEAK_REFERENCE_TYPE, "get", "()L" + OBJECT_TYPE + ';', false));
+            CALL_METHOD.instructions.add(new InsnNode(DUP));
+            CALL_METHOD.instructions.add(new JumpInsnNode(IFNULL, COLLECTED_LABEL));
+            CALL_METHOD.instructions.add(new TypeInsnNode(CHECKCAST, parentType));
             CALL_METHOD.instructions.add(new VarInsnNode(ALOAD, 1));
             CALL_METHOD.instructions.add(
                     new MethodInsnNode(INVOKEVIRTUAL, parentType, method.getName(), getMethodDescriptor(method)));
             CALL_METHOD.instructions.add(new InsnNode(RETURN));
+            CALL_METHOD.instructions.add(COLLECTED_LABEL);
+            CALL_METHOD.instructions.add(new InsnNode(POP));
+            CALL_METHOD.instructions.add(new InsnNode(RETURN));
         }
 
         // Casts the type and then call.
@@ -149,7 +225,209 @@ public class ListenerCompiler {
         ClassWriter WRITER = new ClassWriter(COMPUTE_FRAMES);
         NODE.accept(WRITER);
 
-        return WRITER.toByteArray();
+        return EVENT.commit(generatedClassName, WRITER.toByteArray());
+    }
+
+    /**
+     * Generates a dispatcher implementation that calls each of the listeners directly, in the order they are given.
+     * <p>{@code fields l0, l1, ... typed using the listener types}</p>
+     * <p>{@code constructor(Listener[]) => casts and stores each listener into its field}</p>
+     * <p>{@code dispatch(Object) => casts the message once per topic then invokes each listener's receive(T)}</p>
+     * Every call site of the generated dispatcher targets a single class, which allows the JIT to inline each of the
+     * listeners whereas the shared call site of an iteration goes megamorphic as soon as 3 classes are involved.
+     * A listener type can be {@link Listener} itself when its class cannot be referenced by the generated class, it is
+     * then invoked through the interface.
+     * <p>{@code if (Cancellable.cancelled(message)) => skips the listeners that do not receive cancelled messages, or
+     * returns if none of the next listeners receive them (only if the message can be a Cancellable)}</p>
+     *
+     * @param generatedClassName The generated class name.
+     * @param topics             The topic type of each listener (or {@link Object} if it cannot be referenced).
+     * @param listenerTypes      The type of each listener.
+     * @param receiveCancelled   Whether each listener receives cancelled messages.
+     *
+     * @return A dispatcher implementation compiled on the fly.
+     */
+    public static byte[] dispatcherByteCode(String generatedClassName, Class<?>[] topics, Class<?>[] listenerTypes,
+                                            boolean[] receiveCancelled) {
+        // Times the generation for the flight recorder
+        CompilationEvent EVENT = new CompilationEvent();
+        EVENT.begin();
+
+        ClassNode NODE = new ClassNode();
+        NODE.visit(V1_8, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, generatedClassName, null, OBJECT_TYPE,
+                   new String[] { DISPATCHER_TYPE }
+        );
+        NODE.fields  = new ArrayList<>();
+        NODE.methods = new ArrayList<>();
+
+        // Builds a constructor that stores each listener inside of its own (typed) field.
+        MethodNode INIT_METHOD = new MethodNode(ACC_PUBLIC, "<init>", "([L" + RECEIVER_TYPE + ";)V", null, null);
+        INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 0));
+        INIT_METHOD.instructions.add(new MethodInsnNode(INVOKESPECIAL, OBJECT_TYPE, "<init>", "()V", false));
+
+        // Implements the dispatch(Object) method by casting the message once per topic (they only differ when
+        // listeners of super types are involved) and storing it in a local variable.
+        MethodNode DISPATCH_METHOD = new MethodNode(ACC_PUBLIC, "dispatch", "(L" + OBJECT_TYPE + ";)V", null, null);
+        Map<Class<?>, Integer> CASTED_LOCALS = new HashMap<>();
+        for (Class<?> topic : topics) {
+            if (CASTED_LOCALS.containsKey(topic)) continue;
+            CASTED_LOCALS.put(topic, CASTED_LOCALS.size() + 2);
+            DISPATCH_METHOD.instructions.add(new VarInsnNode(ALOAD, 1));
+            DISPATCH_METHOD.instructions.add(new TypeInsnNode(CHECKCAST, getTypeName(topic)));
+            DISPATCH_METHOD.instructions.add(new VarInsnNode(ASTORE, CASTED_LOCALS.get(topic)));
+        }
+
+        // The cancellation is only checked if the message can be a Cancellable, the check of a listener jumps to the
+        // next listener receiving cancelled messages, or directly to the end if there is none.
+        boolean CANCELLABLE = false;
+        for (Class<?> topic : topics) {
+            CANCELLABLE |= !isFinal(topic.getModifiers()) || Cancellable.class.isAssignableFrom(topic);
+        }
+        LabelNode RETURN_LABEL = new LabelNode();
+        boolean[] RECEIVED_AFTER = new boolean[listenerTypes.length];
+        for (int i = listenerTypes.length - 2; i >= 0; i--) {
+            RECEIVED_AFTER[i] = RECEIVED_AFTER[i + 1] || receiveCancelled[i + 1];
+        }
+
+        for (int i = 0; i < listenerTypes.length; i++) {
+            Class<?> listenerType = listenerTypes[i];
+            String   fieldName    = "l" + i;
+            String   fieldType    = 'L' + getTypeName(listenerType) + ';';
+            NODE.fields.add(new FieldNode(ACC_PRIVATE + ACC_FINAL, fieldName, fieldType, null, null));
+
+            // this.li = (Type) listeners[i]
+            INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 0));
+            INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 1));
+            INIT_METHOD.instructions.add(new LdcInsnNode(i));
+            INIT_METHOD.instructions.add(new InsnNode(AALOAD));
+            INIT_METHOD.instructions.add(new TypeInsnNode(CHECKCAST, getTypeName(listenerType)));
+            INIT_METHOD.instructions.add(new FieldInsnNode(PUTFIELD, generatedClassName, fieldName, fieldType));
+
+            // if (Cancellable.cancelled(message)) goto next/return
+            LabelNode NEXT_LABEL = new LabelNode();
+            if (CANCELLABLE && !receiveCancelled[i]) {
+                DISPATCH_METHOD.instructions.add(new VarInsnNode(ALOAD, 1));
+                DISPATCH_METHOD.instructions.add(new MethodInsnNode(
+                        INVOKESTATIC, CANCELLABLE_TYPE, "cancelled", "(L" + OBJECT_TYPE + ";)Z", true));
+                DISPATCH_METHOD.instructions.add(
+                        new JumpInsnNode(IFNE, RECEIVED_AFTER[i] ? NEXT_LABEL : RETURN_LABEL));
+            }
+
+            // this.li.receive(message)
+            DISPATCH_METHOD.instructions.add(new VarInsnNode(ALOAD, 0));
+            DISPATCH_METHOD.instructions.add(new FieldInsnNode(GETFIELD, generatedClassName, fieldName, fieldType));
+            DISPATCH_METHOD.instructions.add(new VarInsnNode(ALOAD, CASTED_LOCALS.get(topics[i])));
+            DISPATCH_METHOD.instructions.add(receiveInstruction(listenerType, topics[i]));
+            DISPATCH_METHOD.instructions.add(NEXT_LABEL);
+        }
+        INIT_METHOD.instructions.add(new InsnNode(RETURN));
+        DISPATCH_METHOD.instructions.add(RETURN_LABEL);
+        DISPATCH_METHOD.instructions.add(new InsnNode(RETURN));
+
+        // Put them all together
+        NODE.methods.add(INIT_METHOD);
+        NODE.methods.add(DISPATCH_METHOD);
+
+        ClassWriter WRITER = new ClassWriter(COMPUTE_FRAMES);
+        NODE.accept(WRITER);
+
+        return EVENT.commit(generatedClassName, WRITER.toByteArray());
+    }
+
+    /**
+     * Generates a publisher implementation invoking the method handle given as class data, which must be defined as a
+     * hidden class (whose static final fields are trusted by the JIT) in the package of the publisher type.
+     * <p>{@code static final field invoker initialized with MethodHandles.classData}</p>
+     * <p>{@code constructor(Class) => calls the super constructor}</p>
+     * <p>{@code publish(Object) => invoker.invokeExact(message)}</p>
+     *
+     * @param generatedClassName The generated class name.
+     * @param publisherType      The (abstract) publisher type, with a constructor taking the topic.
+     *
+     * @return A publisher implementation compiled on the fly.
+     */
+    public static byte[] publisherByteCode(String generatedClassName, Class<?> publisherType) {
+        // A bench of utilities required later
+        String superType   = getTypeName(publisherType);
+        String handleType  = 'L' + getTypeName(MethodHandle.class) + ';';
+        String lookupType  = getTypeName(MethodHandles.Lookup.class);
+        String handlesType = getTypeName(MethodHandles.class);
+
+        // Times the generation for the flight recorder
+        CompilationEvent EVENT = new CompilationEvent();
+        EVENT.begin();
+
+        ClassNode NODE = new ClassNode();
+        NODE.visit(V1_8, ACC_FINAL + ACC_SUPER, generatedClassName, null, superType, null);
+        NODE.fields  = new ArrayList<>();
+        NODE.methods = new ArrayList<>();
+
+        // The invoker field
+        NODE.fields.add(new FieldNode(ACC_PRIVATE + ACC_STATIC + ACC_FINAL, "invoker", handleType, null, null));
+
+        // Initializes the invoker field using the class data of the hidden class
+        MethodNode CLINIT_METHOD = new MethodNode(ACC_STATIC, "<clinit>", "()V", null, null);
+        CLINIT_METHOD.instructions.add(
+                new MethodInsnNode(INVOKESTATIC, handlesType, "lookup", "()L" + lookupType + ';', false));
+        CLINIT_METHOD.instructions.add(new LdcInsnNode("_"));
+        CLINIT_METHOD.instructions.add(new LdcInsnNode(Type.getType(handleType)));
+        CLINIT_METHOD.instructions.add(new MethodInsnNode(
+                INVOKESTATIC, handlesType, "classData",
+                "(L" + lookupType + ";Ljava/lang/String;L" + CLASS_TYPE + ";)L" + OBJECT_TYPE + ';', false
+        ));
+        CLINIT_METHOD.instructions.add(new TypeInsnNode(CHECKCAST, getTypeName(MethodHandle.class)));
+        CLINIT_METHOD.instructions.add(new FieldInsnNode(PUTSTATIC, generatedClassName, "invoker", handleType));
+        CLINIT_METHOD.instructions.add(new InsnNode(RETURN));
+
+        // Calls the super constructor using the topic
+        MethodNode INIT_METHOD = new MethodNode(0, "<init>", "(L" + CLASS_TYPE + ";)V", null, null);
+        INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 0));
+        INIT_METHOD.instructions.add(new VarInsnNode(ALOAD, 1));
+        INIT_METHOD.instructions.add(
+                new MethodInsnNode(INVOKESPECIAL, superType, "<init>", "(L" + CLASS_TYPE + ";)V", false));
+        INIT_METHOD.instructions.add(new InsnNode(RETURN));
+
+        // Implements the publish(Object) method by invoking the constant method handle.
+        MethodNode PUBLISH_METHOD = new MethodNode(ACC_PUBLIC, "publish", "(L" + OBJECT_TYPE + ";)V", null, null);
+        PUBLISH_METHOD.instructions.add(new FieldInsnNode(GETSTATIC, generatedClassName, "invoker", handleType));
+        PUBLISH_METHOD.instructions.add(new VarInsnNode(ALOAD, 1));
+        PUBLISH_METHOD.instructions.add(new MethodInsnNode(
+                INVOKEVIRTUAL, getTypeName(MethodHandle.class), "invokeExact", "(L" + OBJECT_TYPE + ";)V", false));
+        PUBLISH_METHOD.instructions.add(new InsnNode(RETURN));
+
+        // Put them all together
+        NODE.methods.add(CLINIT_METHOD);
+        NODE.methods.add(INIT_METHOD);
+        NODE.methods.add(PUBLISH_METHOD);
+
+        ClassWriter WRITER = new ClassWriter(COMPUTE_FRAMES);
+        NODE.accept(WRITER);
+
+        return EVENT.commit(generatedClassName, WRITER.toByteArray());
+    }
+
+    /**
+     * Returns the instruction used to invoke the receive method of specified listener type. The most specific (and
+     * public) receive method is used when possible so the call does not need to go through the casting bridge.
+     *
+     * @param listenerType The listener type.
+     * @param topic        The topic type.
+     *
+     * @return The instruction.
+     */
+    private static MethodInsnNode receiveInstruction(Class<?> listenerType, Class<?> topic) {
+        if (listenerType == Listener.class) {
+            return new MethodInsnNode(INVOKEINTERFACE, RECEIVER_TYPE, "receive", "(L" + OBJECT_TYPE + ";)V", true);
+        }
+        String descriptor = "(L" + OBJECT_TYPE + ";)V";
+        try {
+            if (topic != Object.class && !listenerType.getMethod("receive", topic).isBridge()) {
+                descriptor = "(L" + getTypeName(topic) + ";)V";
+            }
+        } catch (NoSuchMethodException ignored) {
+            // Only the erased receive(Object) is available
+        }
+        return new MethodInsnNode(INVOKEVIRTUAL, getTypeName(listenerType), "receive", descriptor, false);
     }
 
     /**
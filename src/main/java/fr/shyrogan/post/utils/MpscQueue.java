@@ -0,0 +1,105 @@
+package fr.shyrogan.post.utils;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * An unbounded, lock-free, multiple producers single consumer queue: producers only swap the tail of a linked list
+ * (a single atomic operation, which never fails) while the consumer follows the links from the head.
+ * <p>{@link #drain(Consumer)} must only be invoked by a single thread at a time. It is not reentrant: a drain invoked
+ * by the consumer during a drain does nothing.</p>
+ *
+ * @param <E> The element type.
+ */
+public final class MpscQueue<E> {
+
+    private final AtomicReference<Node<E>> tail;
+    /** The last consumed node, only accessed by the consumer **/
+    private       Node<E>                  head;
+    /** Whether a drain is in progress, only accessed by the consumer **/
+    private       boolean                  draining;
+
+    public MpscQueue() {
+        final Node<E> stub = new Node<>(null);
+        this.head = stub;
+        this.tail = new AtomicReference<>(stub);
+    }
+
+    /**
+     * Appends specified element to the queue.
+     *
+     * @param element The element.
+     */
+    public void offer(E element) {
+        final Node<E> node = new Node<>(element);
+        tail.getAndSet(node).next = node;
+    }
+
+    /**
+     * Returns whether the queue is empty, elements being appended concurrently may not be seen.
+     *
+     * @return True if the queue is empty.
+     */
+    public boolean isEmpty() {
+        return tail.get() == head;
+    }
+
+    /**
+     * Removes the elements appended before this method is invoked and hands each of them to specified consumer, in
+     * order. Elements appended meanwhile are left for the next drain, so that it always terminates.
+     * <p>If the consumer drains this queue again, the nested drain consumes nothing and returns 0: it would otherwise
+     * move the head past the last node of this drain, which would then never be reached.</p>
+     *
+     * @param consumer The consumer.
+     *
+     * @return The amount of consumed elements.
+     */
+    public int drain(Consumer<? super E> consumer) {
+        if (draining) return 0;
+        draining = true;
+        try {
+            return drain(consumer, tail.get());
+        } finally {
+            draining = false;
+        }
+    }
+
+    /**
+     * Consumes the elements up to specified node.
+     *
+     * @param consumer The consumer.
+     * @param last     The last consumed node.
+     *
+     * @return The amount of consumed elements.
+     */
+    private int drain(Consumer<? super E> consumer, Node<E> last) {
+        int count = 0;
+        while (head != last) {
+            final Node<E> next = head.next;
+            if (next == null) {
+                // A producer swapped the tail but did not link its node yet
+                Thread.onSpinWait();
+                continue;
+            }
+            final E element = next.element;
+            next.element = null;
+            head         = next;
+            count++;
+            consumer.accept(element);
+        }
+        return count;
+    }
+
+    /**
+     * A node of the linked list.
+     */
+    private final static class Node<E> {
+        private          E       element;
+        private volatile Node<E> next;
+
+        Node(E element) {
+            this.element = element;
+        }
+    }
+
+}
@@ -0,0 +1,157 @@
+package fr.shyrogan.post.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * A concurrent map whose keys are weakly referenced and compared by identity (their {@code equals}/{@code hashCode} are
+ * never invoked).
+ * <p>Entries whose key has been garbage collected are not removed automatically: they are returned by {@link
+ * #expunge()} so that whatever they held can be released in bulk. Values must not strongly reference their key, or it
+ * is never collected.</p>
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public final class WeakIdentityMap<K, V> {
+
+    private final Map<Object, V>    map   = new ConcurrentHashMap<>();
+    private final ReferenceQueue<K> queue = new ReferenceQueue<>();
+
+    /**
+     * Returns the value associated to specified key.
+     *
+     * @param key The key.
+     *
+     * @return The value, or null.
+     */
+    public V get(K key) {
+        return map.get(new Lookup(key));
+    }
+
+    /**
+     * Atomically computes the value associated to specified key, see {@link ConcurrentHashMap#compute(Object,
+     * BiFunction)}.
+     *
+     * @param key      The key.
+     * @param function The function computing the new value from the current one (or null), returning null removes the
+     *                 entry.
+     *
+     * @return The new value, or null.
+     */
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        // The existing key is kept if there is one, the new reference is then simply dropped.
+        return map.compute(new IdentityReference<>(key, queue), (k, value) -> function.apply(key, value));
+    }
+
+    /**
+     * Removes the value associated to specified key.
+     *
+     * @param key The key.
+     *
+     * @return The removed value, or null.
+     */
+    public V remove(K key) {
+        return map.remove(new Lookup(key));
+    }
+
+    /**
+     * Removes the entries whose key has been garbage collected.
+     *
+     * @return The values of the removed entries.
+     */
+    public List<V> expunge() {
+        List<V>                values = null;
+        Reference<? extends K> reference;
+        while ((reference = queue.poll()) != null) {
+            final V value = map.remove(reference);
+            if (value == null) continue;
+            if (values == null) values = new ArrayList<>();
+            values.add(value);
+        }
+        return values == null ? Collections.emptyList() : values;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        map.clear();
+    }
+
+    /**
+     * Returns a snapshot of the values, including the values whose key has been collected but not expunged yet.
+     *
+     * @return The values.
+     */
+    public List<V> values() {
+        return new ArrayList<>(map.values());
+    }
+
+    /**
+     * Returns the amount of entries, including the entries whose key has been collected but not expunged yet.
+     *
+     * @return The amount of entries.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * The key of an entry of the map, which weakly references the actual key.
+     */
+    private final static class IdentityReference<K> extends WeakReference<K> {
+        private final int hash;
+
+        IdentityReference(K referent, ReferenceQueue<? super K> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this) return true;
+            final Object referent = get();
+            if (referent == null) return false;
+            if (other instanceof Lookup) return ((Lookup) other).referent == referent;
+            return other instanceof IdentityReference && ((IdentityReference<?>) other).get() == referent;
+        }
+    }
+
+    /**
+     * A temporary key used to look an entry of the map up, which strongly references the actual key.
+     */
+    private final static class Lookup {
+        private final Object referent;
+        private final int    hash;
+
+        Lookup(Object referent) {
+            this.referent = referent;
+            this.hash     = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other instanceof IdentityReference) return ((IdentityReference<?>) other).get() == referent;
+            return other instanceof Lookup && ((Lookup) other).referent == referent;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Asynchronous dispatch test")
+public class AsyncDispatchTest {
+
+    private final EventBus bus = new EventBus();
+
+    @Test
+    void asyncReceiver() throws InterruptedException {
+        final AsyncReceiverContainer container = new AsyncReceiverContainer();
+        bus.subscribe(container).dispatch("a");
+
+        assertTrue(container.latch.await(10, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), container.thread);
+    }
+
+    @Test
+    void dispatchAsync() {
+        final List<String> calls  = new CopyOnWriteArrayList<>();
+        final Thread       caller = Thread.currentThread();
+        bus.subscribe(new ListenerBuilder<>(String.class).priority(10).perform(s -> calls.add("first")).build());
+        bus.subscribe(new ListenerBuilder<>(String.class).perform(s -> calls.add("second")).build());
+        bus.subscribe(new ListenerBuilder<>(String.class).async().perform(s -> {
+            assertNotSame(caller, Thread.currentThread());
+            calls.add("async");
+        }).build());
+
+        bus.dispatchAsync("a").join();
+        assertEquals(3, calls.size());
+        assertTrue(calls.indexOf("first") < calls.indexOf("second"));
+        // Dead messages complete right away
+        assertTrue(bus.dispatchAsync(1).isDone());
+    }
+
+    public static class AsyncReceiverContainer {
+        public final CountDownLatch latch = new CountDownLatch(1);
+        public volatile Thread thread;
+
+        @Subscribe(async = true)
+        public void onMessage(String message) {
+            thread = Thread.currentThread();
+            latch.countDown();
+        }
+    }
+
+}
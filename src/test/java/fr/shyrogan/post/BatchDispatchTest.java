@@ -0,0 +1,70 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.listener.BatchListener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Batch dispatch test")
+public class BatchDispatchTest {
+
+    private final EventBus     bus   = new EventBus();
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    @DisplayName("Batches are grouped by topic and delivered in priority order")
+    void dispatchAll() {
+        bus.subscribe(new ListenerBuilder<>(String.class).priority(10).perform(s -> calls.add("high:" + s)).build());
+        bus.subscribe(new Batch(5));
+        bus.subscribe(new ListenerBuilder<>(String.class).perform(s -> calls.add("low:" + s)).build());
+        bus.subscribe(new ListenerBuilder<>(Integer.class).perform(i -> calls.add("int:" + i)).build());
+
+        bus.dispatchAll(new Object[] { "a", 1, "b", 2 });
+        assertEquals(asList("high:a", "high:b", "batch:[a, b]", "low:a", "low:b", "int:1", "int:2"), calls);
+
+        calls.clear();
+        bus.dispatch("c");
+        assertEquals(asList("high:c", "batch:c", "low:c"), calls);
+
+        calls.clear();
+        bus.dispatchAll(Stream.of("d", "e"));
+        bus.dispatchAll(asList(3, 4));
+        assertEquals(asList("high:d", "high:e", "batch:[d, e]", "low:d", "low:e", "int:3", "int:4"), calls);
+    }
+
+    private class Batch implements BatchListener<String> {
+        private final int priority;
+
+        Batch(int priority) {
+            this.priority = priority;
+        }
+
+        @Override
+        public void receiveAll(List<String> messages) {
+            calls.add("batch:" + messages);
+        }
+
+        @Override
+        public Class<String> topic() {
+            return String.class;
+        }
+
+        @Override
+        public int priority() {
+            return priority;
+        }
+
+        @Override
+        public void receive(String message) {
+            calls.add("batch:" + message);
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import fr.shyrogan.post.message.Cancellable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Cancellable dispatch test")
+public class CancellableDispatchTest {
+
+    private final List<String> calls     = new ArrayList<>();
+    /** Kept reachable, subscribed holders are weakly referenced **/
+    private final AntiCheat    antiCheat = new AntiCheat();
+
+    @Test
+    @DisplayName("Compiled dispatcher stops once the message is cancelled")
+    void compiled() {
+        assertCancellation(new EventBus());
+    }
+
+    @Test
+    @DisplayName("Iterative dispatcher stops once the message is cancelled")
+    void iterative() {
+        assertCancellation(new EventBus(new EventBusConfiguration() {
+            @Override
+            public int dispatcherCompilationThreshold() {
+                return 0;
+            }
+        }));
+    }
+
+    @Test
+    @DisplayName("Cancelled messages are not received by a single receiver")
+    void singleton() {
+        final EventBus bus = new EventBus();
+        bus.subscribe(new ListenerBuilder<>(Move.class).perform(m -> calls.add("single:" + m.player)).build());
+
+        final Move move = new Move("cheater");
+        move.cancel();
+        bus.dispatch(move);
+        bus.dispatch(new Move("bob"));
+        assertEquals(asList("single:bob"), calls);
+    }
+
+    private void assertCancellation(EventBus bus) {
+        bus.subscribe(antiCheat);
+        bus.subscribe(new ListenerBuilder<>(Move.class).perform(m -> calls.add("physics:" + m.player)).build());
+        bus.subscribe(new ListenerBuilder<>(Move.class).priority(-10).receiveCancelled()
+                                                       .perform(m -> calls.add("log:" + m.player)).build());
+        bus.subscribe(new ListenerBuilder<>(Move.class).priority(-20)
+                                                       .perform(m -> calls.add("render:" + m.player)).build());
+
+        bus.dispatch(new Move("bob"));
+        bus.dispatch(new Move("cheater"));
+        assertEquals(asList("anticheat:bob", "physics:bob", "log:bob", "render:bob", "anticheat:cheater",
+                            "log:cheater"), calls);
+    }
+
+    public static class Move implements Cancellable {
+        public final String  player;
+        private      boolean cancelled;
+
+        public Move(String player) {
+            this.player = player;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+
+    public class AntiCheat {
+        @Subscribe(priority = 10)
+        public void onMove(Move move) {
+            calls.add("anticheat:" + move.player);
+            if (move.player.equals("cheater")) move.cancel();
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.dispatcher.impl.ConflatingMessageDispatcher;
+import fr.shyrogan.post.listener.BatchListener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Conflation test")
+public class ConflationTest {
+
+    private final EventBus     bus   = new EventBus();
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+
+    @Test
+    @DisplayName("Only the newest message of each key is flushed")
+    void conflated() {
+        bus.subscribe(new ListenerBuilder<>(Position.class).perform(p -> calls.add(p.entity + ":" + p.x)).build());
+        final ConflatingMessageDispatcher conflation = bus.conflate(Position.class, p -> p.entity);
+
+        for (int x = 0; x < 100; x++) {
+            bus.dispatch(new Position("alice", x));
+            bus.publisher(Position.class).publish(new Position("bob", x));
+        }
+        assertEquals(asList(), calls);
+        assertEquals(2, conflation.pending());
+
+        assertEquals(2, bus.flushConflated());
+        assertEquals(new HashSet<>(asList("alice:99", "bob:99")), new HashSet<>(calls));
+        assertEquals(0, conflation.flush());
+    }
+
+    @Test
+    @DisplayName("Messages without key are dispatched immediately")
+    void withoutKey() {
+        bus.subscribe(new ListenerBuilder<>(Position.class).perform(p -> calls.add(p.entity + ":" + p.x)).build());
+        bus.conflate(Position.class, p -> p.entity);
+        bus.dispatch(new Position(null, 1));
+        assertEquals(asList("null:1"), calls);
+    }
+
+    @Test
+    @DisplayName("Flushed messages are dispatched as a batch, to the current receivers")
+    void batch() {
+        final ConflatingMessageDispatcher conflation = bus.conflate(Position.class, p -> p.entity);
+        bus.dispatch(new Position("alice", 1));
+        bus.dispatch(new Position("bob", 1));
+
+        final int[] batches = new int[1];
+        bus.subscribe(new BatchListener<Position>() {
+            @Override
+            public Class<Position> topic() {
+                return Position.class;
+            }
+
+            @Override
+            public int priority() {
+                return 0;
+            }
+
+            @Override
+            public void receive(Position message) {
+                calls.add(message.entity);
+            }
+
+            @Override
+            public void receiveAll(List<Position> messages) {
+                batches[0]++;
+                messages.forEach(this::receive);
+            }
+        });
+        conflation.flush();
+        assertEquals(1, batches[0]);
+        assertEquals(2, calls.size());
+    }
+
+    @Test
+    @DisplayName("Stopping the conflation flushes the pending messages")
+    void stop() {
+        bus.subscribe(new ListenerBuilder<>(Position.class).perform(p -> calls.add(p.entity + ":" + p.x)).build());
+        bus.conflate(Position.class, p -> p.entity);
+        bus.dispatch(new Position("alice", 1));
+        assertNull(bus.conflate(Position.class, null));
+        assertEquals(asList("alice:1"), calls);
+
+        bus.dispatch(new Position("alice", 2));
+        assertEquals(asList("alice:1", "alice:2"), calls);
+    }
+
+    @Test
+    @DisplayName("Time window")
+    void window() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        bus.subscribe(new ListenerBuilder<>(Position.class).perform(p -> latch.countDown()).build());
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            bus.conflate(Position.class, p -> p.entity).flushEvery(Duration.ofMillis(10), scheduler);
+            bus.dispatch(new Position("alice", 1));
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("A message replacing an equal message while it is flushed is kept")
+    void replacedWhileFlushed() throws Exception {
+        final int[] last = { -1 };
+        bus.subscribe(new ListenerBuilder<>(Located.class).perform(l -> last[0] = l.x).build());
+        final ConflatingMessageDispatcher conflation = bus.conflate(Located.class, l -> l.entity);
+
+        final int    count    = 200_000;
+        final Thread producer = new Thread(() -> {
+            for (int x = 0; x < count; x++) bus.dispatch(new Located("alice", x));
+        });
+        producer.start();
+        while (producer.isAlive()) conflation.flush();
+        producer.join();
+        conflation.flush();
+        assertEquals(count - 1, last[0]);
+    }
+
+    public static class Position {
+        public final String entity;
+        public final int    x;
+
+        public Position(String entity, int x) {
+            this.entity = entity;
+            this.x      = x;
+        }
+    }
+
+    /**
+     * A position whose equality only depends on its entity.
+     */
+    public static class Located extends Position {
+        public Located(String entity, int x) {
+            super(entity, x);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Located && Objects.equals(entity, ((Located) o).entity);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(entity);
+        }
+    }
+
+}
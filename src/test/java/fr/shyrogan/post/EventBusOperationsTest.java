@@ -1,5 +1,8 @@
 package fr.shyrogan.post;
 
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.factory.ReceiverFactory;
+import fr.shyrogan.post.factory.impl.AnnotatedFieldAndMethodFactory;
 import fr.shyrogan.post.listener.Listener;
 import fr.shyrogan.post.listener.ListenerBuilder;
 import fr.shyrogan.post.listener.annotation.Subscribe;
@@ -7,10 +10,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 import static fr.shyrogan.post.EventBusOperationsTest.DummyReceiverContainer.hasReceivedMethod;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("Basic operation test")
@@ -46,6 +55,98 @@ public class EventBusOperationsTest {
         assertFalse(receiverContainer.message.equalsIgnoreCase("test"));
     }
 
+    @Test
+    void publisher() {
+        final Publisher<String> publisher = bus.publisher(String.class);
+        publisher.publish("published");
+        assertTrue(receiverContainer.message.equalsIgnoreCase("published"));
+
+        // The publisher is relinked once the topic has been modified
+        bus.unsubscribe(receiverContainer);
+        publisher.publish("test");
+        assertFalse(receiverContainer.message.equalsIgnoreCase("test"));
+        assertSame(publisher, bus.publisher(String.class));
+    }
+
+    @Test
+    void subscribeEqualObjects() {
+        final EqualContainer first  = new EqualContainer();
+        final EqualContainer second = new EqualContainer();
+        bus.subscribe(first).subscribe(second);
+        bus.dispatch(1);
+        assertTrue(first.received == 1 && second.received == 1);
+
+        bus.unsubscribe(first);
+        bus.dispatch(2);
+        assertTrue(first.received == 1 && second.received == 2);
+    }
+
+    @Test
+    void collectedHolders() throws InterruptedException {
+        // Generated registrar, then receivers compiled at runtime
+        assertCollectedHolderUnsubscribed(EventBusConfiguration.DEFAULT.receiverFactory());
+        assertCollectedHolderUnsubscribed(AnnotatedFieldAndMethodFactory.INSTANCE);
+    }
+
+    private static void assertCollectedHolderUnsubscribed(ReceiverFactory factory) throws InterruptedException {
+        final List<Object> dead = new ArrayList<>();
+        final EventBus     bus  = new EventBus(new EventBusConfiguration() {
+            @Override
+            public ReceiverFactory receiverFactory() {
+                return factory;
+            }
+
+            @Override
+            public Consumer<Object> deadMessageHandler() {
+                return dead::add;
+            }
+        });
+        final WeakReference<CollectableContainer> holder = subscribeCollectable(bus);
+        bus.dispatch(1L);
+        assertTrue(dead.isEmpty());
+
+        // The listeners of the collected holder are unsubscribed on the next (un)subscription
+        for (int i = 0; i < 100 && dead.isEmpty(); i++) {
+            System.gc();
+            Thread.sleep(10);
+            bus.unsubscribe(new Object());
+            bus.dispatch(1L);
+        }
+        assertNull(holder.get());
+        assertEquals(1, dead.size());
+    }
+
+    private static WeakReference<CollectableContainer> subscribeCollectable(EventBus bus) {
+        final CollectableContainer holder = new CollectableContainer();
+        bus.subscribe(holder);
+        return new WeakReference<>(holder);
+    }
+
+    public static class CollectableContainer {
+        @Subscribe
+        public void onLong(Long message) {
+        }
+    }
+
+    public static class EqualContainer {
+        public int received;
+
+        @Subscribe
+        public void onInteger(Integer message) {
+            received++;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof EqualContainer;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
     public static class DummyReceiverContainer {
         public boolean hasReceivedMessageOnBuilder = false;
         public boolean hasReceivedMessageOnConsumer = false;
@@ -0,0 +1,179 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.listener.BatchListener;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Keyed dispatch test")
+public class KeyedDispatchTest {
+
+    private final EventBus       bus       = new EventBus();
+    private final List<String>   calls     = new ArrayList<>();
+    /** Kept reachable, subscribed holders are weakly referenced **/
+    private final KeyedContainer container = new KeyedContainer();
+
+    @Test
+    @DisplayName("Messages are only received by the receivers of their key")
+    void keyed() {
+        bus.subscribe(container);
+        bus.subscribe(new ListenerBuilder<>(Message.class).key("bob").priority(10)
+                                                          .perform(m -> calls.add("bob:" + m.text)).build());
+        bus.subscribe(new ListenerBuilder<>(Message.class).perform(m -> calls.add("all:" + m.text)).build());
+
+        // Without key extractor, the receivers with a key are ignored
+        bus.dispatch(new Message("alice", "a"));
+        assertEquals(asList("all:a"), calls);
+
+        calls.clear();
+        bus.keyExtractor(Message.class, m -> m.player);
+        bus.dispatch(new Message("alice", "b"));
+        bus.dispatch(new Message("bob", "c"));
+        bus.dispatch(new Message("carol", "d"));
+        assertEquals(asList("alice:b", "all:b", "bob:c", "all:c", "all:d"), calls);
+    }
+
+    @Test
+    @DisplayName("Many keys")
+    void manyKeys() {
+        final int[] received = new int[1000];
+        for (int i = 0; i < received.length; i++) {
+            final int index = i;
+            bus.subscribe(new ListenerBuilder<>(Message.class).key(Integer.toString(i))
+                                                              .perform(m -> received[index]++).build());
+        }
+        bus.keyExtractor(Message.class, m -> m.player);
+        bus.dispatch(new Message("42", "a"));
+        bus.dispatch(new Message("999", "b"));
+        bus.dispatchAsync(new Message("42", "c")).join();
+
+        for (int i = 0; i < received.length; i++) {
+            assertEquals(i == 42 ? 2 : i == 999 ? 1 : 0, received[i]);
+        }
+    }
+
+    @Test
+    @DisplayName("Receivers with and without key are invoked in priority order")
+    void priorities() {
+        bus.keyExtractor(Message.class, m -> m.player);
+        for (int priority : new int[] { 10, 0, -10 }) {
+            bus.subscribe(new ListenerBuilder<>(Message.class).priority(priority)
+                                                              .perform(m -> calls.add("all" + priority)).build());
+        }
+        for (int priority : new int[] { -10, 5 }) {
+            bus.subscribe(new ListenerBuilder<>(Message.class).key("bob").priority(priority)
+                                                              .perform(m -> calls.add("bob" + priority)).build());
+        }
+
+        bus.dispatch(new Message("bob", "a"));
+        assertEquals(asList("all10", "bob5", "all0", "bob-10", "all-10"), calls);
+
+        calls.clear();
+        bus.dispatch(new Message("alice", "b"));
+        assertEquals(asList("all10", "all0", "all-10"), calls);
+    }
+
+    @Test
+    @DisplayName("Keys are updated one at a time")
+    void updates() {
+        bus.keyExtractor(Message.class, m -> m.player);
+        final List<Listener<Message>> listeners = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final String player = "p" + i;
+            final Listener<Message> listener = new ListenerBuilder<>(Message.class).key(player)
+                                                                                   .perform(m -> calls.add(player))
+                                                                                   .build();
+            listeners.add(listener);
+            bus.subscribe(listener);
+        }
+        bus.subscribe(new ListenerBuilder<>(Message.class).priority(1).perform(m -> calls.add("first")).build());
+        bus.unsubscribe(listeners.get(42));
+        bus.unsubscribe(asList(listeners.get(1), listeners.get(2)));
+        bus.subscribe(asList(
+                new ListenerBuilder<>(Message.class).key("p1").priority(2).perform(m -> calls.add("p1'")).build(),
+                new ListenerBuilder<>(Message.class).key("p7").priority(-1).perform(m -> calls.add("p7'")).build()
+        ));
+
+        for (String player : new String[] { "p0", "p1", "p2", "p7", "p42", "p99" }) {
+            bus.dispatch(new Message(player, "x"));
+        }
+        assertEquals(asList("first", "p0", "p1'", "first", "first", "first", "p7", "p7'", "first", "first", "p99"),
+                     calls);
+    }
+
+    @Test
+    @DisplayName("Batches are grouped by key for the batch receivers")
+    void keyedBatch() {
+        bus.subscribe(new KeyedBatch("alice"));
+        bus.subscribe(new KeyedBatch(null));
+        bus.keyExtractor(Message.class, m -> m.player);
+
+        bus.dispatchAll(new Object[] { new Message("alice", "a"), new Message("bob", "b"),
+                                       new Message("alice", "c"), new Message("carol", "d") });
+        assertEquals(asList("alice:[a, c]", "null:[a, c]", "null:[b, d]"), calls);
+
+        calls.clear();
+        bus.dispatchAll(new Object[] { new Message("alice", "e"), new Message("alice", "f") });
+        assertEquals(asList("alice:[e, f]", "null:[e, f]"), calls);
+    }
+
+    public static class Message {
+        public final String player, text;
+
+        public Message(String player, String text) {
+            this.player = player;
+            this.text   = text;
+        }
+    }
+
+    private class KeyedBatch implements BatchListener<Message> {
+        private final String key;
+
+        KeyedBatch(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void receiveAll(List<Message> messages) {
+            final List<String> texts = new ArrayList<>();
+            for (Message message : messages) texts.add(message.text);
+            calls.add(key + ":" + texts);
+        }
+
+        @Override
+        public Class<Message> topic() {
+            return Message.class;
+        }
+
+        @Override
+        public int priority() {
+            return key == null ? 0 : 1;
+        }
+
+        @Override
+        public Object key() {
+            return key;
+        }
+
+        @Override
+        public void receive(Message message) {
+            calls.add(key + ":" + message.text);
+        }
+    }
+
+    public class KeyedContainer {
+        @Subscribe(key = "alice")
+        public void onAliceMessage(Message message) {
+            calls.add("alice:" + message.text);
+        }
+    }
+
+}
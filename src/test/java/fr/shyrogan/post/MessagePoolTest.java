@@ -0,0 +1,210 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.async.AsyncEventBus;
+import fr.shyrogan.post.async.AsyncEventBusBuilder;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.message.Cancellable;
+import fr.shyrogan.post.message.MessagePool;
+import fr.shyrogan.post.message.PooledMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Message pool test")
+public class MessagePoolTest {
+
+    private final EventBus bus = new EventBus();
+
+    @Test
+    @DisplayName("Messages are recycled once dispatched")
+    void recycled() {
+        final List<Integer> received = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(Damage.class).perform(d -> {
+            received.add(d.amount);
+            d.cancel();
+        }).build());
+        final MessagePool<Damage> pool = bus.messagePool(Damage.class, Damage::new);
+
+        for (int i = 0; i < 100; i++) {
+            final Damage damage = pool.acquire();
+            assertEquals(0, damage.amount);
+            assertFalse(damage.isCancelled());
+            damage.amount = i;
+            pool.dispatch(damage);
+            assertEquals(0, damage.references());
+        }
+        assertEquals(100, received.size());
+        assertEquals(99, received.get(99));
+        assertEquals(1, pool.createdMessages());
+    }
+
+    @Test
+    @DisplayName("Asynchronous receivers retain the message")
+    void async() throws Exception {
+        final CountDownLatch received = new CountDownLatch(1), release = new CountDownLatch(1);
+        final int[]          amount   = new int[1];
+        bus.subscribe(new ListenerBuilder<>(Damage.class).async().perform(d -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            amount[0] = d.amount;
+            received.countDown();
+        }).build());
+        final MessagePool<Damage> pool   = bus.messagePool(Damage.class, Damage::new);
+        final Damage              damage = pool.acquire();
+        damage.amount = 42;
+        pool.dispatch(damage);
+
+        // Still referenced by the asynchronous receiver, so the pool must create a new message
+        assertEquals(1, damage.references());
+        assertNotSame(damage, pool.acquire());
+        release.countDown();
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(42, amount[0]);
+    }
+
+    @Test
+    @DisplayName("Asynchronous dispatch releases the message once completed")
+    void dispatchAsync() throws Exception {
+        bus.subscribe(new ListenerBuilder<>(Damage.class).perform(d -> { }).build());
+        final MessagePool<Damage> pool   = bus.messagePool(Damage.class, Damage::new);
+        final Damage              damage = pool.acquire();
+        pool.dispatchAsync(damage).get(5, TimeUnit.SECONDS);
+        assertEquals(0, damage.references());
+    }
+
+    @Test
+    @DisplayName("Messages released by other threads return to the acquiring thread")
+    void returned() throws Exception {
+        bus.subscribe(new ListenerBuilder<>(Damage.class).perform(d -> { }).build());
+        final MessagePool<Damage> pool = bus.messagePool(Damage.class, Damage::new);
+        for (int i = 0; i < 100; i++) {
+            pool.dispatchAsync(pool.acquire()).get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(1, pool.createdMessages());
+    }
+
+    @Test
+    @DisplayName("Messages queued by an asynchronous event bus are retained")
+    void queued() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Integer>  amounts = new CopyOnWriteArrayList<>();
+        final Damage         first, second;
+        try (AsyncEventBus async = new AsyncEventBusBuilder().build()) {
+            async.subscribe(new ListenerBuilder<>(Damage.class).perform(d -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                amounts.add(d.amount);
+            }).build());
+            final MessagePool<Damage> pool = async.messagePool(Damage.class, Damage::new);
+            first        = pool.acquire();
+            first.amount = 1;
+            async.dispatch(first);
+            first.release();
+
+            // Still queued (or being dispatched), so the pool must create a new message
+            second        = pool.acquire();
+            second.amount = 2;
+            assertNotSame(first, second);
+            async.dispatch(second);
+            second.release();
+            release.countDown();
+        }
+        assertEquals(List.of(1, 2), amounts);
+        assertEquals(0, first.references());
+        assertEquals(0, second.references());
+    }
+
+    @Test
+    @DisplayName("Releasing twice fails")
+    void releasedTwice() {
+        final MessagePool<Damage> pool   = bus.messagePool(Damage.class, Damage::new);
+        final Damage              damage = pool.acquire();
+        damage.release();
+        assertThrows(IllegalStateException.class, damage::release);
+        assertThrows(IllegalStateException.class, damage::retain);
+    }
+
+    @Test
+    @DisplayName("Conflated messages are retained until flushed")
+    void conflated() {
+        final List<Integer> received = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(Damage.class).perform(d -> received.add(d.amount)).build());
+        bus.conflate(Damage.class, d -> "key");
+        final MessagePool<Damage> pool  = bus.messagePool(Damage.class, Damage::new);
+        final Damage              first = pool.acquire();
+        first.amount = 1;
+        pool.dispatch(first);
+        assertEquals(1, first.references());
+
+        final Damage second = pool.acquire();
+        assertNotSame(first, second);
+        second.amount = 2;
+        pool.dispatch(second);
+        // Replaced, so back in the pool
+        assertEquals(0, first.references());
+
+        bus.flushConflated();
+        assertEquals(List.of(2), received);
+        assertEquals(0, second.references());
+    }
+
+    @Test
+    @DisplayName("Debug mode reports the messages retained past their delivery")
+    void debug() throws Exception {
+        final List<Damage> leaked = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(Damage.class).perform(d -> {
+            if (d.amount == 1) leaked.add(d);
+        }).build());
+        final MessagePool<Damage> pool = new MessagePool<>(bus, Damage.class, Damage::new, 64, true);
+        for (int i = 0; i < 3; i++) {
+            final Damage damage = pool.acquire();
+            damage.amount = i;
+            pool.dispatch(damage);
+        }
+        assertEquals(3, pool.createdMessages());
+
+        List<Damage> retained = pool.retainedMessages();
+        for (int attempt = 0; attempt < 20 && retained.size() > 1; attempt++) {
+            retained = null;
+            System.gc();
+            Thread.sleep(10);
+            retained = pool.retainedMessages();
+        }
+        assertEquals(1, retained.size());
+        assertSame(leaked.get(0), retained.get(0));
+    }
+
+    public static class Damage extends PooledMessage implements Cancellable {
+        public  int     amount;
+        private boolean cancelled;
+
+        @Override
+        protected void reset() {
+            amount = 0;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.message.Cancellable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Parallel dispatch test")
+public class ParallelDispatchTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final EventBus     bus  = new EventBus(new EventBusConfiguration() {
+        @Override
+        public int parallelDispatchThreshold() {
+            return 8;
+        }
+
+        @Override
+        public ForkJoinPool parallelPool() {
+            return pool;
+        }
+    });
+
+    @Test
+    @DisplayName("Bands are invoked in priority order, their listeners in parallel")
+    void bands() {
+        final AtomicInteger high    = new AtomicInteger();
+        final AtomicInteger low     = new AtomicInteger();
+        final Set<Thread>   threads = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 64; i++) {
+            bus.subscribe(new ListenerBuilder<>(Message.class).priority(1).perform(m -> {
+                threads.add(Thread.currentThread());
+                high.incrementAndGet();
+                sleep();
+            }).build());
+            // The whole band of higher priority must have been invoked
+            bus.subscribe(new ListenerBuilder<>(Message.class).perform(m -> {
+                assertEquals(64, high.get());
+                low.incrementAndGet();
+            }).build());
+        }
+
+        bus.dispatch(new Message());
+        assertEquals(64, high.get());
+        assertEquals(64, low.get());
+        assertTrue(threads.size() > 1);
+    }
+
+    @Test
+    @DisplayName("Small topics stay on the serial path")
+    void serial() {
+        final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 16; i++) {
+            // Bands of 4 listeners
+            bus.subscribe(new ListenerBuilder<>(Message.class).priority(i % 4).perform(m -> {
+                threads.add(Thread.currentThread());
+            }).build());
+        }
+        bus.dispatch(new Message());
+        assertEquals(Set.of(Thread.currentThread()), threads);
+    }
+
+    @Test
+    @DisplayName("Cancelled messages are not dispatched to the next bands")
+    void cancelled() {
+        final AtomicInteger received = new AtomicInteger();
+        bus.subscribe(new ListenerBuilder<>(Message.class).priority(1).perform(Message::cancel).build());
+        for (int i = 0; i < 16; i++) {
+            bus.subscribe(new ListenerBuilder<>(Message.class).perform(m -> received.incrementAndGet()).build());
+        }
+        bus.subscribe(new ListenerBuilder<>(Message.class).priority(-1).receiveCancelled()
+                                                         .perform(m -> received.addAndGet(100)).build());
+        bus.dispatch(new Message());
+        assertEquals(100, received.get());
+    }
+
+    @Test
+    @DisplayName("Exceptions are rethrown to the dispatching thread")
+    void exceptions() {
+        for (int i = 0; i < 16; i++) {
+            final int index = i;
+            bus.subscribe(new ListenerBuilder<>(Message.class).perform(m -> {
+                if (index == 7) throw new IllegalStateException("failed");
+            }).build());
+        }
+        assertThrows(IllegalStateException.class, () -> bus.dispatch(new Message()));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class Message implements Cancellable {
+        private volatile boolean cancelled;
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void setCancelled(boolean cancelled) {
+            this.cancelled = cancelled;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("Shared filter dispatch test")
+public class SharedFilterDispatchTest {
+
+    private final EventBus     bus   = new EventBus();
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    @DisplayName("Shared filters are evaluated once per message")
+    void shared() {
+        final int[]              evaluations = new int[1];
+        final Predicate<Message> inWorld     = m -> {
+            evaluations[0]++;
+            return m.world.equals("overworld");
+        };
+        bus.subscribe(new ListenerBuilder<>(Message.class).filter(inWorld).priority(3)
+                                                          .perform(m -> calls.add("a:" + m.text)).build());
+        bus.subscribe(new ListenerBuilder<>(Message.class).priority(2)
+                                                          .perform(m -> calls.add("all:" + m.text)).build());
+        bus.subscribe(new ListenerBuilder<>(Message.class).filter(inWorld).priority(1)
+                                                          .perform(m -> calls.add("b:" + m.text)).build());
+        bus.subscribe(new ListenerBuilder<>(Message.class).filter(inWorld)
+                                                          .perform(m -> calls.add("c:" + m.text)).build());
+
+        bus.dispatch(new Message("overworld", "x"));
+        bus.dispatch(new Message("nether", "y"));
+        assertEquals(asList("a:x", "all:x", "b:x", "c:x", "all:y"), calls);
+        assertEquals(2, evaluations[0]);
+    }
+
+    @Test
+    @DisplayName("Shared filters are evaluated once per message with metrics enabled")
+    void instrumented() {
+        final EventBus bus = new EventBus(new EventBusConfiguration() {
+            @Override
+            public boolean metricsEnabled() {
+                return true;
+            }
+        });
+        final int[]              evaluations = new int[1];
+        final Predicate<Message> inWorld     = m -> {
+            evaluations[0]++;
+            return m.world.equals("overworld");
+        };
+        final Listener<Message> a = new ListenerBuilder<>(Message.class).filter(inWorld).priority(1)
+                                                                        .perform(m -> calls.add("a:" + m.text)).build();
+        bus.subscribe(a);
+        bus.subscribe(new ListenerBuilder<>(Message.class).filter(inWorld)
+                                                          .perform(m -> calls.add("b:" + m.text)).build());
+
+        bus.dispatch(new Message("overworld", "x"));
+        bus.dispatch(new Message("nether", "y"));
+        assertEquals(asList("a:x", "b:x"), calls);
+        assertEquals(2, evaluations[0]);
+        assertEquals(1, bus.metrics().listener(a).calls());
+    }
+
+    @Test
+    @DisplayName("Distinct filters")
+    void distinct() {
+        for (int i = 0; i < 4; i++) {
+            final String world = "world" + i;
+            bus.subscribe(new ListenerBuilder<>(Message.class).filter(m -> m.world.equals(world))
+                                                              .perform(m -> calls.add(world)).build());
+        }
+        bus.dispatch(new Message("world2", "x"));
+        assertEquals(asList("world2"), calls);
+    }
+
+    public static class Message {
+        public final String world, text;
+
+        public Message(String world, String text) {
+            this.world = world;
+            this.text  = text;
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+package fr.shyrogan.post;
+
+import fr.shyrogan.post.context.ExecutionContext;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import fr.shyrogan.post.message.MessagePool;
+import fr.shyrogan.post.message.PooledMessage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Thread-affine dispatch test")
+public class ThreadAffineDispatchTest {
+
+    private final EventBus bus = new EventBus();
+
+    @Test
+    @DisplayName("Messages dispatched by the owner are received directly")
+    void owner() {
+        final List<String> received = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(String.class).thread("main").perform(received::add).build());
+        bus.context("main").bind();
+
+        bus.dispatch("direct");
+        assertEquals(1, received.size());
+        assertEquals(0, bus.drain("main"));
+    }
+
+    @Test
+    @DisplayName("Messages dispatched by other threads are received on drain, in order")
+    void drained() throws InterruptedException {
+        final List<Thread> threads  = new ArrayList<>();
+        final List<String> received = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(String.class).thread("main").perform(s -> {
+            threads.add(Thread.currentThread());
+            received.add(s);
+        }).build());
+        bus.context("main").bind();
+
+        final Thread producer = new Thread(() -> {
+            for (int i = 0; i < 100; i++) bus.dispatch("message " + i);
+        });
+        producer.start();
+        producer.join();
+
+        assertTrue(received.isEmpty());
+        assertEquals(100, bus.drain("main"));
+        assertEquals(100, received.size());
+        assertEquals("message 99", received.get(99));
+        assertTrue(threads.stream().allMatch(t -> t == Thread.currentThread()));
+        assertEquals(0, bus.drain("main"));
+    }
+
+    @Test
+    @DisplayName("Annotated receivers are bound to their context")
+    void annotated() throws InterruptedException {
+        final Container container = new Container();
+        bus.subscribe(container);
+
+        final Thread producer = new Thread(() -> bus.dispatch("message"));
+        producer.start();
+        producer.join();
+
+        assertEquals(0, container.method + container.consumer);
+        assertEquals(2, bus.drain("render"));
+        assertEquals(1, container.method);
+        assertEquals(1, container.consumer);
+        assertSame(Thread.currentThread(), bus.context("render").owner());
+    }
+
+    @Test
+    @DisplayName("Only one of concurrent drains binds the context")
+    void concurrentDrains() throws InterruptedException {
+        final ExecutionContext context = new ExecutionContext("main");
+        final CountDownLatch   start   = new CountDownLatch(1);
+        final AtomicInteger    drained = new AtomicInteger(), rejected = new AtomicInteger();
+        final Thread[]         threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    context.drain();
+                    drained.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rejected.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(1, drained.get());
+        assertEquals(threads.length - 1, rejected.get());
+        assertThrows(IllegalStateException.class, context::bind);
+    }
+
+    @Test
+    @DisplayName("A drain nested in a delivery does nothing")
+    void nestedDrain() throws InterruptedException {
+        final List<String> received = new ArrayList<>();
+        final int[]        counts   = { -1, -1, -1 };
+        bus.subscribe(new ListenerBuilder<>(String.class).thread("main").perform(s -> {
+            received.add(s);
+            if (!s.equals("a")) return;
+            // Queued after the outer drain started
+            final Thread producer = new Thread(() -> bus.dispatch("b"));
+            producer.start();
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            counts[0] = bus.drain("main");
+        }).build());
+        bus.dispatch("a");
+
+        final Thread owner = new Thread(() -> {
+            counts[1] = bus.drain("main");
+            counts[2] = bus.drain("main");
+        });
+        owner.setDaemon(true);
+        owner.start();
+        owner.join(5000);
+
+        assertFalse(owner.isAlive());
+        assertArrayEquals(new int[] { 0, 1, 1 }, counts);
+        assertEquals(asList("a", "b"), received);
+    }
+
+    @Test
+    @DisplayName("Only the owner drains its context")
+    void foreignDrain() throws InterruptedException {
+        bus.context("main").bind();
+        final Throwable[] failure  = new Throwable[1];
+        final Thread      intruder = new Thread(() -> {
+            try {
+                bus.drain("main");
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        intruder.start();
+        intruder.join();
+        assertTrue(failure[0] instanceof IllegalStateException);
+    }
+
+    @Test
+    @DisplayName("Failing receivers do not prevent the other deliveries")
+    void failures() throws InterruptedException {
+        final List<String> received = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(String.class).thread("main").perform(s -> {
+            received.add(s);
+            throw new IllegalArgumentException(s);
+        }).build());
+
+        final Thread producer = new Thread(() -> {
+            bus.dispatch("first");
+            bus.dispatch("second");
+        });
+        producer.start();
+        producer.join();
+
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                                                                () -> bus.drain("main"));
+        assertEquals("first", exception.getMessage());
+        assertEquals(1, exception.getSuppressed().length);
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    @DisplayName("Asynchronous dispatches are queued into the mailbox")
+    void async() throws Exception {
+        final List<String> received = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(String.class).thread("main").perform(received::add).build());
+        bus.context("main").bind();
+
+        bus.dispatchAsync("message").get();
+        assertTrue(received.isEmpty());
+        assertEquals(1, bus.drain("main"));
+        assertEquals("message", received.get(0));
+    }
+
+    @Test
+    @DisplayName("Pooled messages are retained while queued")
+    void pooled() throws InterruptedException {
+        final List<Integer> received = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(Tick.class).thread("main").perform(t -> received.add(t.value)).build());
+        bus.context("main").bind();
+        final MessagePool<Tick> pool = bus.messagePool(Tick.class, Tick::new);
+
+        final Tick[] tick     = new Tick[1];
+        final Thread producer = new Thread(() -> {
+            tick[0]       = pool.acquire();
+            tick[0].value = 42;
+            pool.dispatch(tick[0]);
+        });
+        producer.start();
+        producer.join();
+
+        assertEquals(1, tick[0].references());
+        bus.drain("main");
+        assertEquals(42, received.get(0));
+        assertEquals(0, tick[0].references());
+    }
+
+    public static class Container {
+        public int method, consumer;
+
+        @Subscribe(thread = "render")
+        public final Consumer<String> onString = s -> consumer++;
+
+        @Subscribe(thread = "render")
+        public void onReceive(String message) {
+            method++;
+        }
+    }
+
+    public static class Tick extends PooledMessage {
+        public int value;
+
+        @Override
+        protected void reset() {
+            value = 0;
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package fr.shyrogan.post.async;
+
+import fr.shyrogan.post.listener.BatchListener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Ring buffer event bus test")
+public class AsyncEventBusTest {
+
+    @Test
+    @DisplayName("Messages of several producers are all dispatched")
+    void producers() throws InterruptedException {
+        final int           producers = 4, messages = 10_000;
+        final AtomicInteger received  = new AtomicInteger();
+        try (AsyncEventBus bus = new AsyncEventBusBuilder().capacity(64).consumers(2).batchSize(16).build()) {
+            bus.subscribe(new ListenerBuilder<>(Integer.class).perform(i -> received.incrementAndGet()).build());
+
+            final List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                final Thread thread = new Thread(() -> {
+                    for (int i = 0; i < messages; i++) bus.dispatch(i);
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) thread.join();
+        }
+        assertEquals(producers * messages, received.get());
+    }
+
+    @Test
+    @DisplayName("A single consumer preserves the order")
+    void order() {
+        final List<Integer> received = new ArrayList<>();
+        try (AsyncEventBus bus = new AsyncEventBusBuilder().capacity(8).waitStrategy(WaitStrategy.YIELD).build()) {
+            bus.subscribe(new ListenerBuilder<>(Integer.class).perform(received::add).build());
+            for (int i = 0; i < 1000; i++) bus.dispatch(i);
+        }
+        for (int i = 0; i < 1000; i++) assertEquals(i, received.get(i));
+    }
+
+    @Test
+    @DisplayName("Batch listeners receive the claimed batches")
+    void batch() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1), release = new CountDownLatch(1);
+        final List<Integer>  sizes   = new CopyOnWriteArrayList<>();
+        try (AsyncEventBus bus = new AsyncEventBusBuilder().capacity(64).batchSize(16).build()) {
+            bus.subscribe(new ListenerBuilder<>(String.class).perform(s -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }).build());
+            bus.subscribe(new BatchListener<Integer>() {
+                @Override
+                public Class<Integer> topic() {
+                    return Integer.class;
+                }
+
+                @Override
+                public int priority() {
+                    return 0;
+                }
+
+                @Override
+                public void receive(Integer message) {
+                    sizes.add(1);
+                }
+
+                @Override
+                public void receiveAll(List<Integer> messages) {
+                    sizes.add(messages.size());
+                }
+            });
+            bus.dispatch("block");
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            // The consumer is blocked: the next batch it claims holds every message
+            for (int i = 0; i < 8; i++) bus.dispatch(i);
+            release.countDown();
+        }
+        assertEquals(List.of(8), sizes);
+    }
+
+    @Test
+    @DisplayName("Overflow policies")
+    void overflow() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1), release = new CountDownLatch(1);
+        final Thread         caller  = Thread.currentThread();
+        final List<Thread>   threads = new CopyOnWriteArrayList<>();
+
+        try (AsyncEventBus bus = new AsyncEventBusBuilder().capacity(2).overflowPolicy(OverflowPolicy.DROP).build()) {
+            bus.subscribe(new ListenerBuilder<>(Integer.class).perform(i -> {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }).build());
+            bus.dispatch(0);
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            // The consumer is blocked: two messages fill the ring, the third one is dropped
+            bus.dispatch(1);
+            bus.dispatch(2);
+            bus.dispatch(3);
+            assertEquals(1, bus.droppedMessages());
+            release.countDown();
+        }
+
+        try (AsyncEventBus bus = new AsyncEventBusBuilder().capacity(2)
+                                                           .overflowPolicy(OverflowPolicy.CALLER_RUNS).build()) {
+            final CountDownLatch held = new CountDownLatch(1), free = new CountDownLatch(1);
+            bus.subscribe(new ListenerBuilder<>(Integer.class).perform(i -> {
+                threads.add(Thread.currentThread());
+                if (i == 0) {
+                    held.countDown();
+                    try {
+                        free.await();
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }).build());
+            bus.dispatch(0);
+            assertTrue(held.await(10, TimeUnit.SECONDS));
+            bus.dispatch(1);
+            bus.dispatch(2);
+            bus.dispatch(3);
+            // The fourth message does not fit and is dispatched by the caller
+            assertTrue(threads.contains(caller));
+            free.countDown();
+        }
+        assertThrows(IllegalStateException.class, () -> {
+            final AsyncEventBus bus = new AsyncEventBusBuilder().build();
+            bus.close();
+            bus.dispatch(0);
+        });
+    }
+
+}
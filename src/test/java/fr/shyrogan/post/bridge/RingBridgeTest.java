@@ -0,0 +1,191 @@
+package fr.shyrogan.post.bridge;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Ring bridge test")
+public class RingBridgeTest {
+
+    private final Path          file   = createFile();
+    private final CodecRegistry codecs = new CodecRegistry().register(Position.class, new PositionCodec())
+                                                            .register(String.class, new StringCodec());
+
+    @Test
+    @DisplayName("Bridged topics are dispatched on the reading bus")
+    void bridged() throws IOException {
+        final EventBus source = new EventBus(), target = new EventBus();
+        try (MappedRing writing = MappedRing.create(file, 1024); MappedRing reading = MappedRing.open(file)) {
+            final List<Position> received = new ArrayList<>();
+            target.subscribe(new ListenerBuilder<>(Position.class).perform(received::add).build());
+            final RingPublisher publisher = new RingPublisher(source, writing, codecs).bridge(Position.class);
+            final RingReader    reader    = new RingReader(target, reading, codecs);
+
+            source.dispatch(new Position(1, 2.5));
+            source.dispatch("not bridged");
+            assertEquals(1, reader.poll());
+            assertEquals(1, received.get(0).entity);
+            assertEquals(2.5, received.get(0).x);
+            assertEquals(0, reader.poll());
+
+            publisher.close();
+            source.dispatch(new Position(2, 0));
+            assertEquals(0, reader.poll());
+        }
+    }
+
+    @Test
+    @DisplayName("Readers follow the ring at their own pace, across its end")
+    void readers() throws IOException {
+        final EventBus source = new EventBus(), target = new EventBus();
+        try (MappedRing ring = MappedRing.create(file, 256)) {
+            final List<String> received = new ArrayList<>();
+            target.subscribe(new ListenerBuilder<>(String.class).perform(received::add).build());
+            final RingPublisher publisher = new RingPublisher(source, ring, codecs).bridge(String.class);
+            final RingReader    first     = new RingReader(target, ring, codecs);
+            final RingReader    second    = new RingReader(target, ring, codecs);
+
+            for (int i = 0; i < 100; i++) {
+                source.dispatch("message " + i);
+                assertEquals(1, first.poll());
+                if (i % 4 == 3) assertEquals(4, second.poll());
+            }
+            assertEquals(200, received.size());
+            assertEquals("message 99", received.get(199));
+            assertEquals(0, first.overruns() + second.overruns());
+        }
+    }
+
+    @Test
+    @DisplayName("Lagging readers skip the overwritten messages")
+    void overrun() throws IOException {
+        final EventBus source = new EventBus(), target = new EventBus();
+        try (MappedRing ring = MappedRing.create(file, 128)) {
+            final RingPublisher publisher = new RingPublisher(source, ring, codecs).bridge(Position.class);
+            final RingReader    reader    = new RingReader(target, ring, codecs);
+
+            for (int i = 0; i < 20; i++) source.dispatch(new Position(i, i));
+            assertEquals(0, reader.poll());
+            assertEquals(1, reader.overruns());
+
+            source.dispatch(new Position(20, 20));
+            assertEquals(1, reader.poll());
+        }
+    }
+
+    @Test
+    @DisplayName("Messages read from a ring are not published again")
+    void echo() throws IOException {
+        final EventBus bus = new EventBus();
+        try (MappedRing ring = MappedRing.create(file, 1024)) {
+            final RingPublisher publisher = new RingPublisher(bus, ring, codecs).bridge(Position.class);
+            final RingReader    reader    = new RingReader(bus, ring, codecs);
+
+            bus.dispatch(new Position(1, 1));
+            assertEquals(1, reader.poll());
+            assertEquals(0, reader.poll());
+        }
+    }
+
+    @Test
+    @DisplayName("Messages are read by another thread while they are published")
+    void concurrent() throws Exception {
+        final EventBus source = new EventBus(), target = new EventBus();
+        try (MappedRing writing = MappedRing.create(file, 4096); MappedRing reading = MappedRing.open(file)) {
+            final long[] sum = new long[1];
+            target.subscribe(new ListenerBuilder<>(Position.class).perform(p -> sum[0] += p.entity).build());
+            new RingPublisher(source, writing, codecs).bridge(Position.class);
+            final RingReader reader = new RingReader(target, reading, codecs);
+
+            final Thread consumer = new Thread(() -> {
+                int count = 0;
+                while (count < 10_000) count += reader.poll();
+            });
+            consumer.start();
+            for (int i = 0; i < 10_000; i++) {
+                // Never lets the reader lag by more than the capacity
+                while (writing.published() - reader.position() > 2048) Thread.onSpinWait();
+                source.dispatch(new Position(i, i));
+            }
+            consumer.join(10_000);
+            assertFalse(consumer.isAlive());
+            assertEquals(0, reader.overruns());
+            assertEquals(10_000L * 9_999 / 2, sum[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("Only rings are opened")
+    void invalid() throws IOException {
+        Files.write(file, new byte[256]);
+        assertThrows(IOException.class, () -> MappedRing.open(file));
+        assertThrows(IllegalArgumentException.class, () -> MappedRing.create(file, 100));
+    }
+
+    @Test
+    @DisplayName("Topic identifiers are 64 bits hashes of the topic names")
+    void identifiers() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(CodecRegistry.idOf("Aa"), CodecRegistry.idOf("BB"));
+        assertEquals(CodecRegistry.idOf(Position.class.getName()), codecs.entry(Position.class).id);
+        assertSame(codecs.entry(Position.class), codecs.entry(CodecRegistry.idOf(Position.class.getName())));
+    }
+
+    private static Path createFile() {
+        try {
+            final Path file = Files.createTempFile("post-ring", ".bin");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static class Position {
+        public final int    entity;
+        public final double x;
+
+        public Position(int entity, double x) {
+            this.entity = entity;
+            this.x      = x;
+        }
+    }
+
+    public static class PositionCodec implements MessageCodec<Position> {
+        @Override
+        public void encode(Position message, ByteBuffer target) {
+            target.putInt(message.entity).putDouble(message.x);
+        }
+
+        @Override
+        public Position decode(ByteBuffer source) {
+            return new Position(source.getInt(), source.getDouble());
+        }
+    }
+
+    public static class StringCodec implements MessageCodec<String> {
+        @Override
+        public void encode(String message, ByteBuffer target) {
+            target.put(message.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String decode(ByteBuffer source) {
+            final byte[] bytes = new byte[source.remaining()];
+            source.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package fr.shyrogan.post.dispatcher;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.dispatcher.impl.CompiledMessageDispatcher;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Compiled dispatcher test")
+public class CompiledMessageDispatcherTest {
+
+    private final EventBusConfiguration configuration = EventBusConfiguration.DEFAULT;
+
+    @Test
+    void dispatchesInOrder() {
+        final List<String>   calls     = new ArrayList<>();
+        final List<Listener> listeners = new ArrayList<>();
+        listeners.add(new ListenerBuilder<>(String.class).perform(s -> calls.add("builder " + s)).build());
+        listeners.addAll(configuration.receiverFactory().lookInto(new Holder(calls), configuration));
+        listeners.add(new PrivateListener(calls));
+
+        final MessageDispatcher dispatcher = CompiledMessageDispatcher.of(listeners.toArray(new Listener[0]), configuration.classLoader());
+        assertTrue(dispatcher.getClass().getName().startsWith("PostDispatcher_"));
+
+        dispatcher.dispatch("a");
+        assertEquals(List.of("builder a", "method a", "private a"), calls);
+    }
+
+    @Test
+    void sharesClassesBetweenShapes() {
+        final List<String>      calls  = new ArrayList<>();
+        final MessageDispatcher first  = CompiledMessageDispatcher.of(listeners(new Holder(calls), new Holder(calls)),
+                                                                      configuration.classLoader());
+        final MessageDispatcher second = CompiledMessageDispatcher.of(listeners(new Holder(calls), new Holder(calls)),
+                                                                      configuration.classLoader());
+
+        assertEquals(first.getClass(), second.getClass());
+    }
+
+    private Listener[] listeners(Object... objects) {
+        final List<Listener> listeners = new ArrayList<>();
+        for (Object object : objects) {
+            listeners.addAll(configuration.receiverFactory().lookInto(object, configuration));
+        }
+        return listeners.toArray(new Listener[0]);
+    }
+
+    public static class Holder {
+        private final List<String> calls;
+
+        public Holder(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Subscribe
+        public void onMessage(String message) {
+            calls.add("method " + message);
+        }
+    }
+
+    private static class PrivateListener implements Listener<String> {
+        private final List<String> calls;
+
+        PrivateListener(List<String> calls) {
+            this.calls = calls;
+        }
+
+        @Override
+        public Class<String> topic() {
+            return String.class;
+        }
+
+        @Override
+        public int priority() {
+            return 0;
+        }
+
+        @Override
+        public void receive(String message) {
+            calls.add("private " + message);
+        }
+    }
+
+}
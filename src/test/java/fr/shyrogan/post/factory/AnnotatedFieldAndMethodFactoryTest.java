@@ -0,0 +1,70 @@
+package fr.shyrogan.post.factory;
+
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.factory.impl.AnnotatedFieldAndMethodFactory;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@DisplayName("Annotated field and method factory test")
+public class AnnotatedFieldAndMethodFactoryTest {
+
+    private final EventBusConfiguration configuration = EventBusConfiguration.DEFAULT;
+
+    @Test
+    @DisplayName("Receivers of each object are bound to that object")
+    void perObject() {
+        final Holder         first      = new Holder("first");
+        final Holder         second     = new Holder("second");
+        final List<Listener> firstList  = AnnotatedFieldAndMethodFactory.INSTANCE.lookInto(first, configuration);
+        final List<Listener> secondList = AnnotatedFieldAndMethodFactory.INSTANCE.lookInto(second, configuration);
+        assertEquals(3, firstList.size());
+        assertEquals(3, secondList.size());
+
+        for (int i = 0; i < firstList.size(); i++) {
+            assertSame(firstList.get(i).getClass(), secondList.get(i).getClass());
+            assertNotSame(firstList.get(i), secondList.get(i));
+            assertEquals(firstList.get(i).priority(), secondList.get(i).priority());
+            assertEquals(firstList.get(i).topic(), secondList.get(i).topic());
+            firstList.get(i).receive("a");
+            secondList.get(i).receive("b");
+        }
+        assertEquals(asList("first:method:a", "first:consumer:a", "first:listener:a"), first.calls);
+        assertEquals(asList("second:method:b", "second:consumer:b", "second:listener:b"), second.calls);
+    }
+
+    public static class Holder {
+        private final List<String> calls = new ArrayList<>();
+        private final String       name;
+
+        @Subscribe(priority = 5)
+        public final Consumer<String> consumer;
+
+        @Subscribe
+        public final Listener<String> listener;
+
+        public Holder(String name) {
+            this.name     = name;
+            this.consumer = s -> calls.add(name + ":consumer:" + s);
+            this.listener = new ListenerBuilder<>(String.class).perform(s -> calls.add(name + ":listener:" + s))
+                                                               .build();
+        }
+
+        @Subscribe(priority = 10)
+        public void onString(String message) {
+            calls.add(name + ":method:" + message);
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package fr.shyrogan.post.factory;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.factory.impl.AnnotatedFieldAndMethodFactory;
+import fr.shyrogan.post.factory.impl.GeneratedRegistrarFactory;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Generated registrar factory test")
+public class GeneratedRegistrarFactoryTest {
+
+    @Test
+    @DisplayName("Receivers are created by the generated registrar")
+    void generated() {
+        assertTrue(GeneratedRegistrarFactory.hasRegistrar(Holder.class));
+
+        final Holder         holder    = new Holder();
+        final List<Listener> listeners = GeneratedRegistrarFactory.INSTANCE.lookInto(holder, null);
+        assertEquals(3, listeners.size());
+        for (Listener listener : listeners) {
+            assertTrue(listener.getClass().getName().startsWith(Holder.class.getName()) ||
+                       listener.getClass().getName().startsWith("fr.shyrogan.post.listener.ListenerBuilder"));
+        }
+
+        final EventBus bus = new EventBus();
+        bus.subscribe(holder);
+        bus.dispatch("a");
+        bus.dispatch(1);
+        assertEquals(asList("method:a", "consumer:a", "static:1"), holder.calls);
+    }
+
+    @Test
+    @DisplayName("Null fields are skipped, like the reflective factory does")
+    void nullFields() {
+        assertTrue(GeneratedRegistrarFactory.hasRegistrar(NullHolder.class));
+
+        final NullHolder            holder        = new NullHolder();
+        final EventBusConfiguration configuration = EventBusConfiguration.DEFAULT;
+        assertEquals(1, GeneratedRegistrarFactory.INSTANCE.lookInto(holder, configuration).size());
+        assertEquals(1, AnnotatedFieldAndMethodFactory.INSTANCE.lookInto(holder, configuration).size());
+        new EventBus().subscribe(holder).dispatch("a");
+        assertEquals(asList("a"), holder.calls);
+    }
+
+    @Test
+    @DisplayName("Methods are registered before fields, like the reflective factory does")
+    void order() {
+        assertTrue(GeneratedRegistrarFactory.hasRegistrar(OrderHolder.class));
+
+        final OrderHolder generated = new OrderHolder();
+        new EventBus().subscribe(generated).dispatch("a");
+        final OrderHolder reflective = new OrderHolder();
+        new EventBus(new EventBusConfiguration() {
+            @Override
+            public ReceiverFactory receiverFactory() {
+                return AnnotatedFieldAndMethodFactory.INSTANCE;
+            }
+        }).subscribe(reflective).dispatch("a");
+
+        assertEquals(asList("method:a", "consumer:a"), generated.calls);
+        assertEquals(generated.calls, reflective.calls);
+    }
+
+    @Test
+    @DisplayName("Classes with private receivers are inspected at runtime")
+    void fallback() {
+        assertFalse(GeneratedRegistrarFactory.hasRegistrar(PrivateHolder.class));
+
+        final PrivateHolder holder = new PrivateHolder();
+        new EventBus().subscribe(holder).dispatch("a");
+        assertEquals(asList("a"), holder.calls);
+    }
+
+    public static class Holder {
+        private final static List<String> STATIC_CALLS = new ArrayList<>();
+
+        final List<String> calls = STATIC_CALLS;
+
+        @Subscribe(priority = -10)
+        final Consumer<String> consumer = s -> calls.add("consumer:" + s);
+
+        @Subscribe(priority = 10)
+        void onString(String message) {
+            calls.add("method:" + message);
+        }
+
+        @Subscribe
+        static void onInteger(Integer message) {
+            STATIC_CALLS.add("static:" + message);
+        }
+    }
+
+    public static class OrderHolder {
+        final List<String> calls = new ArrayList<>();
+
+        @Subscribe
+        final Consumer<String> consumer = s -> calls.add("consumer:" + s);
+
+        @Subscribe
+        public void onString(String message) {
+            calls.add("method:" + message);
+        }
+    }
+
+    public static class NullHolder {
+        final List<String> calls = new ArrayList<>();
+
+        @Subscribe
+        final Consumer<String> consumer = null;
+
+        @Subscribe
+        final Listener<String> listener = null;
+
+        @Subscribe
+        public void onString(String message) {
+            calls.add(message);
+        }
+    }
+
+    public static class PrivateHolder {
+        final List<String> calls = new ArrayList<>();
+
+        @Subscribe
+        public void onString(String message) {
+            calls.add(message);
+        }
+
+        @Subscribe
+        private void onInteger(Integer message) {
+            calls.add("integer:" + message);
+        }
+    }
+
+}
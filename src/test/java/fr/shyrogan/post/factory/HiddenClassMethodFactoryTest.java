@@ -0,0 +1,76 @@
+package fr.shyrogan.post.factory;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.factory.impl.AnnotatedFieldAndHiddenClassMethodFactory;
+import fr.shyrogan.post.factory.impl.HiddenClassMethodFactory;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Hidden class method factory test")
+public class HiddenClassMethodFactoryTest {
+
+    private final static List<String> STATIC_CALLS = new ArrayList<>();
+
+    private final EventBus bus = new EventBus(new EventBusConfiguration() {
+        @Override
+        public ReceiverFactory receiverFactory() {
+            return AnnotatedFieldAndHiddenClassMethodFactory.INSTANCE;
+        }
+    });
+
+    @Test
+    @DisplayName("Private receivers of private classes")
+    void privateReceivers() {
+        final PrivateContainer container = new PrivateContainer();
+        bus.subscribe(container);
+        bus.dispatch("a");
+        assertEquals(asList("method:a", "consumer:a"), container.calls);
+        assertEquals(asList("static:a"), STATIC_CALLS);
+
+        bus.unsubscribe(container);
+        bus.dispatch("b");
+        assertEquals(asList("method:a", "consumer:a"), container.calls);
+    }
+
+    @Test
+    @DisplayName("Receiver classes are defined once per class")
+    void sharedClasses() {
+        final List<Listener> first  = HiddenClassMethodFactory.INSTANCE.lookInto(new PrivateContainer(), null);
+        final List<Listener> second = HiddenClassMethodFactory.INSTANCE.lookInto(new PrivateContainer(), null);
+        assertEquals(2, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i).getClass(), second.get(i).getClass());
+            assertTrue(first.get(i).getClass().isHidden());
+        }
+    }
+
+    private static class PrivateContainer {
+        private final List<String> calls = new ArrayList<>();
+
+        @Subscribe
+        private final Consumer<String> consumer = s -> calls.add("consumer:" + s);
+
+        @Subscribe(priority = 10)
+        private void onString(String message) {
+            calls.add("method:" + message);
+        }
+
+        @Subscribe
+        private static void onStaticString(String message) {
+            STATIC_CALLS.add("static:" + message);
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+package fr.shyrogan.post.flow;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Flow adapter test")
+public class FlowAdapterTest {
+
+    private final EventBus bus = new EventBus();
+
+    @Test
+    @DisplayName("Messages are delivered as they are requested")
+    void demand() {
+        final FlowPublisher<String> publisher = new FlowPublisher<>(bus, String.class, 16, OverflowStrategy.ERROR,
+                                                                    Runnable::run);
+        final Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+
+        bus.dispatch("a");
+        bus.dispatch("b");
+        bus.dispatch("c");
+        assertEquals(asList(), recorder.items);
+
+        recorder.subscription.request(2);
+        assertEquals(asList("a", "b"), recorder.items);
+        recorder.subscription.request(5);
+        bus.dispatch("d");
+        assertEquals(asList("a", "b", "c", "d"), recorder.items);
+
+        publisher.close();
+        assertTrue(recorder.completed);
+        bus.dispatch("e");
+        assertEquals(4, recorder.items.size());
+    }
+
+    @Test
+    @DisplayName("Overflow strategies")
+    void overflow() {
+        final FlowPublisher<String> oldest = new FlowPublisher<>(bus, String.class, 2, OverflowStrategy.DROP_OLDEST,
+                                                                 Runnable::run);
+        final FlowPublisher<String> newest = new FlowPublisher<>(bus, String.class, 2, OverflowStrategy.DROP_NEWEST,
+                                                                 Runnable::run);
+        final FlowPublisher<String> error  = new FlowPublisher<>(bus, String.class, 2, OverflowStrategy.ERROR,
+                                                                 Runnable::run);
+        final Recorder oldestRecorder = new Recorder(), newestRecorder = new Recorder(), errorRecorder = new Recorder();
+        oldest.subscribe(oldestRecorder);
+        newest.subscribe(newestRecorder);
+        error.subscribe(errorRecorder);
+
+        for (String message : asList("a", "b", "c", "d")) bus.dispatch(message);
+        oldestRecorder.subscription.request(10);
+        newestRecorder.subscription.request(10);
+
+        assertEquals(asList("c", "d"), oldestRecorder.items);
+        assertEquals(asList("a", "b"), newestRecorder.items);
+        assertEquals(2, oldest.droppedMessages());
+        assertTrue(errorRecorder.error instanceof IllegalStateException);
+        assertEquals(0, error.subscribers());
+    }
+
+    @Test
+    @DisplayName("A slow subscriber does not block the dispatching thread")
+    void slowSubscriber() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final FlowPublisher<String> publisher = new FlowPublisher<>(bus, String.class, 4,
+                                                                        OverflowStrategy.DROP_OLDEST, executor);
+            final CountDownLatch release = new CountDownLatch(1);
+            final Recorder       slow    = new Recorder() {
+                @Override
+                public void onNext(Object item) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    super.onNext(item);
+                }
+            };
+            publisher.subscribe(slow);
+            slow.subscription.request(Long.MAX_VALUE);
+
+            for (int i = 0; i < 1000; i++) bus.dispatch("message");
+            assertTrue(publisher.droppedMessages() >= 1000 - 5);
+            release.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @DisplayName("Non-positive requests fail the subscription")
+    void invalidRequest() {
+        final FlowPublisher<String> publisher = new FlowPublisher<>(bus, String.class, 2, OverflowStrategy.ERROR,
+                                                                    Runnable::run);
+        final Recorder recorder = new Recorder();
+        publisher.subscribe(recorder);
+        recorder.subscription.request(0);
+        assertTrue(recorder.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    @DisplayName("Items of a publisher are dispatched to the event bus")
+    void subscriber() throws Exception {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(String.class).perform(received::add).build());
+
+        final FlowSubscriber<String> subscriber = new FlowSubscriber<>(bus, 4);
+        try (SubmissionPublisher<String> upstream = new SubmissionPublisher<>()) {
+            upstream.subscribe(subscriber);
+            for (int i = 0; i < 100; i++) upstream.submit(Integer.toString(i));
+        }
+        subscriber.terminated().get(5, TimeUnit.SECONDS);
+
+        assertEquals(100, received.size());
+        assertEquals("99", received.get(99));
+    }
+
+    private static class Recorder implements Flow.Subscriber<Object> {
+        final List<Object> items = new ArrayList<>();
+        Flow.Subscription  subscription;
+        volatile Throwable error;
+        volatile boolean   completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Object item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+}
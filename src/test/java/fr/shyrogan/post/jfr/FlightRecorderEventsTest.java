@@ -0,0 +1,111 @@
+package fr.shyrogan.post.jfr;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import fr.shyrogan.post.listener.annotation.Subscribe;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Flight recorder events test")
+public class FlightRecorderEventsTest {
+
+    private final EventBus bus = new EventBus(new EventBusConfiguration() {
+        @Override
+        public boolean flightRecorderEvents() {
+            return true;
+        }
+    });
+    /** Kept reachable, subscribed holders are weakly referenced **/
+    private final Receivers receivers = new Receivers();
+
+    @Test
+    @DisplayName("Dispatches, slow receivers and registrations are recorded")
+    void recorded() throws Exception {
+        final List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(DispatchEvent.class).withThreshold(Duration.ZERO);
+            recording.enable(ListenerEvent.class).withThreshold(Duration.ofMillis(5));
+            recording.enable(SubscriptionEvent.class);
+            recording.enable(DispatcherRebuildEvent.class);
+            recording.enable(CompilationEvent.class);
+            recording.start();
+
+            bus.subscribe(receivers);
+            bus.subscribe(new ListenerBuilder<>(String.class).perform(s -> sleep()).build());
+            bus.dispatch("message");
+            recording.stop();
+
+            final Path file = Files.createTempFile("post", ".jfr");
+            try {
+                recording.dump(file);
+                events = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        final RecordedEvent dispatch = only(events, "fr.shyrogan.post.Dispatch");
+        assertEquals(String.class.getName(), dispatch.getClass("topic").getName());
+        assertEquals(2, dispatch.getInt("listeners"));
+
+        // Only the sleeping receiver is slow
+        final RecordedEvent listener = only(events, "fr.shyrogan.post.Listener");
+        assertFalse(listener.getString("listener").contains("Receivers"));
+
+        assertEquals(2, count(events, "fr.shyrogan.post.Subscription"));
+        assertTrue(count(events, "fr.shyrogan.post.DispatcherRebuild") >= 2);
+        // The receiver of Receivers and the compiled dispatcher of the topic
+        assertTrue(count(events, "fr.shyrogan.post.Compilation") >= 1);
+    }
+
+    @Test
+    @DisplayName("Dispatching without recording")
+    void notRecorded() {
+        final int[] received = new int[1];
+        bus.subscribe(new ListenerBuilder<>(String.class).perform(s -> received[0]++).build());
+        bus.dispatch("message");
+        bus.dispatchAll(new Object[]{ "a", "b" });
+        assertEquals(3, received[0]);
+    }
+
+    private static RecordedEvent only(List<RecordedEvent> events, String name) {
+        RecordedEvent found = null;
+        for (RecordedEvent event : events) {
+            if (!event.getEventType().getName().equals(name)) continue;
+            assertNull(found, "More than one " + name);
+            found = event;
+        }
+        assertNotNull(found, name);
+        return found;
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class Receivers {
+        @Subscribe
+        public void onString(String message) {
+        }
+    }
+
+}
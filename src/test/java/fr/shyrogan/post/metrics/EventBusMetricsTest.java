@@ -0,0 +1,106 @@
+package fr.shyrogan.post.metrics;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Event bus metrics test")
+public class EventBusMetricsTest {
+
+    private final EventBus bus = new EventBus(new EventBusConfiguration() {
+        @Override
+        public boolean metricsEnabled() {
+            return true;
+        }
+
+        @Override
+        public int metricsSamplingInterval() {
+            return 1;
+        }
+    });
+
+    @Test
+    @DisplayName("Metrics are disabled by default")
+    void disabled() {
+        assertNull(new EventBus().metrics());
+    }
+
+    @Test
+    @DisplayName("Dispatches, calls and dead messages are counted")
+    void counted() {
+        final Listener<String> first  = new ListenerBuilder<>(String.class).perform(s -> { }).build();
+        final Listener<String> second = new ListenerBuilder<>(String.class).perform(s -> { }).build();
+        bus.subscribe(first);
+        bus.dispatch("a");
+        bus.subscribe(second);
+        bus.dispatch("b");
+        bus.dispatchAll(new Object[]{"c", "d"});
+        bus.dispatch(42);
+
+        final EventBusMetrics metrics = bus.metrics();
+        assertEquals(4, metrics.topic(String.class).dispatches());
+        // A batch is timed once
+        assertEquals(3, metrics.topic(String.class).latency().count());
+        assertEquals(0, metrics.topic(String.class).deadMessages());
+        assertEquals(1, metrics.topic(Integer.class).deadMessages());
+        assertEquals(1, metrics.getDeadMessages());
+        assertEquals(4, metrics.listener(first).calls());
+        assertEquals(3, metrics.listener(second).calls());
+    }
+
+    @Test
+    @DisplayName("Exceptions are counted and still thrown")
+    void exceptions() {
+        final Listener<String> failing = new ListenerBuilder<>(String.class).perform(s -> {
+            throw new IllegalStateException(s);
+        }).build();
+        bus.subscribe(failing);
+
+        assertThrows(IllegalStateException.class, () -> bus.dispatch("a"));
+        assertEquals(1, bus.metrics().topic(String.class).exceptions());
+        assertEquals(1, bus.metrics().listener(failing).exceptions());
+        assertEquals(1, bus.metrics().getExceptions());
+    }
+
+    @Test
+    @DisplayName("Metrics are exposed through JMX")
+    void jmx() throws Exception {
+        bus.subscribe(new ListenerBuilder<>(String.class).perform(s -> { }).build());
+        bus.dispatch("a");
+
+        final ObjectName name = bus.metrics().registerMBean("fr.shyrogan.post:type=EventBus,name=test");
+        try {
+            final Object dispatches = ManagementFactory.getPlatformMBeanServer().getAttribute(name, "TopicDispatches");
+            assertNotNull(dispatches);
+            assertEquals(0L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "DeadMessages"));
+            final Map<String, Long> view = bus.metrics().getTopicDispatches();
+            assertEquals(1L, view.get(String.class.getName()));
+        } finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+
+    @Test
+    @DisplayName("Latency percentiles")
+    void histogram() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(99));
+        for (int i = 0; i < 99; i++) histogram.record(100);
+        histogram.record(10_000);
+
+        assertEquals(100, histogram.count());
+        assertEquals(127, histogram.percentile(50));
+        assertEquals(127, histogram.percentile(99));
+        assertEquals(16383, histogram.percentile(100));
+    }
+
+}
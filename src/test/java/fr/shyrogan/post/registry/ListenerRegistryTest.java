@@ -0,0 +1,150 @@
+package fr.shyrogan.post.registry;
+
+import fr.shyrogan.post.EventBus;
+import fr.shyrogan.post.configuration.EventBusConfiguration;
+import fr.shyrogan.post.dispatcher.impl.KeyedMessageDispatcher;
+import fr.shyrogan.post.listener.Listener;
+import fr.shyrogan.post.listener.ListenerBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Listener registry test")
+public class ListenerRegistryTest {
+
+    private final EventBus bus = new EventBus();
+
+    @Test
+    void visibleOnReturn() {
+        final AtomicInteger received = new AtomicInteger();
+        final Listener<String> listener = new ListenerBuilder<>(String.class).perform(s -> received.incrementAndGet())
+                                                                             .build();
+
+        bus.subscribe(listener).dispatch("a");
+        bus.unsubscribe(listener).dispatch("b");
+        assertEquals(1, received.get());
+    }
+
+    @Test
+    void deadMessages() {
+        final List<Object> deadMessages = new ArrayList<>();
+        final EventBus     handledBus   = new EventBus(new EventBusConfiguration() {
+            @Override
+            public Consumer<Object> deadMessageHandler() {
+                return deadMessages::add;
+            }
+        });
+
+        bus.dispatch(1);
+        handledBus.dispatch(1);
+        handledBus.subscribe(new ListenerBuilder<>(Integer.class).perform(i -> {}).build()).dispatch(2);
+        assertEquals(List.of(1), deadMessages);
+    }
+
+    @Test
+    void keyedIncremental() {
+        final ListenerRegistry registry = new ListenerRegistry(EventBusConfiguration.DEFAULT);
+        registry.keyExtractor(String.class, s -> s);
+        registry.subscribe(new ListenerBuilder<>(String.class).key("a").perform(s -> {}).build());
+        final KeyedMessageDispatcher dispatcher = (KeyedMessageDispatcher) registry.topic(String.class).dispatcher();
+        final KeyedMessageDispatcher.Entry entry = dispatcher.entry("a");
+
+        // Other keys and the listeners without key do not rebuild the entry of the key
+        registry.subscribe(new ListenerBuilder<>(String.class).key("b").perform(s -> {}).build());
+        registry.subscribe(new ListenerBuilder<>(String.class).perform(s -> {}).build());
+        final KeyedMessageDispatcher updated = (KeyedMessageDispatcher) registry.topic(String.class).dispatcher();
+        assertSame(entry, updated.entry("a"));
+        assertNotNull(updated.entry("b"));
+    }
+
+    @Test
+    void sortedByPriority() {
+        final List<Integer> calls = new ArrayList<>();
+        for (int priority : new int[] { 0, 10, -10, 5, 10 }) {
+            bus.subscribe(new ListenerBuilder<>(String.class).priority(priority).perform(s -> calls.add(priority))
+                                                             .build());
+        }
+
+        bus.dispatch("a");
+        assertEquals(List.of(10, 10, 5, 0, -10), calls);
+    }
+
+    @Test
+    void bulkSubscription() {
+        final List<String>   calls     = new ArrayList<>();
+        final List<Listener> listeners = new ArrayList<>();
+        bus.subscribe(new ListenerBuilder<>(String.class).priority(5).perform(s -> calls.add("5")).build());
+        for (int priority : new int[] { 0, 10, 5 }) {
+            listeners.add(new ListenerBuilder<>(String.class).priority(priority)
+                                                             .perform(s -> calls.add("bulk " + priority)).build());
+        }
+
+        bus.subscribe(listeners).dispatch("a");
+        assertEquals(List.of("bulk 10", "5", "bulk 5", "bulk 0"), calls);
+
+        calls.clear();
+        bus.unsubscribe(listeners).dispatch("a");
+        assertEquals(List.of("5"), calls);
+    }
+
+    @Test
+    void polymorphicDispatch() {
+        final EventBus     polymorphicBus = new EventBus(new EventBusConfiguration() {
+            @Override
+            public boolean polymorphicDispatch() {
+                return true;
+            }
+        });
+        final List<String> calls          = new ArrayList<>();
+        polymorphicBus.subscribe(new ListenerBuilder<>(CharSequence.class).perform(s -> calls.add("sequence " + s))
+                                                                          .build());
+        polymorphicBus.dispatch("a");
+        polymorphicBus.dispatch(new StringBuilder("b"));
+
+        // Subscribing to a super type updates the topics that have already been dispatched to
+        polymorphicBus.subscribe(new ListenerBuilder<>(Object.class).priority(10).perform(o -> calls.add("object " + o))
+                                                                    .build());
+        polymorphicBus.subscribe(new ListenerBuilder<>(String.class).perform(s -> calls.add("string " + s)).build());
+        polymorphicBus.dispatch("c");
+        polymorphicBus.dispatch(1);
+
+        assertEquals(List.of("sequence a", "sequence b", "object c", "string c", "sequence c", "object 1"), calls);
+    }
+
+    @Test
+    void concurrentModifications() throws InterruptedException {
+        final AtomicBoolean             running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Listener<String>          stable  = new ListenerBuilder<>(String.class).perform(s -> {}).build();
+        bus.subscribe(stable);
+
+        final Thread writer = new Thread(() -> {
+            while (running.get()) {
+                final Listener<String> listener = new ListenerBuilder<>(String.class).perform(s -> {}).build();
+                bus.subscribe(listener).unsubscribe(listener);
+            }
+        });
+        writer.start();
+        try {
+            for (int i = 0; i < 100_000; i++) {
+                bus.dispatch("a");
+            }
+        } catch (Throwable t) {
+            failure.set(t);
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+
+        assertNull(failure.get());
+    }
+
+}
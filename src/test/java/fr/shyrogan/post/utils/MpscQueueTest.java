@@ -0,0 +1,60 @@
+package fr.shyrogan.post.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MPSC queue test")
+public class MpscQueueTest {
+
+    private final MpscQueue<Integer> queue = new MpscQueue<>();
+
+    @Test
+    @DisplayName("Elements are drained in order")
+    void order() {
+        for (int i = 0; i < 10; i++) queue.offer(i);
+        final List<Integer> drained = new ArrayList<>();
+
+        assertFalse(queue.isEmpty());
+        assertEquals(10, queue.drain(drained::add));
+        assertEquals(9, drained.get(9));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Elements offered while draining are left for the next drain")
+    void bounded() {
+        queue.offer(0);
+        assertEquals(1, queue.drain(e -> queue.offer(e + 1)));
+        assertEquals(1, queue.drain(e -> assertEquals(1, e)));
+    }
+
+    @Test
+    @DisplayName("Concurrent producers do not lose elements")
+    void producers() throws InterruptedException {
+        final Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            final int offset = p * 10_000;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) queue.offer(offset + i);
+            });
+            producers[p].start();
+        }
+        final int[] last  = new int[producers.length];
+        int         count = 0;
+        while (count < 40_000) {
+            count += queue.drain(e -> {
+                // Elements of a same producer stay in order
+                assertTrue(e % 10_000 >= last[e / 10_000]);
+                last[e / 10_000] = e % 10_000;
+            });
+        }
+        for (Thread producer : producers) producer.join();
+        assertTrue(queue.isEmpty());
+    }
+
+}
@@ -0,0 +1,63 @@
+package fr.shyrogan.post.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Weak identity map test")
+public class WeakIdentityMapTest {
+
+    private final WeakIdentityMap<Object, String> map = new WeakIdentityMap<>();
+
+    @Test
+    @DisplayName("Keys are compared by identity")
+    void identity() {
+        final Equal first  = new Equal();
+        final Equal second = new Equal();
+        map.compute(first, (k, v) -> "first");
+        map.compute(second, (k, v) -> "second");
+
+        assertEquals("first", map.get(first));
+        assertEquals("second", map.get(second));
+        assertEquals("second", map.compute(second, (k, v) -> v));
+        assertEquals("first", map.remove(first));
+        assertNull(map.get(first));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    @DisplayName("Entries of collected keys are expunged")
+    void expunge() throws InterruptedException {
+        Object key = new Object();
+        map.compute(key, (k, v) -> "collected");
+        map.compute(key, (k, v) -> v + "!");
+        key = null;
+
+        List<String> expunged = map.expunge();
+        for (int i = 0; i < 50 && expunged.isEmpty(); i++) {
+            System.gc();
+            Thread.sleep(10);
+            expunged = map.expunge();
+        }
+        assertEquals(asList("collected!"), expunged);
+        assertEquals(0, map.size());
+    }
+
+    /** Every instance is equal to each other **/
+    private static class Equal {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Equal;
+        }
+
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+    }
+
+}